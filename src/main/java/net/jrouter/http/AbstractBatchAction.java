@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.ActionProxy;
+import net.jrouter.impl.InvocationProxyException;
+
+/**
+ * 批量调用Action的基类，一次请求依次或并行调用多个子请求，返回合并的JSON数组：
+ *
+ * <pre>
+ * [{"uri":"/user/info?id=1","status":200,"body":{...}},{"uri":"/feed/list","status":404,"body":""}]
+ * </pre>
+ * <p>
+ * 子请求为Action路径及查询参数，由请求参数{@value #REQUEST_PARAMETER}（可多个）或请求体（每行一个）提供；
+ * 每个子请求使用独立的Http参数对象调用{@code invokeAction}，经过完整的拦截器。Content-Type为JSON且内容为有效JSON的
+ * 子请求结果直接嵌入，其他作为JSON字符串。设置{@link #executor}后并行调用，调用线程等待至全部完成或请求截止时间；
+ * 截止后未开始的子请求被取消（返回504），并等待执行中的子请求结束后才返回，子请求不会在批量请求结束后使用其请求对象。
+ * <p>
+ * 子请求不可再调用批量Action（返回400），批量Action仅处理非嵌套的请求。子请求以GET请求调用，
+ * 请求入口设置{@link Controls}（如请求属性{@link #CONTROLS_ATTRIBUTE}）时，子请求应用与入口相同的请求方法、
+ * 并发限制、截止时间及慢请求检测。
+ * @param <I> ActionInvocation type.
+ */
+@Slf4j
+@lombok.Getter
+@lombok.Setter
+public abstract class AbstractBatchAction<I> {
+
+    /**
+     * 子请求的参数名称。
+     */
+    public static final String REQUEST_PARAMETER = "r";
+
+    /**
+     * 请求入口设置{@link Controls}的请求属性名称。
+     */
+    public static final String CONTROLS_ATTRIBUTE = Controls.class.getName();
+
+    /**
+     * 并行调用子请求的{@code Executor}，为{@code null}时于当前线程依次调用。
+     */
+    private Executor executor;
+
+    /**
+     * 最大子请求数，超出的子请求返回413。
+     */
+    private int maxRequests = 20;
+
+    /**
+     * 调用所有子请求并返回合并的JSON。
+     * @param invocation the batch action's invocation.
+     * @param uris 子请求。
+     * @param deadline 请求截止时间，可为{@code null}。
+     * @return UTF-8 encoded JSON array.
+     */
+    protected byte[] execute(I invocation, List<String> uris, RequestDeadline deadline) {
+        int size = uris.size();
+        Result[] results = new Result[size];
+        int count = Math.min(size, maxRequests);
+        for (int i = count; i < size; i++) {
+            results[i] = new Result(uris.get(i), 413, null, "");
+        }
+        if (executor == null || count <= 1) {
+            for (int i = 0; i < count; i++) {
+                results[i] = RequestDeadline.isCancelled(deadline) ? new Result(uris.get(i), 504, null, "")
+                        : invokeSafely(invocation, uris.get(i), false);
+            }
+        }
+        else {
+            List<SubTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SubTask task = new SubTask(invocation, uris.get(i));
+                try {
+                    executor.execute(task);
+                }
+                catch (RejectedExecutionException e) {
+                    // caller runs
+                    task.future.complete(invokeSafely(invocation, task.uri, false));
+                }
+                tasks.add(task);
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    results[i] = await(tasks.get(i).future, uris.get(i), deadline);
+                }
+            }
+            finally {
+                // the sub requests must not outlive the batch request
+                for (SubTask task : tasks) {
+                    task.cancel();
+                }
+                for (SubTask task : tasks) {
+                    task.awaitDone();
+                }
+            }
+        }
+        return toJson(results).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 调用一个子请求。
+     * @param invocation the batch action's invocation.
+     * @param uri 子请求的Action路径及查询参数。
+     * @param async 是否在{@link #executor}的线程中调用。
+     * @return the result.
+     */
+    protected abstract Result invoke(I invocation, String uri, boolean async);
+
+    private Result invokeSafely(I invocation, String uri, boolean async) {
+        try {
+            return invoke(invocation, uri, async);
+        }
+        catch (RequestCancelledException e) {
+            return new Result(uri, 504, null, "");
+        }
+        catch (InvocationProxyException e) {
+            if (e.getSource() instanceof RequestCancelledException) {
+                return new Result(uri, 504, null, "");
+            }
+            log.error("Internal Server Error in batch : {}", uri, e.getSource());
+            return new Result(uri, 500, null, "");
+        }
+        catch (RuntimeException e) {
+            log.error("Internal Server Error in batch : {}", uri, e);
+            return new Result(uri, 500, null, "");
+        }
+    }
+
+    /**
+     * 并行调用的子请求，未开始时可取消，执行中的可等待其结束。
+     */
+    private final class SubTask implements Runnable {
+
+        private static final int NEW = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int DONE = 2;
+
+        private final I invocation;
+
+        private final String uri;
+
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        private final AtomicInteger state = new AtomicInteger(NEW);
+
+        SubTask(I invocation, String uri) {
+            this.invocation = invocation;
+            this.uri = uri;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return;
+            }
+            try {
+                future.complete(invokeSafely(invocation, uri, true));
+            }
+            finally {
+                synchronized (this) {
+                    state.set(DONE);
+                    notifyAll();
+                }
+            }
+        }
+
+        void cancel() {
+            if (state.compareAndSet(NEW, DONE)) {
+                future.complete(new Result(uri, 504, null, ""));
+            }
+        }
+
+        synchronized void awaitDone() {
+            boolean interrupted = false;
+            while (state.get() == RUNNING) {
+                try {
+                    wait();
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+    private static Result await(CompletableFuture<Result> future, String uri, RequestDeadline deadline) {
+        try {
+            if (deadline != null && deadline.hasDeadline()) {
+                return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            }
+            return future.get();
+        }
+        catch (TimeoutException e) {
+            return new Result(uri, 504, null, "");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(uri, 504, null, "");
+        }
+        catch (ExecutionException e) {
+            log.error("Internal Server Error in batch : {}", uri, e.getCause());
+            return new Result(uri, 500, null, "");
+        }
+    }
+
+    /**
+     * 按请求入口的控制调用子请求：不允许GET请求的Action返回405；使用Action的超时创建不晚于批量请求的子截止时间，
+     * 已截止返回504；获取Action自身的并发限制（全局限制已由批量请求计入），超出时返回503；并计入慢请求检测。
+     * @param controls 请求入口的控制，可为{@code null}。
+     * @param uri 子请求的Action路径及查询参数。
+     * @param path 子请求的Action路径。
+     * @param deadline 批量请求的截止时间，可为{@code null}。
+     * @param allowWait 是否允许排队等待并发限制。
+     * @param invoker 以子请求的截止时间调用子请求。
+     * @return the result.
+     */
+    protected static Result invokeControlled(Controls controls, String uri, String path, RequestDeadline deadline,
+            boolean allowWait, Function<RequestDeadline, Result> invoker) {
+        if (controls == null) {
+            return invoker.apply(deadline);
+        }
+        if (!controls.allows(path, "GET")) {
+            return new Result(uri, 405, null, "");
+        }
+        RequestDeadline subDeadline = deadline;
+        if (controls.deadlinePolicy != null) {
+            long timeout = controls.deadlinePolicy.resolveTimeout(path, null);
+            subDeadline = deadline == null ? RequestDeadline.after(timeout) : deadline.child(timeout);
+        }
+        if (RequestDeadline.isCancelled(subDeadline)) {
+            return new Result(uri, 504, null, "");
+        }
+        ActionBulkheads.Bulkhead bulkhead = controls.actionBulkheads == null ? null
+                : controls.actionBulkheads.find(path);
+        if (bulkhead != null) {
+            try {
+                bulkhead.acquireOwn(allowWait);
+            }
+            catch (BulkheadRejectedException e) {
+                return new Result(uri, 503, null, "");
+            }
+        }
+        SlowRequestDetector.InFlight inFlight = controls.slowRequestDetector == null ? null
+                : controls.slowRequestDetector.begin(path);
+        try {
+            return invoker.apply(subDeadline);
+        }
+        finally {
+            if (inFlight != null) {
+                controls.slowRequestDetector.end(inFlight);
+            }
+            if (bulkhead != null) {
+                bulkhead.releaseOwn();
+            }
+        }
+    }
+
+    /**
+     * 子请求的Action是否为批量Action。
+     * @param actions all actions of the ActionFactory.
+     * @param path 子请求的Action路径。
+     * @return {@code true}则不可调用。
+     */
+    protected static boolean isBatchAction(Map<?, ?> actions, String path) {
+        Object proxy = actions.get(path);
+        if (proxy instanceof ActionProxy) {
+            Method method = ((ActionProxy) proxy).getMethod();
+            return method != null && AbstractBatchAction.class.isAssignableFrom(method.getDeclaringClass());
+        }
+        return false;
+    }
+
+    /**
+     * 合并请求参数及请求体（每行一个）中的子请求。
+     * @param params 请求参数{@value #REQUEST_PARAMETER}的值，可为{@code null}。
+     * @param body 请求体，可为{@code null}。
+     * @return 子请求。
+     */
+    protected static List<String> parseRequests(Collection<String> params, CharSequence body) {
+        List<String> uris = new ArrayList<>();
+        if (params != null) {
+            for (String param : params) {
+                addRequest(uris, param);
+            }
+        }
+        if (body != null) {
+            int len = body.length();
+            int start = 0;
+            for (int i = 0; i <= len; i++) {
+                if (i == len || body.charAt(i) == '\n') {
+                    addRequest(uris, body.subSequence(start, i).toString());
+                    start = i + 1;
+                }
+            }
+        }
+        return uris;
+    }
+
+    private static void addRequest(List<String> uris, String uri) {
+        String str = uri.trim();
+        if (!str.isEmpty()) {
+            uris.add(str.charAt(0) == '/' ? str : '/' + str);
+        }
+    }
+
+    /**
+     * 子请求的Action路径。
+     * @param uri 子请求的Action路径及查询参数。
+     * @return Action路径。
+     */
+    protected static String actionPath(String uri) {
+        int len = uri.length();
+        for (int i = 0; i < len; i++) {
+            char c = uri.charAt(i);
+            if (c == '?' || c == '#') {
+                return uri.substring(0, i);
+            }
+        }
+        return uri;
+    }
+
+    /**
+     * 子请求的查询参数。
+     * @param uri 子请求的Action路径及查询参数。
+     * @return 查询参数，无则返回{@code null}。
+     */
+    protected static String queryString(String uri) {
+        int idx = uri.indexOf('?');
+        if (idx == -1) {
+            return null;
+        }
+        int end = uri.indexOf('#', idx);
+        return end == -1 ? uri.substring(idx + 1) : uri.substring(idx + 1, end);
+    }
+
+    static String toJson(Result[] results) {
+        StringBuilder json = new StringBuilder(256 * results.length + 2);
+        json.append('[');
+        for (int i = 0; i < results.length; i++) {
+            Result result = results[i];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"uri\":");
+            JsonUtil.appendString(json, result.uri);
+            json.append(",\"status\":").append(result.status).append(",\"body\":");
+            String body = result.body == null ? "" : result.body;
+            if (result.contentType != null && result.contentType.contains("json") && JsonUtil.isValid(body)) {
+                json.append(body);
+            }
+            else {
+                JsonUtil.appendString(json, body);
+            }
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * 请求入口（如过滤器）对Action的控制，按{@code ActionFactory}构建，子请求应用相同的控制。
+     */
+    public static final class Controls {
+
+        /**
+         * May be null.
+         */
+        private final RequestMethods requestMethods;
+
+        private final boolean actionPathCaseSensitive;
+
+        /**
+         * May be null.
+         */
+        private final ActionBulkheads actionBulkheads;
+
+        /**
+         * May be null.
+         */
+        private final DeadlinePolicy deadlinePolicy;
+
+        /**
+         * May be null.
+         */
+        private final SlowRequestDetector slowRequestDetector;
+
+        /**
+         * Constructor.
+         * @param requestMethods Action允许的请求方法，可为{@code null}。
+         * @param actionPathCaseSensitive Action路径是否区分大小写。
+         * @param actionBulkheads 按Action路径的并发限制，可为{@code null}。
+         * @param deadlinePolicy 请求截止时间的策略，可为{@code null}。
+         * @param slowRequestDetector 慢请求检测，可为{@code null}。
+         */
+        public Controls(RequestMethods requestMethods, boolean actionPathCaseSensitive,
+                ActionBulkheads actionBulkheads, DeadlinePolicy deadlinePolicy,
+                SlowRequestDetector slowRequestDetector) {
+            this.requestMethods = requestMethods;
+            this.actionPathCaseSensitive = actionPathCaseSensitive;
+            this.actionBulkheads = actionBulkheads;
+            this.deadlinePolicy = deadlinePolicy;
+            this.slowRequestDetector = slowRequestDetector;
+        }
+
+        /**
+         * 按Action路径的并发限制。
+         * @return the bulkheads, may be null.
+         */
+        public ActionBulkheads getActionBulkheads() {
+            return actionBulkheads;
+        }
+
+        /**
+         * Action允许的请求方法。
+         * @return the request methods, may be null.
+         */
+        public RequestMethods getRequestMethods() {
+            return requestMethods;
+        }
+
+        /**
+         * Action是否允许指定的请求方法。
+         * @param path Action路径。
+         * @param method the http method, upper case.
+         * @return true if allowed.
+         */
+        public boolean allows(String path, String method) {
+            if (requestMethods == null) {
+                return true;
+            }
+            RequestMethods.Allowed allowed = requestMethods
+                .get(actionPathCaseSensitive ? path : path.toLowerCase(Locale.getDefault()));
+            return allowed == null || allowed.allows(method);
+        }
+
+    }
+
+    /**
+     * 一个子请求的结果。
+     */
+    public static final class Result {
+
+        private final String uri;
+
+        private final int status;
+
+        private final String contentType;
+
+        private final String body;
+
+        /**
+         * Constructor.
+         * @param uri 子请求。
+         * @param status 状态码。
+         * @param contentType 响应的Content-Type，可为{@code null}。
+         * @param body 响应内容。
+         */
+        public Result(String uri, int status, String contentType, String body) {
+            this.uri = uri;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        /**
+         * Gets the status code.
+         * @return the status code.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" + uri + ", status=" + status + '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.ActionFactory;
+import net.jrouter.ActionProxy;
+import net.jrouter.util.StringUtil;
+
+/**
+ * 按Action路径隔离的并发限制（bulkhead）。
+ * <p>
+ * 每个配置的Action路径拥有独立的信号量；可选的全局并发限制作用于除{@link #exemptActions}外的所有Action，
+ * 为健康检查、认证等关键Action在过载时保留余量。超出限制时抛出{@link BulkheadRejectedException}。
+ * 构建完成后只读，可多线程共享。
+ *
+ * <pre>
+ * Bulkhead bulkhead = bulkheads.get(actionPath);
+ * bulkhead.acquire(allowWait);
+ * try {
+ *     ...
+ * }
+ * finally {
+ *     bulkhead.release();
+ * }
+ * </pre>
+ */
+@Slf4j
+public class ActionBulkheads {
+
+    /**
+     * 无并发限制。
+     */
+    private static final Bulkhead UNLIMITED = new Bulkhead("unlimited", 0, 0, null);
+
+    /**
+     * Action path - Bulkhead mapping.
+     */
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    /**
+     * Actions not limited by the global bulkhead.
+     */
+    private final Set<String> exemptActions = new HashSet<>();
+
+    /**
+     * Global bulkhead, may be null.
+     */
+    private Bulkhead global = null;
+
+    /**
+     * Bulkhead of actions not configured.
+     */
+    private Bulkhead defaultBulkhead = UNLIMITED;
+
+    /**
+     * Actions limited by {@link ConcurrencyLimit}.
+     */
+    private final Set<String> annotatedActions = new HashSet<>();
+
+    /**
+     * The ActionFactory of the annotated actions, may be null.
+     */
+    @lombok.Getter
+    private ActionFactory actionFactory;
+
+    /**
+     * 解析并发限制配置，格式为逗号分隔的"path=permits[:queueTimeout]"，如"/report=4:100,/export=2"。
+     * @param spec the configuration.
+     * @return this.
+     */
+    public ActionBulkheads parse(String spec) {
+        if (StringUtil.isBlank(spec)) {
+            return this;
+        }
+        for (String item : spec.split(",")) {
+            String str = item.trim();
+            if (str.isEmpty()) {
+                continue;
+            }
+            int idx = str.lastIndexOf('=');
+            if (idx < 1) {
+                throw new IllegalArgumentException("Invalid concurrency limit : " + str);
+            }
+            String path = str.substring(0, idx).trim();
+            String limit = str.substring(idx + 1).trim();
+            int colon = limit.indexOf(':');
+            if (colon > -1) {
+                setLimit(path, Integer.parseInt(limit.substring(0, colon).trim()),
+                        Long.parseLong(limit.substring(colon + 1).trim()));
+            }
+            else {
+                setLimit(path, Integer.parseInt(limit), 0);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 扫描{@code ActionFactory}中声明了{@link ConcurrencyLimit}的Action，已配置的路径不覆盖。
+     * @param actionFactory ActionFactory.
+     * @return this.
+     */
+    public ActionBulkheads addAnnotatedActions(ActionFactory actionFactory) {
+        return addAnnotatedActions(actionFactory, null);
+    }
+
+    /**
+     * 以新的{@code ActionFactory}（如重新加载后）重建{@link ConcurrencyLimit}声明的并发限制；
+     * 配置的及限制未变化的{@code Bulkhead}沿用原对象，执行中的请求仍计入同一限制。
+     * @param actionFactory the new ActionFactory.
+     * @return the new ActionBulkheads.
+     */
+    public ActionBulkheads reload(ActionFactory actionFactory) {
+        ActionBulkheads reloaded = new ActionBulkheads();
+        reloaded.global = global;
+        reloaded.defaultBulkhead = defaultBulkhead;
+        reloaded.exemptActions.addAll(exemptActions);
+        for (Map.Entry<String, Bulkhead> e : bulkheads.entrySet()) {
+            if (!annotatedActions.contains(e.getKey())) {
+                reloaded.bulkheads.put(e.getKey(), e.getValue());
+            }
+        }
+        return reloaded.addAnnotatedActions(actionFactory, this);
+    }
+
+    private ActionBulkheads addAnnotatedActions(ActionFactory actionFactory, ActionBulkheads previous) {
+        this.actionFactory = actionFactory;
+        Map<?, ?> actions = actionFactory.getActions();
+        for (Map.Entry<?, ?> e : actions.entrySet()) {
+            if (!(e.getValue() instanceof ActionProxy)) {
+                continue;
+            }
+            Method method = ((ActionProxy) e.getValue()).getMethod();
+            ConcurrencyLimit limit = method == null ? null : method.getAnnotation(ConcurrencyLimit.class);
+            String path = String.valueOf(e.getKey());
+            if (limit != null && !bulkheads.containsKey(path)) {
+                Bulkhead old = previous == null || !previous.annotatedActions.contains(path) ? null
+                        : previous.bulkheads.get(path);
+                if (old != null && old.permits == limit.value() && old.queueTimeout == limit.queueTimeout()) {
+                    bulkheads.put(path, old);
+                }
+                else {
+                    setLimit(path, limit.value(), limit.queueTimeout());
+                }
+                annotatedActions.add(path);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 设置Action的并发限制。
+     * @param path the action path.
+     * @param permits max concurrent invocations.
+     * @param queueTimeout queue timeout in milliseconds.
+     * @return this.
+     */
+    public ActionBulkheads setLimit(String path, int permits, long queueTimeout) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive : " + path);
+        }
+        bulkheads.put(path, new Bulkhead(path, permits, queueTimeout, exemptActions.contains(path) ? null : global));
+        log.info("Set concurrency limit [{}] : {}, queue timeout : {} ms", path, permits, queueTimeout);
+        return this;
+    }
+
+    /**
+     * 设置全局并发限制（不含{@link #exempt}的Action），需在{@link #setLimit}前调用。
+     * @param permits max concurrent invocations.
+     * @param queueTimeout queue timeout in milliseconds.
+     * @return this.
+     */
+    public ActionBulkheads setGlobalLimit(int permits, long queueTimeout) {
+        if (!bulkheads.isEmpty()) {
+            throw new IllegalStateException("Set global limit before action limits");
+        }
+        global = new Bulkhead("*", permits, queueTimeout, null);
+        defaultBulkhead = global;
+        log.info("Set global concurrency limit : {}, queue timeout : {} ms", permits, queueTimeout);
+        return this;
+    }
+
+    /**
+     * 不受全局并发限制的Action，如健康检查、认证；需在{@link #setLimit}前调用。
+     * @param paths the action paths.
+     * @return this.
+     */
+    public ActionBulkheads exempt(String... paths) {
+        if (!bulkheads.isEmpty()) {
+            throw new IllegalStateException("Set exempt actions before action limits");
+        }
+        Collections.addAll(exemptActions, paths);
+        return this;
+    }
+
+    /**
+     * 返回Action路径对应的{@code Bulkhead}，不创建新对象。
+     * @param path the action path.
+     * @return the bulkhead, never null.
+     */
+    public Bulkhead get(String path) {
+        Bulkhead bulkhead = bulkheads.get(path);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        return defaultBulkhead == UNLIMITED || exemptActions.contains(path) ? UNLIMITED : defaultBulkhead;
+    }
+
+    /**
+     * 返回Action路径配置的{@code Bulkhead}，不含全局限制。
+     * @param path the action path.
+     * @return the bulkhead, null if not configured.
+     */
+    public Bulkhead find(String path) {
+        return bulkheads.get(path);
+    }
+
+    /**
+     * 返回所有配置的{@code Bulkhead}，包含全局（名称为"*"）。
+     * @return unmodifiable bulkheads.
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        if (global == null) {
+            return Collections.unmodifiableMap(bulkheads);
+        }
+        Map<String, Bulkhead> all = new LinkedHashMap<>(bulkheads);
+        all.put(global.name, global);
+        return Collections.unmodifiableMap(all);
+    }
+
+    /**
+     * 一个并发限制及其计数。
+     */
+    public static final class Bulkhead {
+
+        private final String name;
+
+        /**
+         * Null if unlimited.
+         */
+        private final Semaphore semaphore;
+
+        private final int permits;
+
+        private final long queueTimeout;
+
+        /**
+         * Global bulkhead, may be null.
+         */
+        private final Bulkhead parent;
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder completed = new LongAdder();
+
+        private Bulkhead(String name, int permits, long queueTimeout, Bulkhead parent) {
+            this.name = name;
+            this.permits = permits;
+            this.semaphore = permits > 0 ? new Semaphore(permits) : null;
+            this.queueTimeout = queueTimeout;
+            this.parent = parent;
+        }
+
+        /**
+         * 获取执行许可。
+         * @param allowWait 是否允许排队等待（Netty的EventLoop线程中不可阻塞）。
+         * @throws BulkheadRejectedException if rejected.
+         */
+        public void acquire(boolean allowWait) throws BulkheadRejectedException {
+            if (semaphore != null && !tryAcquire(allowWait)) {
+                rejected.increment();
+                throw new BulkheadRejectedException("Concurrency limit exceeded : " + name);
+            }
+            if (parent != null) {
+                try {
+                    parent.acquire(allowWait);
+                }
+                catch (BulkheadRejectedException e) {
+                    semaphore.release();
+                    rejected.increment();
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * 仅获取本限制的执行许可，不含全局限制；用于已计入全局限制的请求中的子请求（如批量请求）。
+         * @param allowWait 是否允许排队等待。
+         * @throws BulkheadRejectedException if rejected.
+         */
+        public void acquireOwn(boolean allowWait) throws BulkheadRejectedException {
+            if (semaphore != null && !tryAcquire(allowWait)) {
+                rejected.increment();
+                throw new BulkheadRejectedException("Concurrency limit exceeded : " + name);
+            }
+        }
+
+        /**
+         * 释放{@link #acquireOwn}获取的执行许可。
+         */
+        public void releaseOwn() {
+            if (semaphore != null) {
+                semaphore.release();
+                completed.increment();
+            }
+        }
+
+        private boolean tryAcquire(boolean allowWait) {
+            if (semaphore.tryAcquire()) {
+                return true;
+            }
+            if (allowWait && queueTimeout > 0) {
+                try {
+                    return semaphore.tryAcquire(queueTimeout, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 释放执行许可。
+         */
+        public void release() {
+            if (parent != null) {
+                parent.release();
+            }
+            if (semaphore != null) {
+                semaphore.release();
+                completed.increment();
+            }
+        }
+
+        /**
+         * Gets the action path, "*" for the global bulkhead.
+         * @return the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the max concurrent invocations.
+         * @return the permits.
+         */
+        public int getPermits() {
+            return permits;
+        }
+
+        /**
+         * Gets the queue timeout in milliseconds.
+         * @return the queue timeout.
+         */
+        public long getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        /**
+         * Count of running invocations.
+         * @return count of running invocations.
+         */
+        public int getActive() {
+            return semaphore == null ? 0 : permits - semaphore.availablePermits();
+        }
+
+        /**
+         * Estimated count of waiting invocations.
+         * @return count of waiting invocations.
+         */
+        public int getQueued() {
+            return semaphore == null ? 0 : semaphore.getQueueLength();
+        }
+
+        /**
+         * Count of rejected invocations.
+         * @return count of rejected invocations.
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Count of completed invocations.
+         * @return count of completed invocations.
+         */
+        public long getCompleted() {
+            return completed.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Bulkhead{" + name + ", permits=" + permits + ", active=" + getActive() + ", queued="
+                    + getQueued() + ", rejected=" + getRejected() + '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.ActionFactory;
+
+/**
+ * 可热替换的{@code ActionFactory}持有者。
+ * <p>
+ * 新的{@code ActionFactory}在调用线程（或指定的{@code Executor}）中完整构建后原子替换当前对象（copy-on-write）；
+ * 正在执行的请求继续使用其获取时的{@code ActionFactory}，旧对象在所有请求释放后才调用{@link ActionFactory#clear()}。
+ *
+ * <pre>
+ * try (ActionFactoryHolder.Generation&lt;T&gt; generation = holder.acquire()) {
+ *     generation.getActionFactory().invokeAction(...);
+ * }
+ * </pre>
+ * @param <T> ActionFactory type.
+ */
+@Slf4j
+public class ActionFactoryHolder<T extends ActionFactory> {
+
+    /**
+     * Current generation.
+     */
+    private final AtomicReference<Generation<T>> current;
+
+    /**
+     * Constructor.
+     * @param actionFactory the initial ActionFactory.
+     */
+    public ActionFactoryHolder(T actionFactory) {
+        Objects.requireNonNull(actionFactory, "actionFactory can't be null");
+        this.current = new AtomicReference<>(new Generation<>(actionFactory, 0));
+    }
+
+    /**
+     * 返回当前的{@code ActionFactory}，不计入正在执行的请求。
+     * @return the current ActionFactory.
+     */
+    public T get() {
+        return current.get().actionFactory;
+    }
+
+    /**
+     * 返回当前的版本号，每次替换后递增。
+     * @return the current generation number.
+     */
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * 获取当前的{@code Generation}并计入正在执行的请求，使用完毕后必须调用{@link Generation#close()}。
+     * @return the current generation.
+     */
+    public Generation<T> acquire() {
+        for (;;) {
+            Generation<T> generation = current.get();
+            if (generation.tryRetain()) {
+                return generation;
+            }
+            if (current.get() == generation) {
+                throw new IllegalStateException("ActionFactory has been cleared : " + generation.actionFactory);
+            }
+            // retired between get() and tryRetain(), retry with the new one
+        }
+    }
+
+    /**
+     * 原子替换当前的{@code ActionFactory}；旧对象在所有请求释放后调用{@link ActionFactory#clear()}。
+     * @param actionFactory the new ActionFactory.
+     * @return the previous ActionFactory.
+     */
+    public T swap(T actionFactory) {
+        Objects.requireNonNull(actionFactory, "actionFactory can't be null");
+        Generation<T> previous;
+        Generation<T> next;
+        do {
+            previous = current.get();
+            if (previous.actionFactory == actionFactory) {
+                return actionFactory;
+            }
+            next = new Generation<>(actionFactory, previous.version + 1);
+        }
+        while (!current.compareAndSet(previous, next));
+        log.info("Swap ActionFactory [{}] -> [{}], version : {}", previous.actionFactory, actionFactory,
+                next.version);
+        // release the holder's own reference
+        previous.release();
+        return previous.actionFactory;
+    }
+
+    /**
+     * 于当前线程中构建新的{@code ActionFactory}并替换；构建失败时保留原对象。
+     * @param supplier the new ActionFactory supplier.
+     * @return the new ActionFactory.
+     */
+    public T reload(Supplier<? extends T> supplier) {
+        long start = System.currentTimeMillis();
+        T actionFactory = supplier.get();
+        log.info("Reload ActionFactory in {} ms", System.currentTimeMillis() - start);
+        swap(actionFactory);
+        return actionFactory;
+    }
+
+    /**
+     * 于指定的{@code Executor}中构建新的{@code ActionFactory}并替换；构建失败时保留原对象。
+     * @param supplier the new ActionFactory supplier.
+     * @param executor the executor to build the new ActionFactory.
+     * @return the future of the new ActionFactory.
+     */
+    public CompletableFuture<T> reloadAsync(Supplier<? extends T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> reload(supplier), executor).whenComplete((factory, e) -> {
+            if (e != null) {
+                log.error("Can't reload ActionFactory, keep the current one : {}", get(), e);
+            }
+        });
+    }
+
+    /**
+     * 释放当前的{@code ActionFactory}，在所有请求释放后调用{@link ActionFactory#clear()}。
+     */
+    public void clear() {
+        current.get().release();
+    }
+
+    /**
+     * 一个{@code ActionFactory}的版本及其引用计数；引用计数初始为1，由持有者所有。
+     * @param <T> ActionFactory type.
+     */
+    public static final class Generation<T extends ActionFactory> implements AutoCloseable {
+
+        /**
+         * ActionFactory.
+         */
+        private final T actionFactory;
+
+        /**
+         * Version number.
+         */
+        private final long version;
+
+        /**
+         * Reference count, include the holder itself.
+         */
+        private final AtomicInteger refCnt = new AtomicInteger(1);
+
+        private Generation(T actionFactory, long version) {
+            this.actionFactory = actionFactory;
+            this.version = version;
+        }
+
+        /**
+         * Gets the ActionFactory.
+         * @return the ActionFactory.
+         */
+        public T getActionFactory() {
+            return actionFactory;
+        }
+
+        /**
+         * Gets the version number.
+         * @return the version number.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        private boolean tryRetain() {
+            for (;;) {
+                int cnt = refCnt.get();
+                if (cnt <= 0) {
+                    return false;
+                }
+                if (refCnt.compareAndSet(cnt, cnt + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (refCnt.decrementAndGet() == 0) {
+                log.info("Clear retired ActionFactory : {}", actionFactory);
+                actionFactory.clear();
+            }
+        }
+
+        /**
+         * 释放一次引用。
+         */
+        @Override
+        public void close() {
+            release();
+        }
+
+    }
+
+}
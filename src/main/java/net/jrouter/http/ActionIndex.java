@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.ActionFactory;
+import net.jrouter.ActionProxy;
+import net.jrouter.JRouterException;
+import net.jrouter.impl.PathActionFactory;
+
+/**
+ * 编译期生成的Action索引，由{@link ActionIndexProcessor}生成。
+ * <p>
+ * 索引文件每行一个包含Action方法的类名，'#'开头为注释；启动时直接加载索引中的类，
+ * 无需在配置中扫描包（component-scan）。已注册过Action的类会被忽略，与扫描同时使用时不会重复注册。
+ * 并行加载及各阶段耗时仅适用于索引中的类，需设置索引位置（如filter的{@code actionIndexLocation}）才会生效。
+ */
+@Slf4j
+public final class ActionIndex {
+
+    /**
+     * 默认的索引文件位置。
+     */
+    public static final String LOCATION = "META-INF/jrouter/actions.index";
+
+    private ActionIndex() {
+    }
+
+    /**
+     * 读取所有的索引文件。
+     * @param classLoader the ClassLoader to find the index.
+     * @param location the index location.
+     * @return 索引中的类名，无索引时为空集合。
+     */
+    public static Set<String> read(ClassLoader classLoader, String location) {
+        Set<String> classNames = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(location);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (InputStream in = url.openStream();
+                        BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    parse(reader, classNames);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new JRouterException(e);
+        }
+        return classNames;
+    }
+
+    /**
+     * 解析索引内容。
+     * @param reader the index reader.
+     * @param classNames the result class names.
+     * @throws IOException if an I/O error occurs.
+     */
+    static void parse(BufferedReader reader, Set<String> classNames) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String className = line.trim();
+            if (!className.isEmpty() && className.charAt(0) != '#') {
+                classNames.add(className);
+            }
+        }
+    }
+
+    /**
+     * 加载索引中的类并添加至{@code ActionFactory}，忽略已注册过Action的类；并行数为处理器数量。
+     * @param actionFactory the ActionFactory.
+     * @param classLoader the ClassLoader to find the index and load classes.
+     * @param location the index location.
+     * @return 新添加的类数量，无索引时为0。
+     *
+     * @see #addActions(PathActionFactory, ClassLoader, String, int)
+     */
+    public static int addActions(PathActionFactory actionFactory, ClassLoader classLoader, String location) {
+        return addActions(actionFactory, classLoader, location, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 加载索引中的类并添加至{@code ActionFactory}，忽略已注册过Action的类。
+     * <p>
+     * 类的加载及注解解析于{@code ForkJoinPool}中并行执行，之后按索引顺序于当前线程中注册，注册结果与串行一致；
+     * 完成后输出各阶段耗时。
+     * @param actionFactory the ActionFactory.
+     * @param classLoader the ClassLoader to find the index and load classes.
+     * @param location the index location.
+     * @param parallelism 并行数，小于等于1时串行加载。
+     * @return 新添加的类数量，无索引时为0。
+     */
+    public static int addActions(PathActionFactory actionFactory, ClassLoader classLoader, String location,
+            int parallelism) {
+        long start = System.nanoTime();
+        Set<String> classNames = read(classLoader, location);
+        if (classNames.isEmpty()) {
+            return 0;
+        }
+        Set<String> registered = registeredClasses(actionFactory);
+        List<String> pending = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            if (!registered.contains(className)) {
+                pending.add(className);
+            }
+        }
+        long read = System.nanoTime();
+        Class<?>[] classes = load(pending, classLoader, parallelism);
+        long loaded = System.nanoTime();
+        int actions = actionFactory.getActions().size();
+        int count = 0;
+        // deterministic, in the index order
+        for (Class<?> cls : classes) {
+            if (cls != null) {
+                actionFactory.addActions(cls);
+                count++;
+            }
+        }
+        long end = System.nanoTime();
+        log.info("Add {} indexed action classes ({} actions) from [{}] in {} ms : read {} ms, load {} ms "
+                + "(parallelism {}), register {} ms", count, actionFactory.getActions().size() - actions, location,
+                TimeUnit.NANOSECONDS.toMillis(end - start), TimeUnit.NANOSECONDS.toMillis(read - start),
+                TimeUnit.NANOSECONDS.toMillis(loaded - read), parallelism,
+                TimeUnit.NANOSECONDS.toMillis(end - loaded));
+        return count;
+    }
+
+    /**
+     * Load classes and parse the annotations of the public methods, keep the order.
+     */
+    static Class<?>[] load(List<String> classNames, ClassLoader classLoader, int parallelism) {
+        Class<?>[] classes = new Class<?>[classNames.size()];
+        IntConsumer task = i -> classes[i] = load(classNames.get(i), classLoader);
+        if (parallelism <= 1 || classes.length < 2) {
+            for (int i = 0; i < classes.length; i++) {
+                task.accept(i);
+            }
+            return classes;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, classes.length));
+        try {
+            pool.submit(() -> IntStream.range(0, classes.length).parallel().forEach(task)).join();
+        }
+        finally {
+            pool.shutdown();
+        }
+        return classes;
+    }
+
+    /**
+     * Load the class and warm up its reflection data, return null if not found.
+     */
+    private static Class<?> load(String className, ClassLoader classLoader) {
+        try {
+            Class<?> cls = Class.forName(className, false, classLoader);
+            cls.getAnnotations();
+            for (Method method : cls.getMethods()) {
+                method.getAnnotations();
+            }
+            return cls;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            // stale index
+            log.warn("Can't load indexed action class : {}", className, e);
+            return null;
+        }
+    }
+
+    /**
+     * Declaring class names of the registered actions.
+     */
+    private static Set<String> registeredClasses(ActionFactory actionFactory) {
+        Set<String> classNames = new HashSet<>();
+        Map<?, ?> actions = actionFactory.getActions();
+        for (Object action : actions.values()) {
+            if (action instanceof ActionProxy) {
+                Method method = ((ActionProxy) action).getMethod();
+                if (method != null) {
+                    classNames.add(method.getDeclaringClass().getName());
+                }
+            }
+        }
+        return classNames;
+    }
+
+}
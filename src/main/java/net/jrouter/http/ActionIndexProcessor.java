@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 编译期生成{@link ActionIndex}的注解处理器，
+ * 收集包含{@code @Action}或{@code @RequestMapping}（含{@code @GetMapping}等）方法的类。
+ * <p>
+ * 不依赖jrouter及其它运行时类；未注册为服务，需显式启用，如maven-compiler-plugin的{@code annotationProcessorPaths}/{@code annotationProcessors}
+ * 或{@code javac -processor net.jrouter.http.ActionIndexProcessor}；增量编译时合并已存在的索引。
+ */
+@SupportedAnnotationTypes({ "net.jrouter.annotation.Action", "org.springframework.web.bind.annotation.RequestMapping",
+        "org.springframework.web.bind.annotation.GetMapping", "org.springframework.web.bind.annotation.PostMapping",
+        "org.springframework.web.bind.annotation.PutMapping", "org.springframework.web.bind.annotation.DeleteMapping",
+        "org.springframework.web.bind.annotation.PatchMapping" })
+public class ActionIndexProcessor extends AbstractProcessor {
+
+    /**
+     * Indexed class names, sorted for reproducible output.
+     */
+    private final Set<String> classNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                Element type = element.getEnclosingElement();
+                if (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+                    classNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString());
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !classNames.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * Merge the previous index and write.
+     */
+    private void writeIndex() {
+        try {
+            FileObject previous = processingEnv.getFiler()
+                .getResource(StandardLocation.CLASS_OUTPUT, "", ActionIndex.LOCATION);
+            try (Reader in = new InputStreamReader(previous.openInputStream(), StandardCharsets.UTF_8);
+                    BufferedReader reader = new BufferedReader(in)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String className = line.trim();
+                    // keep the classes not recompiled but still exist
+                    if (!className.isEmpty() && className.charAt(0) != '#' && processingEnv.getElementUtils()
+                        .getTypeElement(className.replace('$', '.')) != null) {
+                        classNames.add(className);
+                    }
+                }
+            }
+        }
+        catch (IOException | IllegalArgumentException e) {
+            // no previous index
+        }
+        try {
+            FileObject index = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", ActionIndex.LOCATION);
+            try (Writer writer = index.openWriter()) {
+                writer.write("# Generated by " + ActionIndexProcessor.class.getName() + "\n");
+                for (String className : classNames) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+            }
+        }
+        catch (IOException e) {
+            processingEnv.getMessager()
+                .printMessage(Diagnostic.Kind.ERROR, "Can't write " + ActionIndex.LOCATION + " : " + e);
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.ActionFactory;
+import net.jrouter.ActionProxy;
+
+/**
+ * Action预热：接收请求前重复调用Action，使{@code invokeAction}、拦截器及结果类型的调用路径被JIT编译，
+ * 完成（或超时）后{@link #isReady()}返回{@code true}。
+ * <p>
+ * 仅预热显式指定的{@link #setActionPaths Action路径}，未指定时预热声明了{@link Warmup}的Action（不含路径变量）；
+ * Action需允许以无参数的GET请求重复调用。单个Action的异常计入错误数量，不中断预热。
+ */
+@Slf4j
+public abstract class ActionWarmup {
+
+    /**
+     * 默认的调用次数，高于分层编译的C2编译阈值。
+     */
+    public static final int DEFAULT_ITERATIONS = 10_000;
+
+    /**
+     * 每个Action的调用次数。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private int iterations = DEFAULT_ITERATIONS;
+
+    /**
+     * 预热的Action路径，为空时预热声明了{@link Warmup}的Action。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private Collection<String> actionPaths;
+
+    /**
+     * 预热的最长时间（毫秒），超时后结束预热。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private long timeout = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Completed after warmed up.
+     */
+    private final CompletableFuture<Void> readiness = new CompletableFuture<>();
+
+    /**
+     * Count of failed invocations.
+     */
+    @lombok.Getter
+    private volatile long errors;
+
+    /**
+     * 于当前线程中预热。
+     * @return 调用次数。
+     */
+    public long run() {
+        List<String> paths = resolveActionPaths();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long invocations = 0;
+        long errorCount = 0;
+        errors = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (String path : paths) {
+                    try {
+                        invoke(path);
+                    }
+                    catch (Exception e) { // NOPMD
+                        if (errorCount++ == 0) {
+                            log.warn("Warm up action error : {}", path, e);
+                        }
+                        errors = errorCount;
+                    }
+                    invocations++;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("Warm up timeout after {} iterations", i + 1);
+                    break;
+                }
+            }
+        }
+        finally {
+            close();
+            readiness.complete(null);
+        }
+        log.info("Warm up {} actions with {} invocations ({} errors) in {} ms", paths.size(), invocations, errorCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return invocations;
+    }
+
+    /**
+     * 于指定的{@code Executor}中预热。
+     * @param executor the executor.
+     * @return 预热完成的{@code CompletableFuture}。
+     */
+    public CompletableFuture<Void> runAsync(Executor executor) {
+        executor.execute(() -> {
+            try {
+                run();
+            }
+            catch (RuntimeException e) {
+                log.error("Warm up failed", e);
+                readiness.complete(null);
+            }
+        });
+        return readiness;
+    }
+
+    /**
+     * 是否已完成预热。
+     * @return true if warmed up.
+     */
+    public boolean isReady() {
+        return readiness.isDone();
+    }
+
+    /**
+     * 预热完成的{@code CompletableFuture}。
+     * @return the readiness.
+     */
+    public CompletableFuture<Void> getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * 获取预热的Action路径。
+     */
+    private List<String> resolveActionPaths() {
+        if (actionPaths != null && !actionPaths.isEmpty()) {
+            return new ArrayList<>(actionPaths);
+        }
+        // only the declared ones, never replay non-idempotent actions
+        List<String> paths = new ArrayList<>();
+        Map<?, ?> actions = getActionFactory().getActions();
+        for (Map.Entry<?, ?> e : actions.entrySet()) {
+            if (!(e.getKey() instanceof String) || !(e.getValue() instanceof ActionProxy)) {
+                continue;
+            }
+            String path = (String) e.getKey();
+            Method method = ((ActionProxy) e.getValue()).getMethod();
+            if (method != null && method.isAnnotationPresent(Warmup.class) && !PathTemplateTrie.isTemplate(path)) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * 预热的{@code ActionFactory}。
+     * @return the ActionFactory.
+     */
+    protected abstract ActionFactory getActionFactory();
+
+    /**
+     * 以合成的请求调用一次Action。
+     * @param path Action路径。
+     * @throws Exception if error occurs.
+     */
+    protected abstract void invoke(String path) throws Exception;
+
+    /**
+     * 预热结束后释放资源。
+     */
+    protected void close() {
+        // nothing
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明Action方法的最大并发数，由{@link ActionBulkheads}扫描并于适配器中调用Action前限制。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimit {
+
+    /**
+     * 最大并发数。
+     * @return max concurrent invocations.
+     */
+    int value();
+
+    /**
+     * 超出并发数时的最大排队等待毫秒数，0表示立即拒绝；在Netty的EventLoop线程中总是立即拒绝。
+     * @return queue timeout in milliseconds.
+     */
+    long queueTimeout() default 0;
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Collections;
+import java.util.Map;
+import net.jrouter.util.StringUtil;
+
+/**
+ * 创建{@link RequestDeadline}的策略：按请求头、Action路径、全局默认值的顺序确定超时毫秒数。
+ */
+@lombok.Getter
+@lombok.Setter
+public class DeadlinePolicy {
+
+    /**
+     * 全局默认的超时毫秒数，小于等于0时无截止时间（仅支持取消）。
+     */
+    private long defaultTimeout = 0;
+
+    /**
+     * 超时毫秒数的上限，限制请求头指定的值；小于等于0时不限制。
+     */
+    private long maxTimeout = 0;
+
+    /**
+     * 指定超时毫秒数的请求头名称，为null时忽略请求头。
+     */
+    private String headerName = null;
+
+    /**
+     * Action路径 - 超时毫秒数映射。
+     */
+    @lombok.NonNull
+    private Map<String, Long> actionTimeouts = Collections.emptyMap();
+
+    /**
+     * 创建请求的{@code RequestDeadline}。
+     * @param actionPath the action path.
+     * @param headerValue the value of {@link #headerName}, may be null.
+     * @return RequestDeadline object.
+     */
+    public RequestDeadline newDeadline(String actionPath, String headerValue) {
+        return RequestDeadline.after(resolveTimeout(actionPath, headerValue));
+    }
+
+    /**
+     * 创建自指定时间（如收到请求时）起计算的{@code RequestDeadline}，排队等待的时间计入超时。
+     * @param actionPath the action path.
+     * @param headerValue the value of {@link #headerName}, may be null.
+     * @param startNanos the start time in {@link System#nanoTime()}.
+     * @return RequestDeadline object.
+     */
+    public RequestDeadline newDeadline(String actionPath, String headerValue, long startNanos) {
+        return RequestDeadline.after(resolveTimeout(actionPath, headerValue), startNanos);
+    }
+
+    /**
+     * 确定超时毫秒数。
+     * @param actionPath the action path.
+     * @param headerValue the value of {@link #headerName}, may be null.
+     * @return timeout in milliseconds, 0 if no deadline.
+     */
+    public long resolveTimeout(String actionPath, String headerValue) {
+        long timeout = defaultTimeout;
+        if (!actionTimeouts.isEmpty()) {
+            Long actionTimeout = actionTimeouts.get(actionPath);
+            if (actionTimeout != null) {
+                timeout = actionTimeout;
+            }
+        }
+        if (StringUtil.isNotBlank(headerValue)) {
+            try {
+                long headerTimeout = Long.parseLong(headerValue.trim());
+                // client can only shorten the server side timeout
+                if (headerTimeout > 0 && (timeout <= 0 || headerTimeout < timeout)) {
+                    timeout = headerTimeout;
+                }
+            }
+            catch (NumberFormatException e) {
+                // ignore invalid header value
+            }
+        }
+        if (maxTimeout > 0 && (timeout <= 0 || timeout > maxTimeout)) {
+            timeout = maxTimeout;
+        }
+        return timeout;
+    }
+
+}
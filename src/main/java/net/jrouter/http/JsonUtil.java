@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+/**
+ * 输出JSON的工具方法，仅供内部的批量调用及路由表使用。
+ */
+final class JsonUtil {
+
+    /**
+     * Max nesting depth of arrays and objects.
+     */
+    private static final int MAX_DEPTH = 512;
+
+    private JsonUtil() {
+    }
+
+    /**
+     * 输出转义后的JSON字符串，{@code null}输出为空字符串。
+     * @param json the output.
+     * @param str the string.
+     */
+    static void appendString(StringBuilder json, String str) {
+        json.append('"');
+        int len = str == null ? 0 : str.length();
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * 是否为有效的JSON（RFC 8259），不构建对象。
+     * @param str the string.
+     * @return {@code true} if valid.
+     */
+    static boolean isValid(String str) {
+        if (str == null) {
+            return false;
+        }
+        int pos = skipValue(str, skipWhitespace(str, 0), 0);
+        return pos >= 0 && skipWhitespace(str, pos) == str.length();
+    }
+
+    /**
+     * Skip a value, return the position after it or -1 if invalid.
+     */
+    private static int skipValue(String str, int pos, int depth) {
+        if (pos >= str.length()) {
+            return -1;
+        }
+        char c = str.charAt(pos);
+        switch (c) {
+            case '{':
+                return depth < MAX_DEPTH ? skipObject(str, pos + 1, depth + 1) : -1;
+            case '[':
+                return depth < MAX_DEPTH ? skipArray(str, pos + 1, depth + 1) : -1;
+            case '"':
+                return skipString(str, pos + 1);
+            case 't':
+                return str.startsWith("true", pos) ? pos + 4 : -1;
+            case 'f':
+                return str.startsWith("false", pos) ? pos + 5 : -1;
+            case 'n':
+                return str.startsWith("null", pos) ? pos + 4 : -1;
+            default:
+                return skipNumber(str, pos);
+        }
+    }
+
+    private static int skipObject(String str, int start, int depth) {
+        int pos = skipWhitespace(str, start);
+        if (pos < str.length() && str.charAt(pos) == '}') {
+            return pos + 1;
+        }
+        while (pos < str.length()) {
+            if (str.charAt(pos) != '"') {
+                return -1;
+            }
+            pos = skipString(str, pos + 1);
+            if (pos < 0) {
+                return -1;
+            }
+            pos = skipWhitespace(str, pos);
+            if (pos >= str.length() || str.charAt(pos) != ':') {
+                return -1;
+            }
+            pos = skipValue(str, skipWhitespace(str, pos + 1), depth);
+            if (pos < 0) {
+                return -1;
+            }
+            pos = skipWhitespace(str, pos);
+            if (pos < str.length() && str.charAt(pos) == '}') {
+                return pos + 1;
+            }
+            if (pos >= str.length() || str.charAt(pos) != ',') {
+                return -1;
+            }
+            pos = skipWhitespace(str, pos + 1);
+        }
+        return -1;
+    }
+
+    private static int skipArray(String str, int start, int depth) {
+        int pos = skipWhitespace(str, start);
+        if (pos < str.length() && str.charAt(pos) == ']') {
+            return pos + 1;
+        }
+        while (pos < str.length()) {
+            pos = skipValue(str, pos, depth);
+            if (pos < 0) {
+                return -1;
+            }
+            pos = skipWhitespace(str, pos);
+            if (pos < str.length() && str.charAt(pos) == ']') {
+                return pos + 1;
+            }
+            if (pos >= str.length() || str.charAt(pos) != ',') {
+                return -1;
+            }
+            pos = skipWhitespace(str, pos + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Skip the string after the opening quote.
+     */
+    private static int skipString(String str, int start) {
+        int len = str.length();
+        for (int pos = start; pos < len; pos++) {
+            char c = str.charAt(pos);
+            if (c == '"') {
+                return pos + 1;
+            }
+            if (c < 0x20) {
+                return -1;
+            }
+            if (c == '\\') {
+                if (++pos >= len) {
+                    return -1;
+                }
+                char e = str.charAt(pos);
+                if (e == 'u') {
+                    if (pos + 4 >= len) {
+                        return -1;
+                    }
+                    for (int i = 1; i <= 4; i++) {
+                        if (Character.digit(str.charAt(pos + i), 16) < 0) {
+                            return -1;
+                        }
+                    }
+                    pos += 4;
+                }
+                else if ("\"\\/bfnrt".indexOf(e) < 0) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int skipNumber(String str, int start) {
+        int len = str.length();
+        int pos = start;
+        if (pos < len && str.charAt(pos) == '-') {
+            pos++;
+        }
+        if (pos < len && str.charAt(pos) == '0') {
+            pos++;
+        }
+        else {
+            int digits = skipDigits(str, pos);
+            if (digits == pos) {
+                return -1;
+            }
+            pos = digits;
+        }
+        if (pos < len && str.charAt(pos) == '.') {
+            int digits = skipDigits(str, pos + 1);
+            if (digits == pos + 1) {
+                return -1;
+            }
+            pos = digits;
+        }
+        if (pos < len && (str.charAt(pos) == 'e' || str.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < len && (str.charAt(pos) == '+' || str.charAt(pos) == '-')) {
+                pos++;
+            }
+            int digits = skipDigits(str, pos);
+            if (digits == pos) {
+                return -1;
+            }
+            pos = digits;
+        }
+        return pos;
+    }
+
+    private static int skipDigits(String str, int start) {
+        int pos = start;
+        while (pos < str.length() && str.charAt(pos) >= '0' && str.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipWhitespace(String str, int start) {
+        int pos = start;
+        while (pos < str.length()) {
+            char c = str.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+}
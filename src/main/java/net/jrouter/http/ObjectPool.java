@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按线程分段（striped）的对象池，用于复用有状态的Action对象。
+ * <p>
+ * 在{@link #begin()}与{@link #end(int)}之间（如一次{@code invokeAction}）由{@link #acquire()}获取的对象，
+ * 于{@code end}时调用重置方法并归还对象池；嵌套调用各自归还其内获取的对象。范围之外获取的对象不入池。
+ * 范围结束后仍被使用的对象（如异步完成的Action）以{@link #end(int, boolean)}丢弃而不归还。
+ *
+ * <pre>
+ * int mark = ObjectPool.begin();
+ * try {
+ *     Action action = pool.acquire();
+ *     ...
+ * }
+ * finally {
+ *     ObjectPool.end(mark);
+ * }
+ * </pre>
+ * @param <T> object type.
+ */
+@Slf4j
+public final class ObjectPool<T> {
+
+    /**
+     * 是否创建过对象池，未使用时{@link #begin()}不访问线程变量。
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * Objects acquired in the current thread.
+     */
+    private static final ThreadLocal<Leases> LEASES = ThreadLocal.withInitial(Leases::new);
+
+    /**
+     * Creates new object.
+     */
+    private final Supplier<? extends T> factory;
+
+    /**
+     * Reset the object before returned to the pool.
+     */
+    private final Consumer<? super T> reset;
+
+    /**
+     * Idle objects of each stripe.
+     */
+    private final Queue<T>[] stripes;
+
+    /**
+     * Idle count of each stripe.
+     */
+    private final AtomicInteger[] idleCounts;
+
+    /**
+     * Max idle count of each stripe.
+     */
+    private final int maxIdlePerStripe;
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param factory creates new object.
+     * @param reset 归还对象池前的重置方法，抛出异常时丢弃该对象；可为{@code null}。
+     * @param maxIdle 对象池最大空闲对象数量。
+     */
+    @SuppressWarnings("unchecked")
+    public ObjectPool(Supplier<? extends T> factory, Consumer<? super T> reset, int maxIdle) {
+        Objects.requireNonNull(factory, "factory can't be null");
+        if (maxIdle <= 0) {
+            throw new IllegalArgumentException("maxIdle must be positive : " + maxIdle);
+        }
+        this.factory = factory;
+        this.reset = reset;
+        int count = 1;
+        // at least 4 idle objects in each stripe
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, maxIdle / 4));
+        while (count < processors) {
+            count <<= 1;
+        }
+        this.stripes = new Queue[count];
+        this.idleCounts = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentLinkedQueue<>();
+            idleCounts[i] = new AtomicInteger();
+        }
+        this.maxIdlePerStripe = Math.max(1, maxIdle / count);
+        enabled = true;
+    }
+
+    /**
+     * 开始一个借用范围。
+     * @return 范围的标记，传递至{@link #end(int)}。
+     */
+    public static int begin() {
+        if (!enabled) {
+            return -1;
+        }
+        Leases leases = LEASES.get();
+        leases.depth++;
+        return leases.size();
+    }
+
+    /**
+     * 结束借用范围，归还范围内获取的对象。
+     * @param mark {@link #begin()}返回的标记。
+     */
+    public static void end(int mark) {
+        end(mark, true);
+    }
+
+    /**
+     * 结束借用范围，归还或丢弃范围内获取的对象。
+     * @param mark {@link #begin()}返回的标记。
+     * @param release 是否归还，{@code false}时丢弃仍被使用的对象。
+     */
+    public static void end(int mark, boolean release) {
+        if (mark < 0) {
+            return;
+        }
+        Leases leases = LEASES.get();
+        if (release) {
+            leases.releaseTo(mark);
+        }
+        else {
+            leases.discardTo(mark);
+        }
+        if (--leases.depth == 0) {
+            LEASES.remove();
+        }
+    }
+
+    /**
+     * 当前线程是否处于借用范围内。
+     * @return true if in scope.
+     */
+    public static boolean inScope() {
+        if (!enabled) {
+            return false;
+        }
+        if (LEASES.get().depth == 0) {
+            LEASES.remove();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取对象；处于借用范围时由对象池获取并于范围结束时归还，否则直接创建。
+     * @return the object.
+     */
+    public T acquire() {
+        Leases leases = LEASES.get();
+        if (leases.depth == 0) {
+            LEASES.remove();
+            created.increment();
+            return factory.get();
+        }
+        int idx = stripe();
+        T obj = stripes[idx].poll();
+        if (obj == null) {
+            created.increment();
+            obj = factory.get();
+        }
+        else {
+            idleCounts[idx].decrementAndGet();
+            reused.increment();
+        }
+        leases.add(this, obj);
+        return obj;
+    }
+
+    /**
+     * 重置并归还对象，超出空闲数量时丢弃。
+     * @param obj the object.
+     */
+    public void release(T obj) {
+        if (reset != null) {
+            try {
+                reset.accept(obj);
+            }
+            catch (RuntimeException e) {
+                log.warn("Discard pooled object after reset failed : {}", obj, e);
+                return;
+            }
+        }
+        int idx = stripe();
+        if (idleCounts[idx].incrementAndGet() <= maxIdlePerStripe) {
+            stripes[idx].offer(obj);
+        }
+        else {
+            idleCounts[idx].decrementAndGet();
+        }
+    }
+
+    /**
+     * 空闲对象数量。
+     * @return the idle count.
+     */
+    public int getIdle() {
+        int idle = 0;
+        for (AtomicInteger count : idleCounts) {
+            idle += count.get();
+        }
+        return idle;
+    }
+
+    /**
+     * 创建的对象数量。
+     * @return the created count.
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /**
+     * 复用的对象数量。
+     * @return the reused count.
+     */
+    public long getReused() {
+        return reused.sum();
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & (stripes.length - 1);
+    }
+
+    /**
+     * Objects acquired in a thread.
+     */
+    private static final class Leases {
+
+        private final List<ObjectPool<?>> pools = new ArrayList<>(4);
+
+        private final List<Object> objects = new ArrayList<>(4);
+
+        private int depth = 0;
+
+        private int size() {
+            return objects.size();
+        }
+
+        private void add(ObjectPool<?> pool, Object obj) {
+            pools.add(pool);
+            objects.add(obj);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void releaseTo(int mark) {
+            for (int i = objects.size() - 1; i >= mark; i--) {
+                ((ObjectPool<Object>) pools.remove(i)).release(objects.remove(i));
+            }
+        }
+
+        private void discardTo(int mark) {
+            for (int i = objects.size() - 1; i >= mark; i--) {
+                pools.remove(i);
+                objects.remove(i);
+            }
+        }
+
+    }
+
+}
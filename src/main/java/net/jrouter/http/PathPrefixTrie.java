@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Arrays;
+import net.jrouter.util.StringUtil;
+
+/**
+ * 按路径前缀匹配的字典树，返回以路径分隔符为边界的最长前缀所对应的值。
+ * <p>
+ * 逐字符匹配，查找时不创建新对象；构建完成后只读，可多线程共享。
+ *
+ * <pre>
+ * trie.put("/api", a);
+ * trie.put("/api/v2", b);
+ * trie.match("/api/v2/users") == b;
+ * trie.match("/api/v20") == a;
+ * trie.match("/other") == null;
+ * </pre>
+ * @param <V> value type.
+ */
+public class PathPrefixTrie<V> {
+
+    /**
+     * 路径分隔符。
+     */
+    private static final char PATH_SEPARATOR = '/';
+
+    /**
+     * Root node, matches empty prefix ("" or "/").
+     */
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Count of prefixes.
+     */
+    private int size = 0;
+
+    /**
+     * 规范化路径前缀，补全首个'/'并去除末尾的'/'；"/"规范化为空字符串。
+     * @param prefix path prefix.
+     * @return the normalized path prefix.
+     */
+    public static String normalize(String prefix) {
+        if (StringUtil.isEmpty(prefix)) {
+            return "";
+        }
+        String path = prefix.charAt(0) == PATH_SEPARATOR ? prefix : PATH_SEPARATOR + prefix;
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == PATH_SEPARATOR) {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    /**
+     * 添加路径前缀及对应的值，已存在时替换。
+     * @param prefix path prefix.
+     * @param value the value.
+     * @return the previous value or null.
+     */
+    public V put(String prefix, V value) {
+        String path = normalize(prefix);
+        Node<V> node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrCreateChild(path.charAt(i));
+        }
+        V previous = node.value;
+        if (!node.hasValue) {
+            size++;
+        }
+        node.value = value;
+        node.hasValue = true;
+        return previous;
+    }
+
+    /**
+     * 返回以路径分隔符为边界的最长前缀所对应的值。
+     * @param path the path to match.
+     * @return the value or null if not matched.
+     */
+    public V match(CharSequence path) {
+        Node<V> node = root;
+        V matched = root.value;
+        if (path == null) {
+            return matched;
+        }
+        int len = path.length();
+        for (int i = 0; i < len; i++) {
+            node = node.getChild(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            // match at segment boundary
+            if (node.hasValue && (i + 1 == len || path.charAt(i + 1) == PATH_SEPARATOR)) {
+                matched = node.value;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Count of prefixes.
+     * @return count of prefixes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if is empty.
+     * @return true if no prefix.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Trie node, children are stored in sorted arrays.
+     */
+    private static final class Node<V> {
+
+        private char[] keys = new char[0];
+
+        private Node<V>[] children = newArray(0);
+
+        private V value;
+
+        private boolean hasValue;
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int len) {
+            return (Node<V>[]) new Node[len];
+        }
+
+        private Node<V> getChild(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx < 0 ? null : children[idx];
+        }
+
+        private Node<V> getOrCreateChild(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            if (idx >= 0) {
+                return children[idx];
+            }
+            int pos = -idx - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node<V>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            Node<V> child = new Node<>();
+            newKeys[pos] = c;
+            newChildren[pos] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路径模板（如{@code /users/{id}/orders}）的字典树，提取路径变量，不使用正则表达式。
+ * <p>
+ * 不含变量的路径直接以{@code HashMap}匹配；含变量的路径按段（以'/'分隔）逐级匹配，静态段优先于变量段，
+ * 匹配时间与路径长度相关而与模板数量无关。变量需占据完整的路径段且不可为空。构建完成后只读，可多线程共享。
+ *
+ * <pre>
+ * trie.put("/users/{id}/orders", a);
+ * trie.match("/users/100/orders").getVariables() == {id=100};
+ * </pre>
+ * @param <V> value type.
+ */
+public class PathTemplateTrie<V> {
+
+    /**
+     * 路径分隔符。
+     */
+    private static final char PATH_SEPARATOR = '/';
+
+    /**
+     * Paths without variables.
+     */
+    private final Map<String, Match<V>> statics = new HashMap<>();
+
+    /**
+     * Root node of the templates.
+     */
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Max count of variables in a template.
+     */
+    private int maxVariables = 0;
+
+    /**
+     * 是否为包含变量的路径模板。
+     * @param path the path.
+     * @return true if contains '{'.
+     */
+    public static boolean isTemplate(String path) {
+        return path != null && path.indexOf('{') >= 0;
+    }
+
+    /**
+     * 添加路径模板及对应的值，已存在时替换。
+     * @param template the path template.
+     * @param value the value.
+     * @throws IllegalArgumentException if the variable does not occupy a whole segment.
+     */
+    public void put(String template, V value) {
+        String path = normalize(template);
+        if (!isTemplate(path)) {
+            statics.put(path, new Match<>(value, Collections.emptyMap()));
+            return;
+        }
+        Node<V> node = root;
+        List<String> names = new ArrayList<>(2);
+        int pos = 1;
+        while (pos <= path.length()) {
+            int end = path.indexOf(PATH_SEPARATOR, pos);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(pos, end);
+            if (segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                    && segment.indexOf('{', 1) < 0) {
+                names.add(segment.substring(1, segment.length() - 1));
+                if (node.variable == null) {
+                    node.variable = new Node<>();
+                }
+                node = node.variable;
+            }
+            else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                throw new IllegalArgumentException("Path variable must occupy a whole segment : " + template);
+            }
+            else {
+                node = node.getOrCreateChild(segment);
+            }
+            pos = end + 1;
+        }
+        node.value = value;
+        node.names = names.toArray(new String[0]);
+        node.hasValue = true;
+        maxVariables = Math.max(maxVariables, names.size());
+    }
+
+    /**
+     * 匹配路径，静态路径优先。
+     * @param path the path to match, start with '/'.
+     * @return the match or null if not matched.
+     */
+    public Match<V> match(String path) {
+        return match(path, path);
+    }
+
+    /**
+     * 匹配路径，变量值取自原始路径的相同位置；用于以转换大小写后的路径匹配、保留变量原始大小写的场景。
+     * @param path the path to match, start with '/'.
+     * @param original the original path to extract the variables, ignored if the length differs.
+     * @return the match or null if not matched.
+     */
+    public Match<V> match(String path, String original) {
+        Match<V> matched = statics.get(path);
+        if (matched != null || maxVariables == 0 || path.isEmpty() || path.charAt(0) != PATH_SEPARATOR) {
+            return matched;
+        }
+        String source = original != null && original.length() == path.length() ? original : path;
+        String[] values = new String[maxVariables];
+        Node<V> node = find(root, path, source, 1, values, 0);
+        if (node == null) {
+            return null;
+        }
+        Map<String, String> variables = new LinkedHashMap<>(node.names.length * 2);
+        for (int i = 0; i < node.names.length; i++) {
+            variables.put(node.names[i], values[i]);
+        }
+        return new Match<>(node.value, variables);
+    }
+
+    /**
+     * Find the matched node, static segment first then variable with backtracking.
+     */
+    private static <V> Node<V> find(Node<V> node, String path, String source, int pos, String[] values,
+            int index) {
+        int len = path.length();
+        if (pos > len) {
+            return node.hasValue ? node : null;
+        }
+        int end = path.indexOf(PATH_SEPARATOR, pos);
+        if (end < 0) {
+            end = len;
+        }
+        Node<V> child = node.getChild(path, pos, end);
+        if (child != null) {
+            Node<V> found = find(child, path, source, end + 1, values, index);
+            if (found != null) {
+                return found;
+            }
+        }
+        if (node.variable != null && end > pos) {
+            Node<V> found = find(node.variable, path, source, end + 1, values, index + 1);
+            if (found != null) {
+                values[index] = source.substring(pos, end);
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Normalize the path, start with '/' and without the trailing '/'.
+     */
+    private static String normalize(String template) {
+        String path = PathPrefixTrie.normalize(template);
+        return path.isEmpty() ? String.valueOf(PATH_SEPARATOR) : path;
+    }
+
+    /**
+     * 匹配结果。
+     * @param <V> value type.
+     */
+    public static final class Match<V> {
+
+        private final V value;
+
+        private final Map<String, String> variables;
+
+        private Match(V value, Map<String, String> variables) {
+            this.value = value;
+            this.variables = variables;
+        }
+
+        /**
+         * 匹配的值。
+         * @return the value.
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * 路径变量，按模板中的顺序；静态路径为空。
+         * @return the path variables.
+         */
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+
+    }
+
+    /**
+     * Trie node, static children are stored in sorted arrays.
+     */
+    private static final class Node<V> {
+
+        private String[] keys = new String[0];
+
+        private Node<V>[] children = newArray(0);
+
+        private Node<V> variable;
+
+        private V value;
+
+        private String[] names;
+
+        private boolean hasValue;
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int len) {
+            return (Node<V>[]) new Node[len];
+        }
+
+        /**
+         * Binary search the segment [start, end) of the path without creating substring.
+         */
+        private Node<V> getChild(String path, int start, int end) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(keys[mid], path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                }
+                else if (cmp > 0) {
+                    high = mid - 1;
+                }
+                else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private static int compare(String key, String path, int start, int end) {
+            int len = Math.min(key.length(), end - start);
+            for (int i = 0; i < len; i++) {
+                int cmp = key.charAt(i) - path.charAt(start + i);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return key.length() - (end - start);
+        }
+
+        private Node<V> getOrCreateChild(String segment) {
+            int idx = Arrays.binarySearch(keys, segment);
+            if (idx >= 0) {
+                return children[idx];
+            }
+            int pos = -idx - 1;
+            String[] newKeys = new String[keys.length + 1];
+            Node<V>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            Node<V> child = new Node<>();
+            newKeys[pos] = segment;
+            newChildren[pos] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+    }
+
+}
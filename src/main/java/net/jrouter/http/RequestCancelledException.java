@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import net.jrouter.JRouterException;
+
+/**
+ * 请求已取消或已超过截止时间时抛出的异常。
+ *
+ * @see RequestDeadline#checkCancelled()
+ */
+public class RequestCancelledException extends JRouterException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     * @param message the detail message.
+     */
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+
+}
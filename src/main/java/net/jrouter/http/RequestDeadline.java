@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求的截止时间及取消状态。
+ * <p>
+ * 由适配器（Netty/Servlet）在请求开始时创建，客户端断开连接或异步超时时被标记为取消； Action可通过
+ * {@link #isCancelled()}或{@link #checkCancelled()}协作地提前结束，适配器不再对已取消请求的结果编码及输出。
+ */
+public final class RequestDeadline {
+
+    /**
+     * 无截止时间。
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * 最大的超时纳秒数（约146年），保证与{@link System#nanoTime()}的差值比较不溢出。
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >> 1;
+
+    /**
+     * Deadline in {@link System#nanoTime()}, or {@link #NO_DEADLINE}.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Cancelled or not.
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * The deadline of the parent request, may be null.
+     */
+    private final RequestDeadline parent;
+
+    private RequestDeadline(long deadlineNanos, RequestDeadline parent) {
+        this.deadlineNanos = deadlineNanos;
+        this.parent = parent;
+    }
+
+    /**
+     * 创建指定超时毫秒数的截止时间；小于等于0时无截止时间，仅支持取消。
+     * @param timeoutMillis timeout in milliseconds.
+     * @return RequestDeadline object.
+     */
+    public static RequestDeadline after(long timeoutMillis) {
+        return after(timeoutMillis, System.nanoTime());
+    }
+
+    /**
+     * 创建自指定时间（如收到请求时，而非开始调用时）起指定超时毫秒数的截止时间；小于等于0时无截止时间，仅支持取消。
+     * @param timeoutMillis timeout in milliseconds.
+     * @param startNanos the start time in {@link System#nanoTime()}.
+     * @return RequestDeadline object.
+     */
+    public static RequestDeadline after(long timeoutMillis, long startNanos) {
+        return new RequestDeadline(timeoutMillis > 0 ? deadlineNanos(startNanos, timeoutMillis) : NO_DEADLINE, null);
+    }
+
+    /**
+     * 创建子请求（如批量请求中的每个请求）的截止时间，不晚于本截止时间，本截止时间取消时同时取消。
+     * @param timeoutMillis 子请求的超时毫秒数，小于等于0时使用本截止时间。
+     * @return RequestDeadline object.
+     */
+    public RequestDeadline child(long timeoutMillis) {
+        long nanos = deadlineNanos;
+        if (timeoutMillis > 0) {
+            long childNanos = deadlineNanos(System.nanoTime(), timeoutMillis);
+            if (nanos == NO_DEADLINE || childNanos - nanos < 0) {
+                nanos = childNanos;
+            }
+        }
+        return new RequestDeadline(nanos, this);
+    }
+
+    /**
+     * Deadline in {@link System#nanoTime()}, the timeout is clamped instead of overflowing.
+     */
+    private static long deadlineNanos(long startNanos, long timeoutMillis) {
+        // saturated to Long.MAX_VALUE by TimeUnit
+        long nanos = startNanos + Math.min(TimeUnit.MILLISECONDS.toNanos(timeoutMillis), MAX_TIMEOUT_NANOS);
+        // never taken as no deadline
+        return nanos == NO_DEADLINE ? NO_DEADLINE - 1 : nanos;
+    }
+
+    /**
+     * 是否为null或已取消。
+     * @param deadline RequestDeadline object, may be null.
+     * @return true if not null and cancelled.
+     */
+    public static boolean isCancelled(RequestDeadline deadline) {
+        return deadline != null && deadline.isCancelled();
+    }
+
+    /**
+     * 是否设置了截止时间。
+     * @return true if has deadline.
+     */
+    public boolean hasDeadline() {
+        return deadlineNanos != NO_DEADLINE;
+    }
+
+    /**
+     * 是否已超过截止时间。
+     * @return true if expired.
+     */
+    public boolean isExpired() {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * 是否已取消或已超过截止时间。
+     * @return true if cancelled or expired.
+     */
+    public boolean isCancelled() {
+        return cancelled || isExpired() || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * 标记为取消。
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * 剩余的毫秒数；无截止时间时返回{@link Long#MAX_VALUE}，已超时返回0。
+     * @return remaining milliseconds.
+     */
+    public long remainingMillis() {
+        if (deadlineNanos == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining > 0 ? remaining / 1_000_000L : 0;
+    }
+
+    /**
+     * 已取消或已超时则抛出{@link RequestCancelledException}。
+     * @throws RequestCancelledException if cancelled or expired.
+     */
+    public void checkCancelled() throws RequestCancelledException {
+        if (cancelled || parent != null && parent.isCancelled()) {
+            throw new RequestCancelledException("Request cancelled");
+        }
+        if (isExpired()) {
+            throw new RequestCancelledException("Request deadline exceeded");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestDeadline{remaining=" + (hasDeadline() ? remainingMillis() + "ms" : "none") + ", cancelled="
+                + cancelled + '}';
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import net.jrouter.ActionFactory;
+import net.jrouter.ActionProxy;
+
+/**
+ * Action路径允许的http请求方法，由{@code ActionFactory}的Action方法一次性构建，构建完成后只读。
+ * <p>
+ * 未限制请求方法的Action不在表中；允许GET时同时允许HEAD；{@code Allow}响应头预先生成。
+ */
+public final class RequestMethods {
+
+    /**
+     * The ActionFactory built from.
+     */
+    private final ActionFactory actionFactory;
+
+    /**
+     * Action path - Allowed mapping.
+     */
+    private final Map<String, Allowed> allowedMethods;
+
+    private RequestMethods(ActionFactory actionFactory, Map<String, Allowed> allowedMethods) {
+        this.actionFactory = actionFactory;
+        this.allowedMethods = allowedMethods;
+    }
+
+    /**
+     * 由{@code ActionFactory}的所有Action构建。
+     * @param actionFactory the ActionFactory.
+     * @param resolver 解析Action方法允许的请求方法，返回空集合或{@code null}表示不限制。
+     * @return the RequestMethods.
+     */
+    public static RequestMethods of(ActionFactory actionFactory,
+            Function<? super Method, ? extends Collection<String>> resolver) {
+        Map<String, Allowed> allowedMethods = new HashMap<>();
+        Map<?, ?> actions = actionFactory.getActions();
+        for (Map.Entry<?, ?> e : actions.entrySet()) {
+            if (!(e.getKey() instanceof String) || !(e.getValue() instanceof ActionProxy)) {
+                continue;
+            }
+            Method method = ((ActionProxy) e.getValue()).getMethod();
+            Collection<String> methods = method == null ? null : resolver.apply(method);
+            if (methods != null && !methods.isEmpty()) {
+                allowedMethods.put((String) e.getKey(), new Allowed(methods));
+            }
+        }
+        return new RequestMethods(actionFactory,
+                allowedMethods.isEmpty() ? Collections.emptyMap() : allowedMethods);
+    }
+
+    /**
+     * 构建时的{@code ActionFactory}。
+     * @return the ActionFactory.
+     */
+    public ActionFactory getActionFactory() {
+        return actionFactory;
+    }
+
+    /**
+     * 获取Action路径允许的请求方法。
+     * @param actionPath Action路径。
+     * @return 不限制请求方法时返回{@code null}。
+     */
+    public Allowed get(String actionPath) {
+        return allowedMethods.get(actionPath);
+    }
+
+    /**
+     * 是否没有限制请求方法的Action。
+     * @return true if no action is restricted.
+     */
+    public boolean isEmpty() {
+        return allowedMethods.isEmpty();
+    }
+
+    /**
+     * 一个Action允许的请求方法。
+     */
+    public static final class Allowed {
+
+        /**
+         * Upper case methods.
+         */
+        private final Set<String> methods;
+
+        /**
+         * Precomputed {@code Allow} header value.
+         */
+        private final String allowHeader;
+
+        private Allowed(Collection<String> methods) {
+            Set<String> set = new TreeSet<>();
+            for (String method : methods) {
+                set.add(method.toUpperCase(Locale.ROOT));
+            }
+            if (set.contains("GET")) {
+                set.add("HEAD");
+            }
+            this.methods = Collections.unmodifiableSet(set);
+            Set<String> allow = new TreeSet<>(set);
+            allow.add("OPTIONS");
+            this.allowHeader = String.join(", ", allow);
+        }
+
+        /**
+         * 是否允许指定的请求方法。
+         * @param method the http method, upper case.
+         * @return true if allowed.
+         */
+        public boolean allows(String method) {
+            return methods.contains(method);
+        }
+
+        /**
+         * 允许的请求方法（大写）。
+         * @return the allowed methods.
+         */
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        /**
+         * {@code Allow}响应头，包含OPTIONS。
+         * @return the Allow header value.
+         */
+        public String getAllowHeader() {
+            return allowHeader;
+        }
+
+    }
+
+}
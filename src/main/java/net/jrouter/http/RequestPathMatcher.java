@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import net.jrouter.util.StringUtil;
+
+/**
+ * 预编译的请求路径匹配，判断请求是否由JRouter处理。
+ * <p>
+ * 依次检查：设置了包含的路径前缀时须匹配其一；不匹配排除的路径前缀；扩展名（不区分大小写）不在排除的扩展名中。
+ * 路径前缀以'/'为边界匹配，构建完成后只读，可多线程共享。
+ *
+ * <pre>
+ * RequestPathMatcher matcher = new RequestPathMatcher()
+ *     .excludeExtensions("css,js,png")
+ *     .excludePaths("/static");
+ * matcher.matches("/user/list") == true;
+ * matcher.matches("/css/main.css") == false;
+ * matcher.matches("/static/lib") == false;
+ * </pre>
+ */
+public class RequestPathMatcher {
+
+    /**
+     * Lowercase extensions without '.'.
+     */
+    private final Set<String> excludedExtensions = new HashSet<>();
+
+    /**
+     * Max length of {@link #excludedExtensions}.
+     */
+    private int maxExtensionLength = 0;
+
+    private final PathPrefixTrie<Boolean> includedPaths = new PathPrefixTrie<>();
+
+    private final PathPrefixTrie<Boolean> excludedPaths = new PathPrefixTrie<>();
+
+    /**
+     * 添加排除的扩展名，逗号分隔，可包含'.'。
+     * @param extensions the extensions.
+     * @return this.
+     */
+    public RequestPathMatcher excludeExtensions(String extensions) {
+        for (String ext : split(extensions)) {
+            String str = (ext.charAt(0) == '.' ? ext.substring(1) : ext).toLowerCase(Locale.ROOT);
+            if (!str.isEmpty()) {
+                excludedExtensions.add(str);
+                maxExtensionLength = Math.max(maxExtensionLength, str.length());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 添加包含的路径前缀，逗号分隔；未设置时包含所有路径。
+     * @param paths the path prefixes.
+     * @return this.
+     */
+    public RequestPathMatcher includePaths(String paths) {
+        for (String path : split(paths)) {
+            includedPaths.put(path, Boolean.TRUE);
+        }
+        return this;
+    }
+
+    /**
+     * 添加排除的路径前缀，逗号分隔。
+     * @param paths the path prefixes.
+     * @return this.
+     */
+    public RequestPathMatcher excludePaths(String paths) {
+        for (String path : split(paths)) {
+            excludedPaths.put(path, Boolean.TRUE);
+        }
+        return this;
+    }
+
+    /**
+     * 是否由JRouter处理该路径。
+     * @param path the request path.
+     * @return {@code true} if matched.
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (!includedPaths.isEmpty() && includedPaths.match(path) == null) {
+            return false;
+        }
+        if (!excludedPaths.isEmpty() && excludedPaths.match(path) != null) {
+            return false;
+        }
+        return excludedExtensions.isEmpty() || !excludedExtensions.contains(extension(path));
+    }
+
+    /**
+     * Gets the lowercase extension of the last path segment, or null if none.
+     */
+    private String extension(String path) {
+        int len = path.length();
+        for (int i = len - 1; i >= 0 && len - i - 1 <= maxExtensionLength; i--) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                return path.substring(i + 1).toLowerCase(Locale.ROOT);
+            }
+            if (c == '/') {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String[] split(String str) {
+        if (StringUtil.isBlank(str)) {
+            return new String[0];
+        }
+        String[] items = str.split(",");
+        int count = 0;
+        for (String item : items) {
+            String trimmed = item.trim();
+            if (!trimmed.isEmpty()) {
+                items[count++] = trimmed;
+            }
+        }
+        String[] res = new String[count];
+        System.arraycopy(items, 0, res, 0, count);
+        return res;
+    }
+
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import net.jrouter.ActionFactory;
+import net.jrouter.ActionProxy;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Result;
+
+/**
+ * 按Action路径统计调用次数、错误次数及耗时分布，可多个处理类共享。
+ * <p>
+ * 路由表中的拦截器及结果取自{@code ActionProxy}实现类（已合并拦截栈及全局结果），不可获取时使用{@link Action}注解的声明。
+ * 计数使用{@link LongAdder}，耗时按微秒的2的幂分桶（桶上界即百分位数的近似值），记录时不加锁且不分配对象；
+ * 仅记录已找到的Action路径，避免未知路径导致统计表无限增长。
+ *
+ * @see #toJson(ActionFactory)
+ */
+public class RouteStats {
+
+    /**
+     * 耗时分桶数，最大桶覆盖约6天。
+     */
+    static final int BUCKETS = 40;
+
+    /**
+     * Action path - route statistics mapping.
+     */
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Start time of the statistics in milliseconds.
+     */
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * 记录一次调用。
+     * @param path the action path.
+     * @param nanos elapsed time in nanoseconds.
+     * @param error if the invocation failed.
+     */
+    public void record(String path, long nanos, boolean error) {
+        Route route = routes.get(path);
+        if (route == null) {
+            route = routes.computeIfAbsent(path, Route::new);
+        }
+        route.record(nanos, error);
+    }
+
+    /**
+     * 返回Action路径的统计，未调用过时返回{@code null}。
+     * @param path the action path.
+     * @return the route statistics or null.
+     */
+    public Route get(String path) {
+        return routes.get(path);
+    }
+
+    /**
+     * 返回所有已调用过的Action路径的统计。
+     * @return the unmodifiable route statistics.
+     */
+    public Map<String, Route> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * 返回统计的开始时间（毫秒）。
+     * @return the start time in milliseconds.
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * 清空统计并重新开始计时。
+     */
+    public void reset() {
+        routes.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * 按路径排序输出{@code ActionFactory}的路由表，包含拦截器及结果类型，以及各路径的统计；未调用过的路径计数为0。
+     * @param actionFactory ActionFactory.
+     * @param stats the route statistics, may be null.
+     * @return JSON object.
+     */
+    public static String toJson(ActionFactory actionFactory, RouteStats stats) {
+        Map<String, Object> actions = new TreeMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) actionFactory.getActions()).entrySet()) {
+            actions.put(String.valueOf(e.getKey()), e.getValue());
+        }
+        StringBuilder json = new StringBuilder(256 * actions.size() + 64);
+        json.append("{\"since\":").append(stats == null ? 0 : stats.since).append(",\"routes\":[");
+        boolean first = true;
+        for (Map.Entry<String, Object> e : actions.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"path\":");
+            JsonUtil.appendString(json, e.getKey());
+            Method method = e.getValue() instanceof ActionProxy ? ((ActionProxy) e.getValue()).getMethod() : null;
+            if (method != null) {
+                json.append(",\"method\":");
+                JsonUtil.appendString(json, method.getDeclaringClass().getName() + '#' + method.getName());
+                appendAction(json, e.getValue(), method.getAnnotation(Action.class));
+            }
+            Route route = stats == null ? null : stats.routes.get(e.getKey());
+            if (route == null) {
+                json.append(",\"hits\":0,\"errors\":0");
+            }
+            else {
+                route.appendTo(json);
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * 输出路由表及当前的统计。
+     * @param actionFactory ActionFactory.
+     * @return JSON object.
+     * @see #toJson(ActionFactory, RouteStats)
+     */
+    public String toJson(ActionFactory actionFactory) {
+        return toJson(actionFactory, this);
+    }
+
+    /**
+     * Append the resolved interceptors and results of the action proxy, or the declared ones of the annotation.
+     */
+    private static void appendAction(StringBuilder json, Object actionProxy, Action action) {
+        Object interceptors = getProperty(actionProxy, "getInterceptors");
+        json.append(",\"interceptors\":[");
+        if (interceptors instanceof Collection) {
+            boolean first = true;
+            for (Object interceptor : (Collection<?>) interceptors) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                Object name = getProperty(interceptor, "getName");
+                JsonUtil.appendString(json, String.valueOf(name == null ? interceptor : name));
+            }
+        }
+        else if (action != null) {
+            String[] names = action.interceptors();
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                JsonUtil.appendString(json, names[i]);
+            }
+        }
+        json.append("],\"results\":[");
+        Object results = getProperty(actionProxy, "getResults");
+        if (results instanceof Map) {
+            boolean first = true;
+            for (Object result : ((Map<?, ?>) results).values()) {
+                if (result instanceof Result) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    appendResult(json, (Result) result);
+                }
+            }
+        }
+        else if (action != null) {
+            Result[] declared = action.results();
+            for (int i = 0; i < declared.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendResult(json, declared[i]);
+            }
+        }
+        json.append(']');
+    }
+
+    private static void appendResult(StringBuilder json, Result result) {
+        json.append("{\"name\":");
+        JsonUtil.appendString(json, result.name());
+        json.append(",\"type\":");
+        JsonUtil.appendString(json, result.type());
+        json.append(",\"location\":");
+        JsonUtil.appendString(json, result.location());
+        json.append('}');
+    }
+
+    /**
+     * Invoke the public getter of the implementation, not declared by the {@code ActionProxy} interface; null if
+     * not found.
+     */
+    private static Object getProperty(Object target, String getter) {
+        try {
+            Method method = target.getClass().getMethod(getter);
+            // may be declared by a non-public class
+            method.trySetAccessible();
+            return method.invoke(target);
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 单个Action路径的统计。
+     */
+    public static final class Route {
+
+        /**
+         * Action path.
+         */
+        private final String path;
+
+        /**
+         * Count of invocations.
+         */
+        private final LongAdder hits = new LongAdder();
+
+        /**
+         * Count of failed invocations.
+         */
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Total elapsed time in nanoseconds.
+         */
+        private final LongAdder totalNanos = new LongAdder();
+
+        /**
+         * Max elapsed time in nanoseconds.
+         */
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Count of invocations by elapsed microseconds, bucket i holds [2^(i-1), 2^i).
+         */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        /**
+         * Last invoked time in milliseconds.
+         */
+        private volatile long lastHit;
+
+        private Route(String path) {
+            this.path = path;
+        }
+
+        private void record(long nanos, boolean error) {
+            hits.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+            lastHit = System.currentTimeMillis();
+        }
+
+        /**
+         * Bucket index of the elapsed microseconds.
+         */
+        static int bucket(long micros) {
+            return micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        }
+
+        /**
+         * Gets the action path.
+         * @return the action path.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the count of invocations.
+         * @return the count of invocations.
+         */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /**
+         * Gets the count of failed invocations.
+         * @return the count of failed invocations.
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Gets the mean elapsed time in microseconds.
+         * @return the mean elapsed time in microseconds.
+         */
+        public long getMeanMicros() {
+            long count = hits.sum();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+        }
+
+        /**
+         * Gets the max elapsed time in microseconds.
+         * @return the max elapsed time in microseconds.
+         */
+        public long getMaxMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+        }
+
+        /**
+         * Gets the last invoked time in milliseconds.
+         * @return the last invoked time in milliseconds.
+         */
+        public long getLastHit() {
+            return lastHit;
+        }
+
+        /**
+         * 返回耗时的近似百分位数（所在桶的上界，不超过最大耗时）。
+         * @param quantile the quantile, e.g. 0.99.
+         * @return the elapsed time in microseconds.
+         */
+        public long percentile(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, getMaxMicros());
+                }
+            }
+            return getMaxMicros();
+        }
+
+        private void appendTo(StringBuilder json) {
+            json.append(",\"hits\":").append(getHits())
+                .append(",\"errors\":").append(getErrors())
+                .append(",\"meanMicros\":").append(getMeanMicros())
+                .append(",\"p50Micros\":").append(percentile(0.5))
+                .append(",\"p90Micros\":").append(percentile(0.9))
+                .append(",\"p99Micros\":").append(percentile(0.99))
+                .append(",\"maxMicros\":").append(getMaxMicros())
+                .append(",\"lastHit\":").append(lastHit);
+        }
+
+    }
+
+}
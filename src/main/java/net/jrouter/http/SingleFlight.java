@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 合并相同请求的并发调用（single-flight）。
+ * <p>
+ * 同一key的首个请求成为leader并实际调用Action，其间到达的相同请求登记为等待者，
+ * 在leader调用{@link Call#complete(Object)}后共享同一编码后的结果；结果为{@code null}表示不可共享，
+ * 等待者需自行调用。leader必须在{@code finally}中调用{@code complete}，重复调用将被忽略。
+ *
+ * <pre>
+ * SingleFlight.Call&lt;V&gt; call = singleFlight.join(key, waiter);
+ * if (call == null) {
+ *     // joined as a waiter
+ *     return;
+ * }
+ * try {
+ *     ...
+ *     call.complete(result);
+ * }
+ * finally {
+ *     call.complete(null);
+ * }
+ * </pre>
+ * @param <V> shared result type.
+ */
+@Slf4j
+public class SingleFlight<V> {
+
+    /**
+     * Key - in-flight call mapping.
+     */
+    private final ConcurrentMap<String, Call<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Count of actual invocations.
+     */
+    private final LongAdder leaders = new LongAdder();
+
+    /**
+     * Count of coalesced requests.
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 加入key对应的调用；无正在进行的调用时成为leader。
+     * @param key the request key.
+     * @param waiter 非leader时登记的等待者，于leader线程中回调共享结果。
+     * @return the call if this request is the leader, or {@code null} if joined as a waiter.
+     */
+    public Call<V> join(String key, Consumer<? super V> waiter) {
+        for (;;) {
+            Call<V> call = calls.get(key);
+            if (call == null) {
+                Call<V> created = new Call<>(this, key);
+                call = calls.putIfAbsent(key, created);
+                if (call == null) {
+                    leaders.increment();
+                    return created;
+                }
+            }
+            if (call.addWaiter(waiter)) {
+                coalesced.increment();
+                return null;
+            }
+            // completed but not removed yet, retry
+        }
+    }
+
+    /**
+     * Count of in-flight calls.
+     * @return count of in-flight calls.
+     */
+    public int getInFlightCount() {
+        return calls.size();
+    }
+
+    /**
+     * Count of actual invocations.
+     * @return count of actual invocations.
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * Count of requests shared the leader's invocation.
+     * @return count of coalesced requests.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 一次正在进行的调用。
+     * @param <V> shared result type.
+     */
+    public static final class Call<V> {
+
+        private final SingleFlight<V> owner;
+
+        private final String key;
+
+        /**
+         * Waiters, created lazily.
+         */
+        private List<Consumer<? super V>> waiters;
+
+        private boolean completed = false;
+
+        private Call(SingleFlight<V> owner, String key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        private synchronized boolean addWaiter(Consumer<? super V> waiter) {
+            if (completed) {
+                return false;
+            }
+            if (waiters == null) {
+                waiters = new ArrayList<>(4);
+            }
+            waiters.add(waiter);
+            return true;
+        }
+
+        /**
+         * Gets the request key.
+         * @return the request key.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 结束调用并于当前线程中回调所有等待者，仅首次调用有效。
+         * @param value 共享的结果，{@code null}表示不可共享。
+         */
+        public void complete(V value) {
+            // new requests become the next leader from now on
+            owner.calls.remove(key, this);
+            List<Consumer<? super V>> list;
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+                list = waiters;
+                waiters = null;
+            }
+            if (list == null) {
+                return;
+            }
+            for (Consumer<? super V> waiter : list) {
+                try {
+                    waiter.accept(value);
+                }
+                catch (RuntimeException e) {
+                    log.error("Can't notify the waiter of [{}]", key, e);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * 慢请求检测：由一个守护线程定时扫描正在执行的请求，对超过阈值的请求采样执行线程的调用栈，
+ * 并输出到独立的日志{@link #REPORT_LOGGER_NAME}（包含Action路径及请求开始时的MDC上下文）。
+ *
+ * <pre>
+ * SlowRequestDetector.InFlight inFlight = detector.begin(actionPath);
+ * try {
+ *     ...
+ * }
+ * finally {
+ *     detector.end(inFlight);
+ * }
+ * </pre>
+ */
+@Slf4j
+@lombok.Getter
+public class SlowRequestDetector implements AutoCloseable {
+
+    /**
+     * 慢请求报告的日志名称。
+     */
+    public static final String REPORT_LOGGER_NAME = "net.jrouter.http.SlowRequest";
+
+    /**
+     * Report logger.
+     */
+    private static final Logger REPORT = LoggerFactory.getLogger(REPORT_LOGGER_NAME);
+
+    /**
+     * 默认的慢请求阈值毫秒数。
+     */
+    private final long defaultThreshold;
+
+    /**
+     * Action路径 - 慢请求阈值毫秒数映射。
+     */
+    @lombok.Setter
+    @lombok.NonNull
+    private Map<String, Long> actionThresholds = Collections.emptyMap();
+
+    /**
+     * 每个慢请求最多采样的调用栈数。
+     */
+    @lombok.Setter
+    private int maxSamples = 3;
+
+    /**
+     * 两次采样的最小间隔毫秒数。
+     */
+    @lombok.Setter
+    private long sampleInterval = 100;
+
+    /**
+     * 每次采样保留的最大调用栈深度。
+     */
+    @lombok.Setter
+    private int maxStackDepth = 32;
+
+    /**
+     * 是否于请求开始时复制MDC上下文（trace id等）。
+     */
+    @lombok.Setter
+    private boolean captureMdc = true;
+
+    /**
+     * In-flight requests.
+     */
+    @lombok.Getter(lombok.AccessLevel.NONE)
+    private final Set<InFlight> inFlights = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Watchdog.
+     */
+    @lombok.Getter(lombok.AccessLevel.NONE)
+    private final ScheduledExecutorService watchdog;
+
+    /**
+     * Constructor.
+     * @param defaultThreshold default threshold in milliseconds.
+     * @param scanInterval scan interval in milliseconds.
+     */
+    public SlowRequestDetector(long defaultThreshold, long scanInterval) {
+        this.defaultThreshold = defaultThreshold;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jrouter-slow-request-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog.scheduleWithFixedDelay(this::scan, scanInterval, scanInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 开始跟踪当前线程中执行的请求。
+     * @param actionPath the action path.
+     * @return the in-flight request, or null if no threshold.
+     */
+    public InFlight begin(String actionPath) {
+        long threshold = defaultThreshold;
+        if (!actionThresholds.isEmpty()) {
+            Long actionThreshold = actionThresholds.get(actionPath);
+            if (actionThreshold != null) {
+                threshold = actionThreshold;
+            }
+        }
+        if (threshold <= 0) {
+            return null;
+        }
+        InFlight inFlight = new InFlight(actionPath, Thread.currentThread(),
+                TimeUnit.MILLISECONDS.toNanos(threshold), captureMdc ? MDC.getCopyOfContextMap() : null);
+        inFlights.add(inFlight);
+        return inFlight;
+    }
+
+    /**
+     * 结束跟踪，慢请求输出报告。
+     * @param inFlight the in-flight request, may be null.
+     */
+    public void end(InFlight inFlight) {
+        if (inFlight == null) {
+            return;
+        }
+        inFlights.remove(inFlight);
+        long elapsed = System.nanoTime() - inFlight.startNanos;
+        if (elapsed >= inFlight.thresholdNanos) {
+            synchronized (inFlight) {
+                inFlight.finished = true;
+                if (inFlight.reported) {
+                    REPORT.warn("Slow request [{}] finished in {} ms, mdc : {}", inFlight.actionPath,
+                            TimeUnit.NANOSECONDS.toMillis(elapsed), inFlight.mdc);
+                }
+                else {
+                    report(inFlight, elapsed, "finished");
+                }
+            }
+        }
+    }
+
+    /**
+     * Scan in-flight requests in the watchdog thread.
+     */
+    void scan() {
+        try {
+            long now = System.nanoTime();
+            long sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sampleInterval);
+            for (InFlight inFlight : inFlights) {
+                if (now - inFlight.startNanos < inFlight.thresholdNanos || inFlight.samples.size() >= maxSamples
+                        || now - inFlight.lastSampleNanos < sampleIntervalNanos) {
+                    continue;
+                }
+                StackTraceElement[] stackTrace = inFlight.thread.getStackTrace();
+                synchronized (inFlight) {
+                    // the thread may have moved on to another request
+                    if (inFlight.finished || !inFlights.contains(inFlight)) {
+                        continue;
+                    }
+                    inFlight.lastSampleNanos = now;
+                    inFlight.samples.add(new Sample(now - inFlight.startNanos, stackTrace));
+                    if (inFlight.samples.size() >= maxSamples && !inFlight.reported) {
+                        inFlight.reported = true;
+                        report(inFlight, System.nanoTime() - inFlight.startNanos, "still running");
+                    }
+                }
+            }
+        }
+        catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+            log.error("Slow request detector error", e);
+        }
+    }
+
+    private void report(InFlight inFlight, long elapsedNanos, String state) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("Slow request [")
+            .append(inFlight.actionPath)
+            .append("] ")
+            .append(state)
+            .append(" in ")
+            .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+            .append(" ms (threshold ")
+            .append(TimeUnit.NANOSECONDS.toMillis(inFlight.thresholdNanos))
+            .append(" ms), thread : ")
+            .append(inFlight.thread.getName())
+            .append(", mdc : ")
+            .append(inFlight.mdc);
+        for (Sample sample : inFlight.samples) {
+            sb.append("\n  sample at ").append(TimeUnit.NANOSECONDS.toMillis(sample.elapsedNanos)).append(" ms:");
+            int depth = Math.min(sample.stackTrace.length, maxStackDepth);
+            for (int i = 0; i < depth; i++) {
+                sb.append("\n    at ").append(sample.stackTrace[i]);
+            }
+            if (sample.stackTrace.length > depth) {
+                sb.append("\n    ... ").append(sample.stackTrace.length - depth).append(" more");
+            }
+        }
+        REPORT.warn(sb.toString());
+    }
+
+    /**
+     * Count of in-flight requests.
+     * @return count of in-flight requests.
+     */
+    public int getInFlightCount() {
+        return inFlights.size();
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        inFlights.clear();
+    }
+
+    /**
+     * 正在执行的请求。
+     */
+    public static final class InFlight {
+
+        private final String actionPath;
+
+        private final Thread thread;
+
+        private final long startNanos;
+
+        private final long thresholdNanos;
+
+        private final Map<String, String> mdc;
+
+        /**
+         * Stack samples, guarded by this.
+         */
+        private final List<Sample> samples = new ArrayList<>(2);
+
+        private long lastSampleNanos;
+
+        private boolean reported;
+
+        private boolean finished;
+
+        private InFlight(String actionPath, Thread thread, long thresholdNanos, Map<String, String> mdc) {
+            this.actionPath = actionPath;
+            this.thread = thread;
+            this.startNanos = System.nanoTime();
+            this.thresholdNanos = thresholdNanos;
+            this.mdc = mdc;
+            this.lastSampleNanos = startNanos;
+        }
+
+        synchronized int getSampleCount() {
+            return samples.size();
+        }
+
+        synchronized boolean isReported() {
+            return reported;
+        }
+
+    }
+
+    /**
+     * Stack sample.
+     */
+    private static final class Sample {
+
+        private final long elapsedNanos;
+
+        private final StackTraceElement[] stackTrace;
+
+        private Sample(long elapsedNanos, StackTraceElement[] stackTrace) {
+            this.elapsedNanos = elapsedNanos;
+            this.stackTrace = stackTrace;
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ReferenceCountUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import net.jrouter.NotFoundException;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.AbstractBatchAction;
+import net.jrouter.http.RequestDeadline;
+
+/**
+ * 基于{@link HttpServerActionFactory}的批量调用Action，路径为"/jrouter/batch"。
+ * <p>
+ * 子请求为GET请求，复制批量请求的头信息（不含请求体相关）；结果使用"bytes"结果类型输出。
+ * 并行调用时EventLoop线程等待子请求完成，仅适用于子请求存在阻塞调用的场景。子请求应用{@link JRouterHttpRequestHandler}的
+ * Action自身的并发限制、截止时间及慢请求检测。
+ *
+ * @see AbstractBatchAction
+ */
+@Namespace(name = "/jrouter")
+public class BatchHttpAction extends AbstractBatchAction<HttpActionInvocation> {
+
+    /**
+     * 批量调用。
+     * @param invocation Action运行时上下文。
+     * @return UTF-8 encoded JSON array.
+     */
+    @Action("batch")
+    public byte[] batch(HttpActionInvocation invocation) {
+        FullHttpRequest request = invocation.getRequest();
+        if (request instanceof SubRequest) {
+            invocation.getResponse().setStatus(HttpResponseStatus.BAD_REQUEST);
+            return new byte[0];
+        }
+        List<String> params = new QueryStringDecoder(request.uri()).parameters().get(REQUEST_PARAMETER);
+        String body = request.content().isReadable() ? request.content().toString(StandardCharsets.UTF_8) : null;
+        byte[] json = execute(invocation, parseRequests(params, body), invocation.getDeadline());
+        invocation.getResponse().headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+        return json;
+    }
+
+    @Override
+    protected Result invoke(HttpActionInvocation invocation, String uri, boolean async) {
+        HttpServerActionFactory actionFactory = (HttpServerActionFactory) invocation.getActionFactory();
+        String path = actionPath(uri);
+        if (isBatchAction(actionFactory.getActions(), path)) {
+            return new Result(uri, HttpResponseStatus.BAD_REQUEST.code(), null, "");
+        }
+        ChannelHandler handler = invocation.getChannelHandlerContext().handler();
+        Controls controls = handler instanceof JRouterHttpRequestHandler
+                ? ((JRouterHttpRequestHandler) handler).getBatchControls() : null;
+        // never wait for the bulkhead in the EventLoop thread
+        return invokeControlled(controls, uri, path, invocation.getDeadline(), async,
+                deadline -> invokeSubRequest(invocation, actionFactory, uri, path, deadline));
+    }
+
+    private Result invokeSubRequest(HttpActionInvocation invocation, HttpServerActionFactory actionFactory,
+            String uri, String path, RequestDeadline deadline) {
+        FullHttpRequest parent = invocation.getRequest();
+        HttpHeaders headers = parent.headers().copy();
+        headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+        headers.remove(HttpHeaderNames.CONTENT_TYPE);
+        headers.remove(HttpHeaderNames.TRANSFER_ENCODING);
+        FullHttpRequest request = new SubRequest(parent.protocolVersion(), uri, headers);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        Object res = null;
+        try {
+            res = actionFactory.invokeAction(path, request, response, invocation.getChannelHandlerContext(),
+                    deadline);
+            FullHttpResponse out = res instanceof FullHttpResponse ? (FullHttpResponse) res : response;
+            return new Result(uri, out.status().code(), out.headers().get(HttpHeaderNames.CONTENT_TYPE),
+                    out.content().toString(StandardCharsets.UTF_8));
+        }
+        catch (NotFoundException e) {
+            return new Result(uri, HttpResponseStatus.NOT_FOUND.code(), null, "");
+        }
+        finally {
+            if (res != response) {
+                ReferenceCountUtil.release(res);
+            }
+            response.release();
+        }
+    }
+
+    /**
+     * 子请求，不可再调用批量Action。
+     */
+    private static final class SubRequest extends DefaultFullHttpRequest {
+
+        SubRequest(HttpVersion httpVersion, String uri, HttpHeaders headers) {
+            super(httpVersion, HttpMethod.GET, uri, Unpooled.EMPTY_BUFFER, headers, EmptyHttpHeaders.INSTANCE);
+        }
+
+    }
+
+}
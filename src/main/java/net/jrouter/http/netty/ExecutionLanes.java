@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.http.PathPrefixTrie;
+import net.jrouter.util.StringUtil;
+
+/**
+ * 按Action路径前缀划分的执行通道（如critical、default、bulk），每个通道使用独立的{@code Executor}及排队上限。
+ * <p>
+ * 未分配的路径使用名为{@link #DEFAULT}的通道，未配置时于EventLoop线程中执行；{@code Executor}为{@code null}的通道
+ * 同样于EventLoop线程中执行，适用于健康检查、认证等非阻塞的Action。构建完成后只读，可多个处理类共享；
+ * {@code Executor}由调用方负责关闭。
+ *
+ * <pre>
+ * ExecutionLanes lanes = new ExecutionLanes()
+ *     .addLane("inline", null, 0)
+ *     .addLane(ExecutionLanes.DEFAULT, defaultExecutor, 1000)
+ *     .addLane("bulk", bulkExecutor, 100)
+ *     .parse("/health=inline,/auth=inline,/report=bulk");
+ * </pre>
+ */
+@Slf4j
+public class ExecutionLanes {
+
+    /**
+     * 默认通道的名称。
+     */
+    public static final String DEFAULT = "default";
+
+    /**
+     * Lane name - Lane mapping.
+     */
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    /**
+     * Action path prefix - Lane mapping.
+     */
+    private final PathPrefixTrie<Lane> paths = new PathPrefixTrie<>();
+
+    /**
+     * 添加执行通道，已存在时替换；需在{@link #assign}前调用。
+     * @param name the lane name.
+     * @param executor the executor, null to run in the event loop.
+     * @param maxQueue max count of waiting invocations, 0 for unlimited.
+     * @return this.
+     */
+    public ExecutionLanes addLane(String name, Executor executor, int maxQueue) {
+        if (StringUtil.isBlank(name) || maxQueue < 0) {
+            throw new IllegalArgumentException("Invalid lane : " + name + ", max queue : " + maxQueue);
+        }
+        lanes.put(name, new Lane(name, executor, maxQueue));
+        log.info("Add execution lane [{}] : {}, max queue : {}", name, executor == null ? "inline" : executor,
+                maxQueue);
+        return this;
+    }
+
+    /**
+     * 分配Action路径前缀（以路径分隔符为边界）至执行通道。
+     * @param lane the lane name.
+     * @param prefixes the action path prefixes.
+     * @return this.
+     */
+    public ExecutionLanes assign(String lane, String... prefixes) {
+        Lane target = lanes.get(lane);
+        if (target == null) {
+            throw new IllegalArgumentException("No such lane : " + lane);
+        }
+        for (String prefix : prefixes) {
+            paths.put(prefix, target);
+        }
+        return this;
+    }
+
+    /**
+     * 解析通道分配配置，格式为逗号分隔的"path=lane"，如"/health=inline,/report=bulk"。
+     * @param spec the configuration.
+     * @return this.
+     */
+    public ExecutionLanes parse(String spec) {
+        if (StringUtil.isBlank(spec)) {
+            return this;
+        }
+        for (String item : spec.split(",")) {
+            String str = item.trim();
+            if (str.isEmpty()) {
+                continue;
+            }
+            int idx = str.lastIndexOf('=');
+            if (idx < 1) {
+                throw new IllegalArgumentException("Invalid lane assignment : " + str);
+            }
+            assign(str.substring(idx + 1).trim(), str.substring(0, idx).trim());
+        }
+        return this;
+    }
+
+    /**
+     * 返回Action路径对应的执行通道。
+     * @param path the action path.
+     * @return the lane, or null to run in the event loop.
+     */
+    public Lane get(String path) {
+        Lane lane = paths.match(path);
+        return lane == null ? lanes.get(DEFAULT) : lane;
+    }
+
+    /**
+     * 返回所有执行通道。
+     * @return unmodifiable lanes.
+     */
+    public Map<String, Lane> getLanes() {
+        return Collections.unmodifiableMap(lanes);
+    }
+
+    /**
+     * 一个执行通道及其计数。
+     */
+    public static final class Lane {
+
+        private final String name;
+
+        /**
+         * Null if inline.
+         */
+        private final Executor executor;
+
+        private final int maxQueue;
+
+        /**
+         * Count of submitted but not started invocations.
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final LongAdder started = new LongAdder();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder totalWaitNanos = new LongAdder();
+
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        private Lane(String name, Executor executor, int maxQueue) {
+            this.name = name;
+            this.executor = executor;
+            this.maxQueue = maxQueue;
+        }
+
+        /**
+         * 提交至通道的{@code Executor}中执行，内联通道于当前线程中执行。
+         * @param task the task.
+         * @return false if the queue is full or the executor rejected.
+         */
+        public boolean execute(Runnable task) {
+            if (executor == null) {
+                started.increment();
+                task.run();
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueue && maxQueue > 0) {
+                queued.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            long enqueued = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    queued.decrementAndGet();
+                    long wait = System.nanoTime() - enqueued;
+                    totalWaitNanos.add(wait);
+                    maxWaitNanos.accumulate(wait);
+                    started.increment();
+                    task.run();
+                });
+            }
+            catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                rejected.increment();
+                log.debug("Lane [{}] rejected : {}", name, e.getMessage());
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Gets the lane name.
+         * @return the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Check if runs in the event loop.
+         * @return true if inline.
+         */
+        public boolean isInline() {
+            return executor == null;
+        }
+
+        /**
+         * Gets the max count of waiting invocations, 0 for unlimited.
+         * @return the max queue.
+         */
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        /**
+         * Count of waiting invocations.
+         * @return the queue depth.
+         */
+        public int getQueued() {
+            return queued.get();
+        }
+
+        /**
+         * Count of started invocations.
+         * @return count of started invocations.
+         */
+        public long getStarted() {
+            return started.sum();
+        }
+
+        /**
+         * Count of rejected invocations.
+         * @return count of rejected invocations.
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Mean wait time in the queue in microseconds.
+         * @return the mean wait time.
+         */
+        public long getMeanWaitMicros() {
+            long count = started.sum();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / count);
+        }
+
+        /**
+         * Max wait time in the queue in microseconds.
+         * @return the max wait time.
+         */
+        public long getMaxWaitMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "Lane{" + name + ", maxQueue=" + maxQueue + ", queued=" + getQueued() + ", rejected="
+                    + getRejected() + ", meanWaitMicros=" + getMeanWaitMicros() + ", maxWaitMicros="
+                    + getMaxWaitMicros() + '}';
+        }
+
+    }
+
+}
@@ -23,6 +23,7 @@ import io.netty.handler.codec.http.FullHttpResponse;
 import java.util.Map;
 import net.jrouter.ActionInvocation;
 import net.jrouter.annotation.Dynamic;
+import net.jrouter.http.RequestDeadline;
 
 /**
  * 扩展{@code ActionInvocation<String>}，返回HTTP Servlet常用参数的接口。
@@ -54,4 +55,10 @@ public interface HttpActionInvocation extends ActionInvocation<String> {
      */
     Map<String, Object> getContextMap();
 
+    /**
+     * Gets the request deadline, cancelled if the channel closed.
+     * @return the request deadline, or null if not enabled.
+     */
+    RequestDeadline getDeadline();
+
 }
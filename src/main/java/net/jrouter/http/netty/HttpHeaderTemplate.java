@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AsciiString;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 预编码的响应头模板。
+ * <p>
+ * 头信息的名称及值在构造时转换为{@link AsciiString}，输出时直接按字节复制；{@code Date}头的值所有模板共享，
+ * 输出时秒数变化才重新格式化，不依赖EventLoop中的定时任务。
+ */
+public final class HttpHeaderTemplate {
+
+    /**
+     * Default template, only include the {@code Date} header.
+     */
+    public static final HttpHeaderTemplate DEFAULT = new HttpHeaderTemplate(null, true);
+
+    /**
+     * Header names.
+     */
+    private final AsciiString[] names;
+
+    /**
+     * Header values.
+     */
+    private final AsciiString[] values;
+
+    /**
+     * Include the {@code Date} header or not.
+     */
+    private final boolean date;
+
+    /**
+     * Constructor.
+     * @param headers 固定的头信息，如{@code Server}，可为{@code null}。
+     * @param date 是否包含{@code Date}头。
+     */
+    public HttpHeaderTemplate(Map<? extends CharSequence, ? extends CharSequence> headers, boolean date) {
+        int size = headers == null ? 0 : headers.size();
+        this.names = new AsciiString[size];
+        this.values = new AsciiString[size];
+        if (headers != null) {
+            int i = 0;
+            for (Map.Entry<? extends CharSequence, ? extends CharSequence> e : headers.entrySet()) {
+                names[i] = AsciiString.cached(e.getKey().toString());
+                values[i] = AsciiString.cached(e.getValue().toString());
+                i++;
+            }
+        }
+        this.date = date;
+    }
+
+    /**
+     * 设置模板中的头信息。
+     * @param headers the target headers.
+     */
+    public void apply(HttpHeaders headers) {
+        if (date) {
+            headers.set(HttpHeaderNames.DATE, DateHeader.get(System.currentTimeMillis()));
+        }
+        for (int i = 0; i < names.length; i++) {
+            headers.set(names[i], values[i]);
+        }
+    }
+
+    /**
+     * Shared {@code Date} header value, formatted at most once per second.
+     */
+    static final class DateHeader {
+
+        /**
+         * Current value and its second.
+         */
+        private static volatile DateHeader current = new DateHeader(System.currentTimeMillis() / 1000);
+
+        private final long second;
+
+        private final AsciiString value;
+
+        private DateHeader(long second) {
+            this.second = second;
+            this.value = new AsciiString(DateFormatter.format(new Date(second * 1000)));
+        }
+
+        /**
+         * Get the value of the specified time, reformat if the second changed.
+         */
+        static AsciiString get(long currentTimeMillis) {
+            long second = currentTimeMillis / 1000;
+            DateHeader header = current;
+            if (header.second != second) {
+                // racy but idempotent
+                header = new DateHeader(second);
+                current = header;
+            }
+            return header.value;
+        }
+
+    }
+
+}
@@ -17,21 +17,33 @@
 
 package net.jrouter.http.netty;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.util.Recycler;
+import io.netty.util.concurrent.FastThreadLocal;
 import net.jrouter.ActionFactory;
 import net.jrouter.ActionInvocation;
+import net.jrouter.ActionProxy;
 import net.jrouter.JRouterException;
 import net.jrouter.PathGenerator;
+import net.jrouter.annotation.Action;
 import net.jrouter.annotation.Dynamic;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.netty.result.HttpResult;
 import net.jrouter.impl.PathActionFactory;
+import net.jrouter.impl.ResultTypeProxy;
 import net.jrouter.support.ActionInvocationDelegate;
+import net.jrouter.util.MethodUtil;
 
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 /**
  * {@code HttpServerActionFactory} invoke Action with Http parameters.
@@ -53,6 +65,22 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
     <T> T invokeAction(String path, FullHttpRequest request, FullHttpResponse response, ChannelHandlerContext context)
             throws JRouterException;
 
+    /**
+     * Use this instead of {@link #invokeAction(Object, Object...)} to pass Http
+     * parameters and the request deadline.
+     * @param <T> Generic type.
+     * @param path Action path.
+     * @param request FullHttpRequest.
+     * @param response FullHttpResponse.
+     * @param context ChannelHandlerContext.
+     * @param deadline RequestDeadline, may be null.
+     * @return Action invoked result.
+     * @throws JRouterException if error occurs.
+     * @see #invokeAction(Object, Object...)
+     */
+    <T> T invokeAction(String path, FullHttpRequest request, FullHttpResponse response, ChannelHandlerContext context,
+            RequestDeadline deadline) throws JRouterException;
+
     /**
      * 提供{@code ServletActionFactory}接口默认实现。覆写{@link #createActionInvocation}方法创建{@code HttpServerActionFactory}接口对象。
      *
@@ -66,6 +94,20 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
         @lombok.Getter
         private final boolean actionPathCaseSensitive;
 
+        /**
+         * 是否回收重用{@link DefaultHttpActionInvocation}对象，默认不回收。
+         * <p>
+         * 回收模式下{@code DefaultHttpActionInvocation}仅在{@link #invokeAction}调用期间有效，不可被异步线程持有；
+         * 结果为{@code ChunkedInput}或{@code CompletionStage}时可能于调用结束后继续使用，此时不回收。
+         */
+        @lombok.Getter
+        private final boolean recycleInvocation;
+
+        /**
+         * 当前线程中最近创建的可回收的{@code DefaultHttpActionInvocation}，于{@link #invokeAction}结束时回收。
+         */
+        private static final FastThreadLocal<DefaultHttpActionInvocation> CURRENT_INVOCATION = new FastThreadLocal<>();
+
         /**
          * Constructor.
          * @param properties Properties
@@ -73,14 +115,83 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
         public DefaultHttpActionFactory(Properties properties) {
             super(properties);
             this.actionPathCaseSensitive = properties.actionPathCaseSensitive;
+            this.recycleInvocation = properties.recycleInvocation;
         }
 
         @Override
         public <T> T invokeAction(String path, FullHttpRequest request, FullHttpResponse response,
                 ChannelHandlerContext sc) throws JRouterException {
-            // invoke and pass http parameters
-            return (T) super.invokeAction(actionPathCaseSensitive ? path : path.toLowerCase(Locale.getDefault()),
-                    request, response, sc);
+            return invokeAction(path, request, response, sc, null);
+        }
+
+        @Override
+        public <T> T invokeAction(String path, FullHttpRequest request, FullHttpResponse response,
+                ChannelHandlerContext sc, RequestDeadline deadline) throws JRouterException {
+            String actionPath = actionPathCaseSensitive ? path : path.toLowerCase(Locale.getDefault());
+            if (!recycleInvocation) {
+                // invoke and pass http parameters
+                return (T) invokeHttpAction(actionPath, request, response, sc, deadline);
+            }
+            // nested invocations (such as action forward) keep their own
+            DefaultHttpActionInvocation previous = CURRENT_INVOCATION.get();
+            Object res = null;
+            try {
+                res = invokeHttpAction(actionPath, request, response, sc, deadline);
+                return (T) res;
+            }
+            finally {
+                DefaultHttpActionInvocation invocation = CURRENT_INVOCATION.get();
+                if (invocation != previous) {
+                    CURRENT_INVOCATION.set(previous);
+                    // may be held by the result after returned, leave it to GC
+                    if (!(res instanceof ChunkedInput || res instanceof CompletionStage)) {
+                        invocation.recycle();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Invoke and pass http parameters, pass the deadline only if not null.
+         */
+        private Object invokeHttpAction(String actionPath, FullHttpRequest request, FullHttpResponse response,
+                ChannelHandlerContext sc, RequestDeadline deadline) {
+            return deadline == null ? super.invokeAction(actionPath, request, response, sc)
+                    : super.invokeAction(actionPath, request, response, sc, deadline);
+        }
+
+        /**
+         * 已取消的请求不再调用结果类型；未声明结果的Action的{@code byte[]}、{@code ByteBuffer}、{@code ByteBuf}结果
+         * 使用{@link HttpResult#BYTES}。
+         */
+        @Override
+        protected Object invokeResult(ActionInvocation invocation, Object res) {
+            if (invocation instanceof HttpActionInvocation
+                    && RequestDeadline.isCancelled(((HttpActionInvocation) invocation).getDeadline())) {
+                if (res instanceof ByteBuf) {
+                    ((ByteBuf) res).release();
+                }
+                return null;
+            }
+            // 二进制结果按类型选择"bytes"结果类型，Action声明了结果时按其结果调用
+            if (invocation instanceof HttpActionInvocation
+                    && (res instanceof ByteBuf || res instanceof byte[] || res instanceof ByteBuffer)
+                    && !isResultDeclared(invocation)) {
+                ResultTypeProxy resultType = getResultTypes().get(HttpResult.BYTES);
+                return resultType == null ? HttpResult.bytes((HttpActionInvocation) invocation)
+                        : MethodUtil.invokeConvertParameters(resultType, invocation);
+            }
+            return super.invokeResult(invocation, res);
+        }
+
+        /**
+         * Action是否声明了结果。
+         */
+        private static boolean isResultDeclared(ActionInvocation invocation) {
+            ActionProxy actionProxy = invocation.getActionProxy();
+            Method method = actionProxy == null ? null : actionProxy.getMethod();
+            Action action = method == null ? null : method.getAnnotation(Action.class);
+            return action != null && action.results().length > 0;
         }
 
         /**
@@ -95,8 +206,19 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
 
             // 优先从invokeAction参数中获取Http参数对象，已由invokeAction方法指定参数顺序
             if (checkHttpParameters(params)) {
-                httpInvocation = new DefaultHttpActionInvocation(invocation, (FullHttpRequest) params[0],
-                        (FullHttpResponse) params[1], (ChannelHandlerContext) params[2], new HashMap<>(4));
+                if (recycleInvocation) {
+                    httpInvocation = DefaultHttpActionInvocation.newInstance(invocation, (FullHttpRequest) params[0],
+                            (FullHttpResponse) params[1], (ChannelHandlerContext) params[2]);
+                    CURRENT_INVOCATION.set(httpInvocation);
+                }
+                else {
+                    // create context map lazily
+                    httpInvocation = new DefaultHttpActionInvocation(invocation, (FullHttpRequest) params[0],
+                            (FullHttpResponse) params[1], (ChannelHandlerContext) params[2], null);
+                }
+                if (params.length > 3) {
+                    httpInvocation.deadline = (RequestDeadline) params[3];
+                }
                 return httpInvocation;
             }
             // return ActionInvocation if can't get any http parameters
@@ -112,8 +234,10 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
          * FullHttpResponse,ChannelHandlerContext)
          */
         private boolean checkHttpParameters(Object... params) {
-            return params != null && params.length == 3 && (params[0] instanceof FullHttpRequest)
-                    && (params[1] instanceof FullHttpResponse) && (params[2] instanceof ChannelHandlerContext);
+            return params != null
+                    && (params.length == 3 || (params.length == 4 && params[3] instanceof RequestDeadline))
+                    && (params[0] instanceof FullHttpRequest) && (params[1] instanceof FullHttpResponse)
+                    && (params[2] instanceof ChannelHandlerContext);
         }
 
         /**
@@ -128,6 +252,11 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
              */
             private boolean actionPathCaseSensitive = true;
 
+            /**
+             * @see DefaultHttpActionFactory#recycleInvocation
+             */
+            private boolean recycleInvocation = false;
+
             @Override
             protected void afterPropertiesSet() {
                 if (getPathGenerator() == null) {
@@ -154,39 +283,114 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
     @Dynamic
     class DefaultHttpActionInvocation extends ActionInvocationDelegate<String> implements HttpActionInvocation {
 
+        /**
+         * Recycler of DefaultHttpActionInvocation.
+         */
+        private static final Recycler<DefaultHttpActionInvocation> RECYCLER = new Recycler<>() {
+
+            @Override
+            protected DefaultHttpActionInvocation newObject(Handle<DefaultHttpActionInvocation> handle) {
+                return new DefaultHttpActionInvocation(handle);
+            }
+        };
+
+        /**
+         * 回收时保留的context map最大容量，超出则丢弃。
+         */
+        private static final int MAX_RECYCLED_CONTEXT_MAP_SIZE = 16;
+
+        /**
+         * Recycler handle, null if not recyclable.
+         */
+        private final Recycler.Handle<DefaultHttpActionInvocation> handle;
+
         /**
          * Http request.
          */
-        private final FullHttpRequest request;
+        private FullHttpRequest request;
 
         /**
          * Http response.
          */
-        private final FullHttpResponse response;
+        private FullHttpResponse response;
 
         /**
          * ChannelHandlerContext.
          */
-        private final ChannelHandlerContext channelHandlerContext;
+        private ChannelHandlerContext channelHandlerContext;
 
         /**
-         * Store key-value.
+         * Store key-value, create lazily if null.
          */
-        private final Map<String, Object> contextMap;
+        private Map<String, Object> contextMap;
+
+        /**
+         * Request deadline, may be null.
+         */
+        private RequestDeadline deadline;
 
         public DefaultHttpActionInvocation(ActionInvocation<String> invocation, FullHttpRequest request, // NOPMD
                                                                                                          // ExcessiveParameterList
                 FullHttpResponse response, ChannelHandlerContext channelHandlerContext,
                 Map<String, Object> contextMap) {
             super();
+            this.handle = null;
+            init(invocation, request, response, channelHandlerContext);
+            this.contextMap = contextMap;
+        }
+
+        private DefaultHttpActionInvocation(Recycler.Handle<DefaultHttpActionInvocation> handle) {
+            super();
+            this.handle = handle;
+        }
+
+        /**
+         * 从回收池中获取{@code DefaultHttpActionInvocation}对象，使用完毕后调用{@link #recycle()}。
+         * @param invocation ActionInvocation delegate.
+         * @param request FullHttpRequest.
+         * @param response FullHttpResponse.
+         * @param channelHandlerContext ChannelHandlerContext.
+         * @return DefaultHttpActionInvocation object.
+         */
+        public static DefaultHttpActionInvocation newInstance(ActionInvocation<String> invocation,
+                FullHttpRequest request, FullHttpResponse response, ChannelHandlerContext channelHandlerContext) {
+            DefaultHttpActionInvocation httpInvocation = RECYCLER.get();
+            httpInvocation.init(invocation, request, response, channelHandlerContext);
+            return httpInvocation;
+        }
+
+        private void init(ActionInvocation<String> invocation, FullHttpRequest request, FullHttpResponse response,
+                ChannelHandlerContext channelHandlerContext) {
             this.delegate = invocation;
             this.request = request;
             this.response = response;
             this.channelHandlerContext = channelHandlerContext;
-            this.contextMap = contextMap;
             this.setConvertParameters(this);
         }
 
+        /**
+         * 回收对象；仅对{@link #newInstance}创建的对象有效。
+         */
+        public void recycle() {
+            if (handle == null) {
+                return;
+            }
+            this.delegate = null;
+            this.request = null;
+            this.response = null;
+            this.channelHandlerContext = null;
+            this.deadline = null;
+            if (contextMap != null) {
+                if (contextMap.size() > MAX_RECYCLED_CONTEXT_MAP_SIZE) {
+                    contextMap = null;
+                }
+                else {
+                    contextMap.clear();
+                }
+            }
+            handle.recycle(this);
+        }
+
         @Override
         public FullHttpRequest getRequest() {
             return this.request;
@@ -204,9 +408,17 @@ public interface HttpServerActionFactory extends ActionFactory<String> {
 
         @Override
         public Map<String, Object> getContextMap() {
+            if (contextMap == null) {
+                contextMap = new HashMap<>(4);
+            }
             return contextMap;
         }
 
+        @Override
+        public RequestDeadline getDeadline() {
+            return deadline;
+        }
+
     }
 
 }
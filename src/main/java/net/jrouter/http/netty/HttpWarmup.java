@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import java.util.Objects;
+import java.util.function.Supplier;
+import net.jrouter.ActionFactory;
+import net.jrouter.http.ActionWarmup;
+
+/**
+ * 以{@code EmbeddedChannel}调用{@link JRouterHttpRequestHandler}的Action预热，不占用网络端口，
+ * 通常于绑定端口前调用{@link #run()}。
+ *
+ * <pre>
+ * HttpWarmup warmup = new HttpWarmup(actionFactory, () -&gt; new JRouterHttpRequestHandler(actionFactory));
+ * warmup.run();
+ * bootstrap.bind(port);
+ * </pre>
+ */
+public class HttpWarmup extends ActionWarmup {
+
+    /**
+     * ActionFactory.
+     */
+    private final HttpServerActionFactory actionFactory;
+
+    /**
+     * Creates the request handler of each channel.
+     */
+    private final Supplier<? extends ChannelHandler> handlerSupplier;
+
+    /**
+     * Current channel, recreated if closed by the handler.
+     */
+    private EmbeddedChannel channel;
+
+    /**
+     * Constructor.
+     * @param actionFactory the ActionFactory to get all action paths.
+     * @param handlerSupplier creates the request handler, e.g. {@code JRouterHttpRequestHandler}.
+     */
+    public HttpWarmup(HttpServerActionFactory actionFactory, Supplier<? extends ChannelHandler> handlerSupplier) {
+        this.actionFactory = Objects.requireNonNull(actionFactory, "actionFactory can't be null");
+        this.handlerSupplier = Objects.requireNonNull(handlerSupplier, "handlerSupplier can't be null");
+    }
+
+    @Override
+    protected ActionFactory getActionFactory() {
+        return actionFactory;
+    }
+
+    @Override
+    protected void invoke(String path) {
+        if (channel == null || !channel.isActive()) {
+            close();
+            channel = new EmbeddedChannel(handlerSupplier.get());
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, path);
+        request.headers().set(HttpHeaderNames.HOST, "localhost");
+        channel.writeInbound(request);
+        channel.runPendingTasks();
+        RuntimeException error = null;
+        boolean responded = false;
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            try {
+                if (!responded && msg instanceof HttpResponse) {
+                    responded = true;
+                    checkResponse(path, (HttpResponse) msg);
+                }
+            }
+            catch (RuntimeException e) {
+                error = e;
+            }
+            finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        if (!responded) {
+            throw new IllegalStateException("No response of warm up action : " + path);
+        }
+    }
+
+    /**
+     * 检查Action的响应（释放前），默认4xx及5xx响应计入错误数量。
+     * @param path Action路径。
+     * @param response the response written by the handler.
+     */
+    protected void checkResponse(String path, HttpResponse response) {
+        if (response.status().code() >= HttpResponseStatus.BAD_REQUEST.code()) {
+            throw new IllegalStateException("Warm up action : " + path + ", status : " + response.status());
+        }
+    }
+
+    @Override
+    protected void close() {
+        if (channel != null) {
+            channel.finishAndReleaseAll();
+            channel = null;
+        }
+    }
+
+}
@@ -19,11 +19,26 @@ package net.jrouter.http.netty;
 
 import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
+import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.util.ArrayDeque;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.function.BiPredicate;
 import lombok.extern.slf4j.Slf4j;
 import net.jrouter.NotFoundException;
+import net.jrouter.http.AbstractBatchAction;
+import net.jrouter.http.ActionBulkheads;
+import net.jrouter.http.ActionFactoryHolder;
+import net.jrouter.http.BulkheadRejectedException;
+import net.jrouter.http.DeadlinePolicy;
+import net.jrouter.http.RequestCancelledException;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.RouteStats;
+import net.jrouter.http.SingleFlight;
+import net.jrouter.http.SlowRequestDetector;
+import net.jrouter.impl.InvocationProxyException;
 import net.jrouter.util.StringUtil;
 
 /**
@@ -43,10 +58,22 @@ public class JRouterHttpRequestHandler extends ChannelInboundHandlerAdapter {
     private static final String PATH_SEPARATOR_STRING = String.valueOf(PATH_SEPARATOR);
 
     /**
-     * ActionFactory.
+     * Single-flight call of the response being written, shared after encoded by
+     * {@link #writeHttpResponse(ChannelHandlerContext, FullHttpRequest, FullHttpResponse, Object)}.
+     */
+    private static final FastThreadLocal<SingleFlight.Call<FullHttpResponse>> SHARING = new FastThreadLocal<>();
+
+    /**
+     * Pipelined requests of the channel, set if invoked out of the event loop or coalesced.
+     */
+    private static final AttributeKey<PipelinedRequests> PIPELINED_REQUESTS = AttributeKey
+        .valueOf(JRouterHttpRequestHandler.class, "pipelinedRequests");
+
+    /**
+     * ActionFactory holder, supports hot-reloading.
      */
     @lombok.Getter
-    private final HttpServerActionFactory httpServerActionFactory;
+    private final ActionFactoryHolder<HttpServerActionFactory> actionFactoryHolder;
 
     /**
      * Http request context path.
@@ -54,6 +81,67 @@ public class JRouterHttpRequestHandler extends ChannelInboundHandlerAdapter {
     @lombok.Getter
     private String contextPath;
 
+    /**
+     * 按{@code Host}及context path选择{@code ActionFactory}的路由表；设置后忽略{@link #contextPath}。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private VirtualHostRouter virtualHostRouter;
+
+    /**
+     * 请求截止时间的策略；设置后客户端断开连接或超时的请求不再调用结果类型及输出。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private DeadlinePolicy deadlinePolicy;
+
+    /**
+     * 慢请求检测，可多个处理类共享；由调用方负责关闭。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private SlowRequestDetector slowRequestDetector;
+
+    /**
+     * 按Action路径的并发限制，超出时返回{@code 503 Service Unavailable}；仅在非EventLoop线程中排队等待。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private ActionBulkheads actionBulkheads;
+
+    /**
+     * 合并并发的相同GET请求（按Host及uri），等待者共享leader编码后的{@code 2xx}响应；默认不启用。
+     * 等待者的响应稍后于其EventLoop中写出，同一连接上流水线（pipelining）的请求依次处理以保证响应顺序。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private SingleFlight<FullHttpResponse> singleFlight;
+
+    /**
+     * 按Action路径前缀划分的执行通道，各通道于独立的{@code Executor}中调用，超出排队上限时返回
+     * {@code 503 Service Unavailable}；为{@code null}时于当前线程中调用。
+     * 同一连接上流水线（pipelining）的请求依次处理（处理中暂停读取），保证响应顺序；截止时间自收到请求时计算。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private ExecutionLanes executionLanes;
+
+    /**
+     * 按Action路径的调用统计，可多个处理类共享；为{@code null}时不统计。
+     *
+     * @see RoutesHttpAction
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private RouteStats routeStats;
+
+    /**
+     * 预编码的响应头模板，默认仅包含{@code Date}头；为{@code null}时不设置。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private HttpHeaderTemplate headerTemplate = HttpHeaderTemplate.DEFAULT;
+
     /**
      * Check if you need to log {@code NotFoundException}.
      */
@@ -74,96 +162,479 @@ public class JRouterHttpRequestHandler extends ChannelInboundHandlerAdapter {
      * @param httpServerActionFactory HttpServerActionFactory object.
      */
     public JRouterHttpRequestHandler(HttpServerActionFactory httpServerActionFactory) {
+        this(new ActionFactoryHolder<>(
+                Objects.requireNonNull(httpServerActionFactory, "httpServerActionFactory can't be null")));
+    }
+
+    /**
+     * Constructor with a reloadable ActionFactory holder.
+     * @param actionFactoryHolder ActionFactoryHolder object.
+     */
+    public JRouterHttpRequestHandler(ActionFactoryHolder<HttpServerActionFactory> actionFactoryHolder) {
         super();
-        Objects.requireNonNull(httpServerActionFactory, "httpServerActionFactory can't be null");
-        this.httpServerActionFactory = httpServerActionFactory;
+        Objects.requireNonNull(actionFactoryHolder, "actionFactoryHolder can't be null");
+        this.actionFactoryHolder = actionFactoryHolder;
+    }
+
+    /**
+     * Gets the current HttpServerActionFactory.
+     * @return the current HttpServerActionFactory.
+     */
+    public HttpServerActionFactory getHttpServerActionFactory() {
+        return actionFactoryHolder.get();
+    }
+
+    /**
+     * Controls of the batch sub requests.
+     */
+    AbstractBatchAction.Controls getBatchControls() {
+        return actionBulkheads == null && deadlinePolicy == null && slowRequestDetector == null ? null
+                : new AbstractBatchAction.Controls(null, true, actionBulkheads, deadlinePolicy, slowRequestDetector);
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         FullHttpRequest fullHttpRequest;
         if (msg instanceof FullHttpRequest && httpRequestPredicate.test(ctx, fullHttpRequest = (FullHttpRequest) msg)) {
+            if (executionLanes == null && singleFlight == null) {
+                // written in order in the event loop
+                try {
+                    handleHttpRequest(ctx, fullHttpRequest);
+                }
+                finally {
+                    ReferenceCountUtil.release(msg);
+                }
+                return;
+            }
+            PipelinedRequests pipelined = ctx.channel().attr(PIPELINED_REQUESTS).get();
+            if (pipelined == null) {
+                pipelined = new PipelinedRequests();
+                ctx.channel().attr(PIPELINED_REQUESTS).set(pipelined);
+            }
+            if (pipelined.current != null) {
+                // wait for the previous response, stop reading until then
+                pipelined.pending.add(fullHttpRequest);
+                pipelined.pendingReceived.add(System.nanoTime());
+                ctx.channel().config().setAutoRead(false);
+                return;
+            }
+            process(ctx, pipelined, fullHttpRequest, System.nanoTime());
+        }
+        else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        PipelinedRequests pipelined = ctx.channel().attr(PIPELINED_REQUESTS).get();
+        if (pipelined != null) {
+            FullHttpRequest request;
+            while ((request = pipelined.pending.poll()) != null) {
+                ReferenceCountUtil.release(request);
+            }
+            pipelined.pendingReceived.clear();
+        }
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * Handle the request in its lane or in the event loop, as the current request of the channel.
+     */
+    private void process(ChannelHandlerContext ctx, PipelinedRequests pipelined, FullHttpRequest fullHttpRequest,
+            long receivedNanos) {
+        pipelined.current = fullHttpRequest;
+        pipelined.receivedNanos = receivedNanos;
+        ExecutionLanes.Lane lane = executionLanes == null ? null
+                : executionLanes.get(parseLaneActionPath(fullHttpRequest));
+        if (lane != null) {
+            dispatch(ctx, fullHttpRequest, lane, () -> handleHttpRequest(ctx, fullHttpRequest));
+            return;
+        }
+        try {
+            handleHttpRequest(ctx, fullHttpRequest);
+        }
+        finally {
+            ReferenceCountUtil.release(fullHttpRequest);
+        }
+    }
+
+    /**
+     * The response of the channel's current request is written, handle the next pipelined request.
+     */
+    private void completeRequest(ChannelHandlerContext ctx) {
+        PipelinedRequests pipelined = ctx.channel().attr(PIPELINED_REQUESTS).get();
+        if (pipelined == null) {
+            return;
+        }
+        // always in the event loop, never recursively
+        ctx.executor().execute(() -> {
+            pipelined.current = null;
+            FullHttpRequest next = pipelined.pending.poll();
+            if (next == null) {
+                if (!ctx.channel().config().isAutoRead()) {
+                    ctx.channel().config().setAutoRead(true);
+                }
+                return;
+            }
+            process(ctx, pipelined, next, pipelined.pendingReceived.poll());
+        });
+    }
+
+    /**
+     * Received time of the channel's current request, or now if not pipelined.
+     */
+    private static long receivedNanos(ChannelHandlerContext ctx) {
+        PipelinedRequests pipelined = ctx.channel().attr(PIPELINED_REQUESTS).get();
+        return pipelined == null || pipelined.current == null ? System.nanoTime() : pipelined.receivedNanos;
+    }
+
+    /**
+     * Run the invocation in the lane then release the request, or write {@code 503 Service Unavailable} if rejected.
+     */
+    private void dispatch(ChannelHandlerContext ctx, FullHttpRequest fullHttpRequest, ExecutionLanes.Lane lane,
+            Runnable invoke) {
+        // released by the lane's task
+        boolean accepted = lane.execute(() -> {
             try {
-                FullHttpResponse fullHttpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
-                        HttpResponseStatus.OK);
-                String uri = fullHttpRequest.uri();
-                Object res = null;
-                invoke: try {
-                    String actionPath = parseActionPath(fullHttpRequest);
-                    if (StringUtil.isNotBlank(contextPath) && !PATH_SEPARATOR_STRING.equals(contextPath)) {
-                        if (actionPath.startsWith(contextPath + PATH_SEPARATOR)) {
-                            actionPath = actionPath.substring(contextPath.length());
-                        }
-                        else {
-                            // not match context path
-                            log.warn("Uri not matched [{}] : {}", contextPath, actionPath);
-                            fullHttpResponse.setStatus(HttpResponseStatus.NOT_FOUND);
-                            break invoke;
-                        }
-                    }
-                    res = httpServerActionFactory.invokeAction(actionPath, fullHttpRequest, fullHttpResponse, ctx);
+                invoke.run();
+            }
+            finally {
+                ReferenceCountUtil.release(fullHttpRequest);
+            }
+        });
+        if (!accepted) {
+            try {
+                log.debug("Service Unavailable : {}, lane [{}] is full", fullHttpRequest.uri(), lane.getName());
+                writeHttpResponse(ctx, fullHttpRequest,
+                        new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.SERVICE_UNAVAILABLE));
+            }
+            finally {
+                ReferenceCountUtil.release(fullHttpRequest);
+                completeRequest(ctx);
+            }
+        }
+    }
+
+    /**
+     * Get the action path without the context path to select the lane.
+     */
+    private String parseLaneActionPath(FullHttpRequest fullHttpRequest) {
+        String actionPath = parseActionPath(fullHttpRequest);
+        if (virtualHostRouter != null) {
+            VirtualHostRouter.Route route = virtualHostRouter
+                .route(fullHttpRequest.headers().get(HttpHeaderNames.HOST), actionPath);
+            return route == null ? actionPath : route.getActionPath(actionPath);
+        }
+        if (StringUtil.isNotBlank(contextPath) && !PATH_SEPARATOR_STRING.equals(contextPath)
+                && actionPath.startsWith(contextPath + PATH_SEPARATOR)) {
+            return actionPath.substring(contextPath.length());
+        }
+        return actionPath;
+    }
+
+    /**
+     * Invoke action and write http response.
+     * @param ctx ChannelHandlerContext.
+     * @param fullHttpRequest FullHttpRequest, released by the caller.
+     */
+    protected void handleHttpRequest(ChannelHandlerContext ctx, FullHttpRequest fullHttpRequest) {
+        SingleFlight.Call<FullHttpResponse> call = null;
+        if (singleFlight != null && HttpMethod.GET.equals(fullHttpRequest.method())) {
+            // retained until the shared response written
+            fullHttpRequest.retain();
+            call = singleFlight.join(singleFlightKey(fullHttpRequest),
+                    shared -> writeSharedResponse(ctx, fullHttpRequest, shared));
+            if (call == null) {
+                return;
+            }
+            fullHttpRequest.release();
+        }
+        try {
+            invokeAndWrite(ctx, fullHttpRequest, call);
+        }
+        finally {
+            if (call != null) {
+                // not shared, waiters invoke by themselves
+                call.complete(null);
+            }
+        }
+    }
+
+    /**
+     * A hook to give subclass another key to coalesce the concurrent requests.
+     * @param request FullHttpRequest object.
+     * @return the request key.
+     */
+    protected String singleFlightKey(FullHttpRequest request) {
+        return virtualHostRouter == null ? request.uri() : request.headers().get(HttpHeaderNames.HOST) + request.uri();
+    }
+
+    /**
+     * Write the leader's shared response in the waiter's event loop, or invoke by itself if not shared.
+     */
+    private void writeSharedResponse(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpResponse shared) {
+        // copy headers and share the content before the leader writes it
+        FullHttpResponse response = shared == null ? null : shared.replace(shared.content().retainedDuplicate());
+        if (response == null && executionLanes != null) {
+            ExecutionLanes.Lane lane = executionLanes.get(parseLaneActionPath(request));
+            if (lane != null && !lane.isInline()) {
+                // invoke by itself in the lane, not in the event loop
+                dispatch(ctx, request, lane, () -> invokeAndWrite(ctx, request, null));
+                return;
+            }
+        }
+        ctx.executor().execute(() -> {
+            try {
+                if (response == null) {
+                    invokeAndWrite(ctx, request, null);
                 }
-                catch (NotFoundException e) {
-                    if (logNotFoundException) {
-                        log.error("Not Found : {}", uri, e);
-                    }
-                    fullHttpResponse.setStatus(HttpResponseStatus.NOT_FOUND);
+                else {
+                    writeHttpResponse(ctx, request, response);
+                    completeRequest(ctx);
                 }
-                catch (Exception e) {
-                    log.error("Internal Server Error : {}", uri, e);
-                    fullHttpResponse.setStatus(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            }
+            finally {
+                request.release();
+            }
+        });
+    }
+
+    /**
+     * Invoke action and write http response, share the response with the waiters if the call is not null.
+     */
+    private void invokeAndWrite(ChannelHandlerContext ctx, FullHttpRequest fullHttpRequest,
+            SingleFlight.Call<FullHttpResponse> call) {
+        FullHttpResponse fullHttpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        String uri = fullHttpRequest.uri();
+        Object res = null;
+        ActionFactoryHolder.Generation<HttpServerActionFactory> generation = null;
+        RequestDeadline deadline = null;
+        ChannelFutureListener cancelListener = null;
+        SlowRequestDetector.InFlight inFlight = null;
+        ActionBulkheads.Bulkhead bulkhead = null;
+        String statsPath = null;
+        long statsStart = 0;
+        boolean failed = false;
+        try {
+            invoke: try {
+                String actionPath = parseActionPath(fullHttpRequest);
+                ActionFactoryHolder<HttpServerActionFactory> holder = actionFactoryHolder;
+                if (virtualHostRouter != null) {
+                    String host = fullHttpRequest.headers().get(HttpHeaderNames.HOST);
+                    VirtualHostRouter.Route route = virtualHostRouter.route(host, actionPath);
+                    if (route == null) {
+                        // not match any host and context path
+                        log.warn("Route not matched [{}] : {}", host, actionPath);
+                        fullHttpResponse.setStatus(HttpResponseStatus.NOT_FOUND);
+                        break invoke;
+                    }
+                    holder = route.getActionFactoryHolder();
+                    actionPath = route.getActionPath(actionPath);
                 }
-                if (res instanceof FullHttpResponse) {
-                    writeHttpResponse(ctx, fullHttpRequest, (FullHttpResponse) res);
-                }
-                else if (res instanceof HttpChunkedInput) {
-                    HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
-                            fullHttpResponse.headers());
-                    HttpUtil.setTransferEncodingChunked(response, true);
-                    // Write the initial line and the header.
-                    ctx.write(response);
-                    ChannelFuture lastContentFuture = ctx.writeAndFlush((HttpChunkedInput) res,
-                            ctx.newProgressivePromise());
-                    // HttpChunkedInput will write the end marker (LastHttpContent) for
-                    // us.
-                    if (log.isDebugEnabled()) {
-                        lastContentFuture.addListener(new ChannelProgressiveFutureListener() {
-
-                            @Override
-                            public void operationProgressed(ChannelProgressiveFuture future, long progress,
-                                    long total) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug(future.channel() + " Transfer progress: " + progress + " / " + total);
-                                }
-                            }
-
-                            @Override
-                            public void operationComplete(ChannelProgressiveFuture future) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug(future.channel() + " Transfer complete.");
-                                }
-                            }
-                        });
+                else if (StringUtil.isNotBlank(contextPath) && !PATH_SEPARATOR_STRING.equals(contextPath)) {
+                    if (actionPath.startsWith(contextPath + PATH_SEPARATOR)) {
+                        actionPath = actionPath.substring(contextPath.length());
                     }
-                    // Decide whether to close the connection or not.
-                    if (!HttpUtil.isKeepAlive(fullHttpRequest)) {
-                        // Close the connection when the whole content is written out.
-                        lastContentFuture.addListener(ChannelFutureListener.CLOSE);
+                    else {
+                        // not match context path
+                        log.warn("Uri not matched [{}] : {}", contextPath, actionPath);
+                        fullHttpResponse.setStatus(HttpResponseStatus.NOT_FOUND);
+                        break invoke;
+                    }
+                }
+                if (deadlinePolicy != null) {
+                    String headerName = deadlinePolicy.getHeaderName();
+                    // from the receipt, including the time queued in the lane
+                    RequestDeadline requestDeadline = deadlinePolicy.newDeadline(actionPath,
+                            headerName == null ? null : fullHttpRequest.headers().get(headerName),
+                            receivedNanos(ctx));
+                    // cancel if the client closed the connection
+                    cancelListener = future -> requestDeadline.cancel();
+                    ctx.channel().closeFuture().addListener(cancelListener);
+                    deadline = requestDeadline;
+                    if (deadline.isCancelled()) {
+                        break invoke;
                     }
                 }
+                if (actionBulkheads != null) {
+                    ActionBulkheads.Bulkhead acquiring = actionBulkheads.get(actionPath);
+                    // never block the event loop
+                    acquiring.acquire(!ctx.executor().inEventLoop());
+                    bulkhead = acquiring;
+                }
+                if (slowRequestDetector != null) {
+                    inFlight = slowRequestDetector.begin(actionPath);
+                }
+                // keep the same ActionFactory during the request even if reloaded
+                generation = holder.acquire();
+                if (routeStats != null) {
+                    statsPath = actionPath;
+                    statsStart = System.nanoTime();
+                }
+                res = generation.getActionFactory()
+                    .invokeAction(actionPath, fullHttpRequest, fullHttpResponse, ctx, deadline);
+            }
+            catch (RequestCancelledException e) {
+                log.debug("Request cancelled : {}, {}", uri, e.getMessage());
+            }
+            catch (BulkheadRejectedException e) {
+                log.debug("Service Unavailable : {}, {}", uri, e.getMessage());
+                fullHttpResponse.setStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+            }
+            catch (NotFoundException e) {
+                // never record unknown paths
+                statsPath = null;
+                if (logNotFoundException) {
+                    log.error("Not Found : {}", uri, e);
+                }
+                fullHttpResponse.setStatus(HttpResponseStatus.NOT_FOUND);
+            }
+            catch (InvocationProxyException e) {
+                if (e.getSource() instanceof RequestCancelledException) {
+                    // thrown by RequestDeadline#checkCancelled() in the action
+                    log.debug("Request cancelled : {}, {}", uri, e.getSource().getMessage());
+                }
                 else {
-                    writeHttpResponse(ctx, fullHttpRequest, fullHttpResponse, res);
+                    failed = true;
+                    log.error("Internal Server Error : {}", uri, e.getSource());
+                    fullHttpResponse.setStatus(HttpResponseStatus.INTERNAL_SERVER_ERROR);
                 }
             }
-            finally {
-                ReferenceCountUtil.release(msg);
+            catch (Exception e) {
+                failed = true;
+                log.error("Internal Server Error : {}", uri, e);
+                fullHttpResponse.setStatus(HttpResponseStatus.INTERNAL_SERVER_ERROR);
             }
         }
+        finally {
+            if (statsPath != null) {
+                HttpResponse out = res instanceof HttpResponse ? (HttpResponse) res : fullHttpResponse;
+                routeStats.record(statsPath, System.nanoTime() - statsStart,
+                        failed || out.status().code() >= HttpResponseStatus.INTERNAL_SERVER_ERROR.code());
+            }
+            if (inFlight != null) {
+                slowRequestDetector.end(inFlight);
+            }
+            if (cancelListener != null) {
+                ctx.channel().closeFuture().removeListener(cancelListener);
+            }
+            if (generation != null) {
+                generation.close();
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+        try {
+            if (RequestDeadline.isCancelled(deadline)) {
+                writeCancelledResponse(ctx, fullHttpRequest, fullHttpResponse, res);
+            }
+            else {
+                writeResult(ctx, fullHttpRequest, fullHttpResponse, res, call);
+            }
+        }
+        finally {
+            completeRequest(ctx);
+        }
+    }
+
+    /**
+     * Write the action's invoked result.
+     */
+    private void writeResult(ChannelHandlerContext ctx, FullHttpRequest fullHttpRequest,
+            FullHttpResponse fullHttpResponse, Object res, SingleFlight.Call<FullHttpResponse> call) {
+        if (res instanceof FullHttpResponse) {
+            share(call, (FullHttpResponse) res);
+            writeHttpResponse(ctx, fullHttpRequest, (FullHttpResponse) res);
+        }
+        else if (res instanceof HttpChunkedInput) {
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                    fullHttpResponse.headers());
+            HttpUtil.setTransferEncodingChunked(response, true);
+            if (headerTemplate != null) {
+                headerTemplate.apply(response.headers());
+            }
+            // Write the initial line and the header.
+            ctx.write(response);
+            ChannelFuture lastContentFuture = ctx.writeAndFlush((HttpChunkedInput) res, ctx.newProgressivePromise());
+            // HttpChunkedInput will write the end marker (LastHttpContent) for
+            // us.
+            if (log.isDebugEnabled()) {
+                lastContentFuture.addListener(new ChannelProgressiveFutureListener() {
+
+                    @Override
+                    public void operationProgressed(ChannelProgressiveFuture future, long progress, long total) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(future.channel() + " Transfer progress: " + progress + " / " + total);
+                        }
+                    }
+
+                    @Override
+                    public void operationComplete(ChannelProgressiveFuture future) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(future.channel() + " Transfer complete.");
+                        }
+                    }
+                });
+            }
+            // Decide whether to close the connection or not.
+            if (!HttpUtil.isKeepAlive(fullHttpRequest)) {
+                // Close the connection when the whole content is written out.
+                lastContentFuture.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+        else if (call == null) {
+            writeHttpResponse(ctx, fullHttpRequest, fullHttpResponse, res);
+        }
         else {
-            ctx.fireChannelRead(msg);
+            // shared in writeHttpResponse(ctx, request, response) after encoded by the hook
+            SHARING.set(call);
+            try {
+                writeHttpResponse(ctx, fullHttpRequest, fullHttpResponse, res);
+            }
+            finally {
+                SHARING.remove();
+            }
         }
     }
 
+    /**
+     * Share the successful response with the waiters, except the client specific one.
+     */
+    private static void share(SingleFlight.Call<FullHttpResponse> call, FullHttpResponse response) {
+        if (call != null && response.status().codeClass() == HttpStatusClass.SUCCESS
+                && !response.headers().contains(HttpHeaderNames.SET_COOKIE)) {
+            call.complete(response);
+        }
+    }
+
+    /**
+     * Skip the abandoned result; write an empty {@code 504 Gateway Timeout} if the
+     * channel is still active.
+     */
+    private void writeCancelledResponse(ChannelHandlerContext ctx, FullHttpRequest fullHttpRequest,
+            FullHttpResponse fullHttpResponse, Object res) {
+        if (res != fullHttpResponse) {
+            ReferenceCountUtil.release(res);
+        }
+        if (res instanceof HttpChunkedInput) {
+            try {
+                ((HttpChunkedInput) res).close();
+            }
+            catch (Exception e) {
+                log.warn("Can't close HttpChunkedInput : {}", res, e);
+            }
+        }
+        if (!ctx.channel().isActive()) {
+            fullHttpResponse.release();
+            return;
+        }
+        fullHttpResponse.content().clear();
+        fullHttpResponse.setStatus(HttpResponseStatus.GATEWAY_TIMEOUT);
+        writeHttpResponse(ctx, fullHttpRequest, fullHttpResponse);
+    }
+
     /**
      * A hook to give subclass another way to create Action's invoke path.
      * @param request FullHttpRequest object.
@@ -216,8 +687,17 @@ public class JRouterHttpRequestHandler extends ChannelInboundHandlerAdapter {
      * Write http response.
      */
     protected void writeHttpResponse(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpResponse response) {
+        SingleFlight.Call<FullHttpResponse> call = SHARING.get();
+        if (call != null) {
+            SHARING.remove();
+            share(call, response);
+        }
         boolean keepAlive = HttpUtil.isKeepAlive(request);
-        HttpUtil.setContentLength(response, response.content().readableBytes());
+        HttpHeaders headers = response.headers();
+        if (headerTemplate != null) {
+            headerTemplate.apply(headers);
+        }
+        headers.setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
         HttpUtil.setKeepAlive(response, keepAlive);
         ChannelFuture channelFuture = ctx.writeAndFlush(response);
         if (!keepAlive) {
@@ -247,4 +727,31 @@ public class JRouterHttpRequestHandler extends ChannelInboundHandlerAdapter {
         this.contextPath = contextPath;
     }
 
+    /**
+     * 同一连接上流水线（pipelining）的请求，依次处理以保证响应顺序；仅于EventLoop线程中修改。
+     */
+    private static final class PipelinedRequests {
+
+        /**
+         * Requests received while the current one is being handled.
+         */
+        private final Queue<FullHttpRequest> pending = new ArrayDeque<>(4);
+
+        /**
+         * Received time of the pending requests.
+         */
+        private final Queue<Long> pendingReceived = new ArrayDeque<>(4);
+
+        /**
+         * The request being handled, null if idle.
+         */
+        private FullHttpRequest current;
+
+        /**
+         * Received time of the current request.
+         */
+        private long receivedNanos;
+
+    }
+
 }
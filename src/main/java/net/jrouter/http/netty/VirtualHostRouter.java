@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.http.ActionFactoryHolder;
+import net.jrouter.http.PathPrefixTrie;
+
+/**
+ * 按{@code Host}请求头及context path选择{@link HttpServerActionFactory}的路由表。
+ * <p>
+ * 先按{@code Host}（忽略大小写及端口）精确匹配，未匹配时使用{@link #ANY_HOST}；再按context path最长前缀匹配。
+ * 路由表于启动时构建，构建完成后只读。
+ *
+ * <pre>
+ * VirtualHostRouter router = new VirtualHostRouter();
+ * router.addRoute("api.example.com", "/", apiActionFactory);
+ * router.addRoute("*", "/admin", adminActionFactory);
+ * handler.setVirtualHostRouter(router);
+ * </pre>
+ */
+@Slf4j
+public class VirtualHostRouter {
+
+    /**
+     * 匹配任意{@code Host}。
+     */
+    public static final String ANY_HOST = "*";
+
+    /**
+     * Host to context path trie mapping.
+     */
+    private final Map<String, PathPrefixTrie<Route>> hosts = new HashMap<>();
+
+    /**
+     * Context path trie of any host.
+     */
+    private PathPrefixTrie<Route> anyHost = null;
+
+    /**
+     * 添加路由。
+     * @param host the host name, or {@link #ANY_HOST}.
+     * @param contextPath the context path.
+     * @param httpServerActionFactory HttpServerActionFactory object.
+     * @return this router.
+     */
+    public VirtualHostRouter addRoute(String host, String contextPath,
+            HttpServerActionFactory httpServerActionFactory) {
+        return addRoute(host, contextPath, new ActionFactoryHolder<>(
+                Objects.requireNonNull(httpServerActionFactory, "httpServerActionFactory can't be null")));
+    }
+
+    /**
+     * 添加路由，使用可热替换的{@code ActionFactory}。
+     * @param host the host name, or {@link #ANY_HOST}.
+     * @param contextPath the context path.
+     * @param actionFactoryHolder ActionFactoryHolder object.
+     * @return this router.
+     */
+    public VirtualHostRouter addRoute(String host, String contextPath,
+            ActionFactoryHolder<HttpServerActionFactory> actionFactoryHolder) {
+        Objects.requireNonNull(host, "host can't be null");
+        Objects.requireNonNull(actionFactoryHolder, "actionFactoryHolder can't be null");
+        String normalizedHost = normalizeHost(host);
+        String normalizedContextPath = PathPrefixTrie.normalize(contextPath);
+        PathPrefixTrie<Route> trie;
+        if (ANY_HOST.equals(normalizedHost)) {
+            if (anyHost == null) {
+                anyHost = new PathPrefixTrie<>();
+            }
+            trie = anyHost;
+        }
+        else {
+            trie = hosts.computeIfAbsent(normalizedHost, k -> new PathPrefixTrie<>());
+        }
+        if (trie.put(normalizedContextPath, new Route(normalizedContextPath, actionFactoryHolder)) != null) {
+            log.warn("Replace route [{}{}]", normalizedHost, normalizedContextPath);
+        }
+        log.info("Add route [{}{}] : {}", normalizedHost, normalizedContextPath, actionFactoryHolder.get());
+        return this;
+    }
+
+    /**
+     * 返回匹配的路由。
+     * @param host the {@code Host} header value, may include port.
+     * @param path the request path.
+     * @return matched route or null.
+     */
+    public Route route(String host, String path) {
+        Route route = null;
+        if (host != null && !hosts.isEmpty()) {
+            PathPrefixTrie<Route> trie = hosts.get(host);
+            if (trie == null) {
+                trie = hosts.get(normalizeHost(host));
+            }
+            if (trie != null) {
+                route = trie.match(path);
+            }
+        }
+        if (route == null && anyHost != null) {
+            route = anyHost.match(path);
+        }
+        return route;
+    }
+
+    /**
+     * Lower case and strip port.
+     */
+    private static String normalizeHost(String host) {
+        String h = host.trim();
+        // IPv6 literal such as [::1]:8080
+        int end = h.lastIndexOf(':');
+        if (end > -1 && h.indexOf(']') < end) {
+            h = h.substring(0, end);
+        }
+        return h.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 路由，包含context path及对应的{@code ActionFactory}。
+     */
+    @lombok.Getter
+    public static final class Route {
+
+        /**
+         * Normalized context path, empty string if root.
+         */
+        private final String contextPath;
+
+        /**
+         * ActionFactory holder.
+         */
+        private final ActionFactoryHolder<HttpServerActionFactory> actionFactoryHolder;
+
+        private Route(String contextPath, ActionFactoryHolder<HttpServerActionFactory> actionFactoryHolder) {
+            this.contextPath = contextPath;
+            this.actionFactoryHolder = actionFactoryHolder;
+        }
+
+        /**
+         * 去除context path后的action路径。
+         * @param path the request path.
+         * @return the action path.
+         */
+        public String getActionPath(String path) {
+            if (contextPath.isEmpty()) {
+                return path;
+            }
+            return path.length() == contextPath.length() ? String.valueOf(JRouterHttpRequestHandler.PATH_SEPARATOR)
+                    : path.substring(contextPath.length());
+        }
+
+    }
+
+}
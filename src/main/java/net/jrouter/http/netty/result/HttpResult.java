@@ -17,10 +17,13 @@
 
 package net.jrouter.http.netty.result;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.util.internal.StringUtil;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import net.jrouter.annotation.ResultType;
@@ -37,6 +40,12 @@ public class HttpResult {
     public static final String TEXT = "text";
 
     /**
+     * "bytes" symbol.
+     */
+    public static final String BYTES = "bytes";
+
+    /**
+     * 文本结果，未设置{@code Content-Type}时为{@code text/plain}。
      * @param invocation Action运行时上下文。
      * @return 返回forward后的调用结果。
      */
@@ -44,9 +53,40 @@ public class HttpResult {
     public static Object text(HttpActionInvocation invocation) {
         Object res = invocation.getInvokeResult();
         FullHttpResponse response = invocation.getResponse();
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.TEXT_PLAIN);
+        if (!response.headers().contains(HttpHeaderNames.CONTENT_TYPE)) {
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.TEXT_PLAIN);
+        }
         response.content().writeCharSequence(Objects.toString(res, StringUtil.EMPTY_STRING), StandardCharsets.UTF_8);
         return res;
     }
 
+    /**
+     * 二进制结果，{@code byte[]}、{@code ByteBuffer}直接包装，{@code ByteBuf}的所有权转移至返回的响应，均不复制。
+     * 未设置{@code Content-Type}时为{@code application/octet-stream}。
+     * @param invocation Action运行时上下文。
+     * @return 包含结果内容的{@code FullHttpResponse}。
+     */
+    @ResultType(type = BYTES)
+    public static Object bytes(HttpActionInvocation invocation) {
+        Object res = invocation.getInvokeResult();
+        ByteBuf content;
+        if (res instanceof ByteBuf) {
+            content = (ByteBuf) res;
+        }
+        else if (res instanceof byte[]) {
+            content = Unpooled.wrappedBuffer((byte[]) res);
+        }
+        else if (res instanceof ByteBuffer) {
+            content = Unpooled.wrappedBuffer((ByteBuffer) res);
+        }
+        else {
+            return text(invocation);
+        }
+        FullHttpResponse response = invocation.getResponse();
+        if (!response.headers().contains(HttpHeaderNames.CONTENT_TYPE)) {
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_OCTET_STREAM);
+        }
+        return response.replace(content);
+    }
+
 }
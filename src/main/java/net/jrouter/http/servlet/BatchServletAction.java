@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import net.jrouter.ActionInvocation;
+import net.jrouter.NotFoundException;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.AbstractBatchAction;
+import net.jrouter.http.RequestDeadline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于{@link ServletActionFactory}的批量调用Action，路径为"/jrouter/batch"。
+ * <p>
+ * 子请求为不支持异步的GET请求，共享批量请求的头信息及会话，请求属性及响应相互隔离；结果使用"bytes"结果类型输出。
+ * 子请求应用过滤器设置的{@link AbstractBatchAction.Controls}：请求方法、Action自身的并发限制、截止时间及慢请求检测。
+ * 依次调用时于调用后恢复{@link ServletThreadContext}中的Http参数对象，并行调用时于{@code Executor}线程中设置并清除。
+ *
+ * @see AbstractBatchAction
+ */
+@Namespace(name = "/jrouter")
+public class BatchServletAction extends AbstractBatchAction<ServletActionInvocation> {
+
+    /**
+     * 批量调用。
+     * @param invocation Action运行时上下文。
+     * @return UTF-8 encoded JSON array.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Action("batch")
+    public byte[] batch(ServletActionInvocation invocation) throws IOException {
+        HttpServletRequest request = invocation.getRequest();
+        if (request instanceof SubRequest) {
+            invocation.getResponse().setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return new byte[0];
+        }
+        String[] params = request.getParameterValues(REQUEST_PARAMETER);
+        StringBuilder body = null;
+        if (params == null) {
+            body = new StringBuilder(256);
+            BufferedReader reader = request.getReader();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                body.append(line).append('\n');
+            }
+        }
+        byte[] json = execute(invocation, parseRequests(params == null ? null : Arrays.asList(params), body),
+                invocation.getDeadline());
+        invocation.getResponse().setContentType("application/json;charset=UTF-8");
+        return json;
+    }
+
+    @Override
+    protected Result invoke(ServletActionInvocation invocation, String uri, boolean async) {
+        String path = actionPath(uri);
+        ServletActionFactory actionFactory = (ServletActionFactory) invocation.getActionFactory();
+        if (isBatchAction(actionFactory.getActions(), path)) {
+            return new Result(uri, HttpServletResponse.SC_BAD_REQUEST, null, "");
+        }
+        Controls controls = (Controls) invocation.getRequest().getAttribute(CONTROLS_ATTRIBUTE);
+        RequestDeadline deadline = invocation.getDeadline();
+        return invokeControlled(controls, uri, path, deadline, true, subDeadline -> {
+            HttpServletRequest request = new SubRequest(invocation.getRequest(), path, queryString(uri));
+            if (subDeadline != deadline) {
+                request.setAttribute(ServletActionInvocation.DEADLINE_ATTRIBUTE, subDeadline);
+            }
+            return invokeSubRequest(invocation, uri, path, request, async);
+        });
+    }
+
+    private Result invokeSubRequest(ServletActionInvocation invocation, String uri, String path,
+            HttpServletRequest request, boolean async) {
+        ServletActionFactory actionFactory = (ServletActionFactory) invocation.getActionFactory();
+        DetachedHttpServletResponse response = new DetachedHttpServletResponse(invocation.getResponse());
+        HttpServletRequest previousRequest = null;
+        HttpServletResponse previousResponse = null;
+        ActionInvocation<?> previousInvocation = null;
+        if (async) {
+            ServletThreadContext.setServletContext(invocation.getServletContext());
+        }
+        else {
+            previousRequest = ServletThreadContext.getRequest();
+            previousResponse = ServletThreadContext.getResponse();
+            previousInvocation = ServletThreadContext.getActionInvocation();
+        }
+        ServletThreadContext.setRequest(request);
+        ServletThreadContext.setResponse(response);
+        try {
+            actionFactory.invokeAction(path, request, response,
+                    invocation.getServletContext());
+            return new Result(uri, response.getStatus(), response.getContentType(), response.getContentAsString());
+        }
+        catch (NotFoundException e) {
+            return new Result(uri, HttpServletResponse.SC_NOT_FOUND, null, "");
+        }
+        finally {
+            if (async) {
+                ServletThreadContext.remove();
+            }
+            else {
+                ServletThreadContext.setRequest(previousRequest);
+                ServletThreadContext.setResponse(previousResponse);
+                ServletThreadContext.setActionInvocation(previousInvocation);
+            }
+        }
+    }
+
+    /**
+     * 子请求，参数仅来自子请求的查询参数，请求属性写入本对象。
+     */
+    private static final class SubRequest extends HttpServletRequestWrapper {
+
+        private final String servletPath;
+
+        private final String queryString;
+
+        private final Map<String, String[]> parameters;
+
+        /**
+         * Attributes of this sub request.
+         */
+        private final Map<String, Object> attributes = new HashMap<>(4);
+
+        /**
+         * Attributes removed in this sub request.
+         */
+        private final Set<String> removedAttributes = new HashSet<>(4);
+
+        SubRequest(HttpServletRequest request, String servletPath, String queryString) {
+            super(request);
+            this.servletPath = servletPath;
+            this.queryString = queryString;
+            this.parameters = Collections.unmodifiableMap(parseParameters(queryString));
+        }
+
+        private static Map<String, String[]> parseParameters(String queryString) {
+            Map<String, String[]> map = new LinkedHashMap<>();
+            if (queryString == null || queryString.isEmpty()) {
+                return map;
+            }
+            for (String pair : queryString.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int idx = pair.indexOf('=');
+                String name = URLDecoder.decode(idx > -1 ? pair.substring(0, idx) : pair, StandardCharsets.UTF_8);
+                String value = idx > -1 ? URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8) : "";
+                String[] values = map.get(name);
+                if (values == null) {
+                    map.put(name, new String[]{value});
+                }
+                else {
+                    String[] newValues = Arrays.copyOf(values, values.length + 1);
+                    newValues[values.length] = value;
+                    map.put(name, newValues);
+                }
+            }
+            return map;
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            // the batch merges the results synchronously
+            return false;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return getContextPath() + servletPath;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            StringBuffer url = new StringBuffer(64);
+            url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+            return url.append(getRequestURI());
+        }
+
+        @Override
+        public String getQueryString() {
+            return queryString;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values == null ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            String[] values = parameters.get(name);
+            return values == null ? null : values.clone();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            Object value = attributes.get(name);
+            if (value != null) {
+                return value;
+            }
+            return removedAttributes.contains(name) ? null : super.getAttribute(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            Set<String> names = new HashSet<>(attributes.keySet());
+            Enumeration<String> parentNames = super.getAttributeNames();
+            while (parentNames.hasMoreElements()) {
+                String name = parentNames.nextElement();
+                if (!removedAttributes.contains(name)) {
+                    names.add(name);
+                }
+            }
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public void setAttribute(String name, Object o) {
+            if (o == null) {
+                removeAttribute(name);
+                return;
+            }
+            attributes.put(name, o);
+            removedAttributes.remove(name);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+            removedAttributes.add(name);
+        }
+
+    }
+
+}
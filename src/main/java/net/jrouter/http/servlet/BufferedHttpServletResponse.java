@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存响应内容的{@code HttpServletResponseWrapper}。
+ * <p>
+ * 状态码、头信息直接设置于被包装的响应，响应内容缓存于内存中直至{@link #commit()}；
+ * 可生成不可变的{@link Content}快照，输出至其他的响应，快照仅包含经此包装设置的头信息（不含上游过滤器设置的头信息）。
+ * 仅2xx且无{@code Set-Cookie}的响应可共享；{@code addCookie}、{@code sendError}、{@code sendRedirect}
+ * 直接作用于被包装的响应，其后不可共享。
+ */
+public class BufferedHttpServletResponse extends HttpServletResponseWrapper {
+
+    /**
+     * Buffered body.
+     */
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    /**
+     * Check if client specific or committed.
+     */
+    private boolean shareable = true;
+
+    /**
+     * Header name and value pairs written through this wrapper.
+     */
+    private final List<String> headers = new ArrayList<>(8);
+
+    /**
+     * Constructs a response wrapping the given response.
+     * @param response the response to be wrapped.
+     */
+    public BufferedHttpServletResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("Buffered response");
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws UnsupportedEncodingException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            String encoding = getCharacterEncoding();
+            writer = new PrintWriter(encoding == null ? new OutputStreamWriter(body, StandardCharsets.ISO_8859_1)
+                    : new OutputStreamWriter(body, encoding));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() {
+        // buffered until commit
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        clearBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        headers.clear();
+        clearBuffer();
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        super.setHeader(name, value);
+        removeHeader(name);
+        if (value != null) {
+            addHeaderValue(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        super.addHeader(name, value);
+        addHeaderValue(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        super.setIntHeader(name, value);
+        removeHeader(name);
+        addHeaderValue(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        super.addIntHeader(name, value);
+        addHeaderValue(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        super.setDateHeader(name, date);
+        removeHeader(name);
+        addHeaderValue(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        super.addDateHeader(name, date);
+        addHeaderValue(name, formatDate(date));
+    }
+
+    /**
+     * Track the header written through this wrapper.
+     */
+    private void addHeaderValue(String name, String value) {
+        if ("Set-Cookie".equalsIgnoreCase(name) || "Set-Cookie2".equalsIgnoreCase(name)) {
+            shareable = false;
+        }
+        headers.add(name);
+        headers.add(value);
+    }
+
+    /**
+     * Remove the tracked values of the header.
+     */
+    private void removeHeader(String name) {
+        for (int i = headers.size() - 2; i >= 0; i -= 2) {
+            if (headers.get(i).equalsIgnoreCase(name)) {
+                headers.remove(i + 1);
+                headers.remove(i);
+            }
+        }
+    }
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * Clear the buffered body only.
+     */
+    protected void clearBuffer() {
+        flushBuffer();
+        body.reset();
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        // ignore
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        shareable = false;
+        super.addCookie(cookie);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        shareable = false;
+        commit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        shareable = false;
+        commit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        shareable = false;
+        commit();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Check if the response has any content written.
+     * @return {@code true} if any content written.
+     */
+    public boolean hasContent() {
+        flushBuffer();
+        return body.size() > 0;
+    }
+
+    /**
+     * 返回缓存的响应内容。
+     * @return the buffered body decoded with the response's character encoding.
+     */
+    public String getContentAsString() {
+        flushBuffer();
+        String encoding = getCharacterEncoding();
+        return new String(body.toByteArray(),
+                encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding));
+    }
+
+    /**
+     * Check if the response can be shared with other clients: 2xx without cookies.
+     * @return {@code true} if the response can be shared.
+     */
+    public boolean isShareable() {
+        int status = getStatus();
+        // e.g. the session cookie added by the container
+        return shareable && status >= SC_OK && status < SC_MULTIPLE_CHOICES && !containsHeader("Set-Cookie");
+    }
+
+    /**
+     * 将缓存的响应内容写入被包装的响应，可多次调用。
+     * @throws IOException if an I/O error occurs.
+     */
+    public void commit() throws IOException {
+        flushBuffer();
+        if (body.size() > 0) {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            byte[] bytes = body.toByteArray();
+            body.reset();
+            if (!response.isCommitted()) {
+                response.setContentLength(bytes.length);
+            }
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    /**
+     * 生成当前响应的快照，仅包含经此包装设置的头信息，需在{@link #commit()}前调用。
+     * @return the response content.
+     */
+    public Content toContent() {
+        flushBuffer();
+        List<String> written = new ArrayList<>(headers.size());
+        for (int i = 0; i < headers.size(); i += 2) {
+            String name = headers.get(i);
+            // written by the content snapshot
+            if ("Content-Type".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                continue;
+            }
+            written.add(name);
+            written.add(headers.get(i + 1));
+        }
+        return new Content(getStatus(), getContentType(), written, body.toByteArray());
+    }
+
+    /**
+     * 不可变的响应快照。
+     */
+    public static final class Content {
+
+        private final int status;
+
+        private final String contentType;
+
+        /**
+         * Header name and value pairs.
+         */
+        private final List<String> headers;
+
+        private final byte[] body;
+
+        private Content(int status, String contentType, List<String> headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * Gets the status code.
+         * @return the status code.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the content type.
+         * @return the content type.
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Gets the body, don't modify it.
+         * @return the body.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * 输出至指定的响应。
+         * @param response HttpServletResponse.
+         * @throws IOException if an I/O error occurs.
+         */
+        public void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            for (int i = 0; i < headers.size(); i += 2) {
+                response.addHeader(headers.get(i), headers.get(i + 1));
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+    }
+
+}
@@ -3,7 +3,6 @@ package net.jrouter.http.servlet;
 import lombok.Setter;
 import net.jrouter.ActionInvocation;
 import net.jrouter.impl.ResultTypeProxy;
-import net.jrouter.util.MethodUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,13 +38,10 @@ public class ObjectHandlerActionFactory extends ServletActionFactory.DefaultServ
     }
 
     @Override
-    protected Object invokeResult(ActionInvocation invocation, Object res) {
-        ResultTypeProxy resultType = null;
+    protected ResultTypeProxy getObjectResultType(ActionInvocation invocation, Object res) {
         // 优先根据结果对象的类型获取处理类型
-        if (res != null && (resultType = objectResultTypes.get(res.getClass())) != null) {
-            return MethodUtil.invokeConvertParameters(resultType, invocation);
-        }
-        return super.invokeResult(invocation, res);
+        ResultTypeProxy resultType = res == null ? null : objectResultTypes.get(res.getClass());
+        return resultType == null ? super.getObjectResultType(invocation, res) : resultType;
     }
 
 }
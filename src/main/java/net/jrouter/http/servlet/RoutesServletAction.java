@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import java.nio.charset.StandardCharsets;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.RouteStats;
+
+/**
+ * 基于{@link ServletActionFactory}的路由表Action，路径为"/jrouter/routes"；需显式添加。
+ * <p>
+ * 输出所有Action路径及其拦截栈、结果类型，以及{@code ServletContext}中{@link #ROUTE_STATS_ATTRIBUTE}的调用统计。
+ *
+ * @see RouteStats#toJson(net.jrouter.ActionFactory, RouteStats)
+ */
+@Namespace(name = "/jrouter")
+public class RoutesServletAction {
+
+    /**
+     * {@code ServletContext}中{@link RouteStats}的属性名。
+     */
+    public static final String ROUTE_STATS_ATTRIBUTE = RouteStats.class.getName();
+
+    /**
+     * 路由表及调用统计。
+     * @param invocation Action运行时上下文。
+     * @return UTF-8 encoded JSON object.
+     */
+    @Action("routes")
+    public byte[] routes(ServletActionInvocation invocation) {
+        Object attr = invocation.getServletContext().getAttribute(ROUTE_STATS_ATTRIBUTE);
+        RouteStats stats = attr instanceof RouteStats ? (RouteStats) attr : null;
+        invocation.getResponse().setContentType("application/json;charset=UTF-8");
+        return RouteStats.toJson(invocation.getActionFactory(), stats).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
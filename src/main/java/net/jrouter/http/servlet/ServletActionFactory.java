@@ -17,6 +17,7 @@
 
 package net.jrouter.http.servlet;
 
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,13 +25,35 @@ import jakarta.servlet.http.HttpSession;
 import lombok.Getter;
 import net.jrouter.ActionFactory;
 import net.jrouter.ActionInvocation;
+import net.jrouter.ActionProxy;
 import net.jrouter.JRouterException;
 import net.jrouter.PathGenerator;
+import net.jrouter.annotation.Action;
 import net.jrouter.annotation.Dynamic;
+import net.jrouter.http.ObjectPool;
+import net.jrouter.http.RequestCancelledException;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.servlet.result.FileResult;
+import net.jrouter.http.servlet.result.NonBlockingResult;
+import net.jrouter.http.servlet.result.ServletResult;
 import net.jrouter.impl.PathActionFactory;
+import net.jrouter.impl.ResultTypeProxy;
 import net.jrouter.support.ActionInvocationDelegate;
+import net.jrouter.util.MethodUtil;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -85,9 +108,154 @@ public interface ServletActionFactory extends ActionFactory<String> {
         @Override
         public <T> T invokeAction(String path, HttpServletRequest request, HttpServletResponse response,
                 ServletContext sc) throws JRouterException {
-            // invoke and pass http parameters
-            return super.invokeAction(actionPathCaseSensitive ? path : path.toLowerCase(Locale.getDefault()), request,
-                    response, sc);
+            // pooled actions acquired in the invocation are returned at the end
+            int mark = ObjectPool.begin();
+            try {
+                // invoke and pass http parameters
+                return super.invokeAction(actionPathCaseSensitive ? path : path.toLowerCase(Locale.getDefault()),
+                        request, response, sc);
+            }
+            finally {
+                // discarded if still used by the CompletionStage or the stream result
+                ObjectPool.end(mark, mark < 0 || !isAsync(request));
+            }
+        }
+
+        /**
+         * 已取消的请求不再调用结果类型；未声明结果的Action按{@link #getObjectResultType}选择结果类型，
+         * 未注册{@link ServletResult#BYTES}时直接输出{@code byte[]}、{@code ByteBuffer}结果。
+         */
+        @Override
+        protected Object invokeResult(ActionInvocation invocation, Object res) {
+            if (isCancelled(invocation)) {
+                return null;
+            }
+            // 支持异步的请求由AbstractJRouterFilter在完成后调用结果类型，包括Action已开始异步的请求（如非阻塞读取请求体）
+            if (res instanceof CompletionStage && invocation instanceof ServletActionInvocation) {
+                HttpServletRequest request = ((ServletActionInvocation) invocation).getRequest();
+                if (request != null && request.isAsyncSupported()) {
+                    if (invocation instanceof DefaultServletActionInvocation) {
+                        // completed after the thread's context is reset
+                        ((DefaultServletActionInvocation) invocation).detachContextMap();
+                    }
+                    request.setAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE, invocation);
+                    return res;
+                }
+                return invokeAsyncResult(invocation,
+                        await((CompletionStage<?>) res, ((ServletActionInvocation) invocation).getDeadline()));
+            }
+            ResultTypeProxy resultType = getObjectResultType(invocation, res);
+            if (resultType != null) {
+                return MethodUtil.invokeConvertParameters(resultType, invocation);
+            }
+            if (invocation instanceof ServletActionInvocation && (res instanceof byte[] || res instanceof ByteBuffer)
+                    && !isResultDeclared(invocation)) {
+                try {
+                    ServletResult.bytes((ServletActionInvocation) invocation);
+                }
+                catch (IOException e) {
+                    throw new JRouterException(e);
+                }
+                return null;
+            }
+            return super.invokeResult(invocation, res);
+        }
+
+        /**
+         * 按结果对象的类型选择结果类型：{@code Path}、{@code File}结果使用{@link FileResult#FILE}，
+         * {@code InputStream}、{@code ReadableByteChannel}结果使用{@link NonBlockingResult#STREAM}，
+         * {@code byte[]}、{@code ByteBuffer}结果使用{@link ServletResult#BYTES}（均需已注册）；Action声明了结果时不选择。
+         * @param invocation Action运行时上下文。
+         * @param res Action调用的结果对象。
+         * @return 结果类型，无则返回{@code null}。
+         */
+        protected ResultTypeProxy getObjectResultType(ActionInvocation invocation, Object res) {
+            String type;
+            if (res instanceof Path || res instanceof File) {
+                type = FileResult.FILE;
+            }
+            else if (res instanceof InputStream || res instanceof ReadableByteChannel) {
+                type = NonBlockingResult.STREAM;
+            }
+            else if (res instanceof byte[] || res instanceof ByteBuffer) {
+                type = ServletResult.BYTES;
+            }
+            else {
+                return null;
+            }
+            if (!(invocation instanceof ServletActionInvocation) || isResultDeclared(invocation)) {
+                return null;
+            }
+            return getResultTypes().get(type);
+        }
+
+        /**
+         * Action是否声明了结果，声明时按其结果调用结果类型。
+         */
+        private static boolean isResultDeclared(ActionInvocation invocation) {
+            ActionProxy actionProxy = invocation.getActionProxy();
+            Method method = actionProxy == null ? null : actionProxy.getMethod();
+            Action action = method == null ? null : method.getAnnotation(Action.class);
+            return action != null && action.results().length > 0;
+        }
+
+        /**
+         * 请求是否于调用后异步完成。
+         */
+        private static boolean isAsync(HttpServletRequest request) {
+            return request != null
+                    && (request.getAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE) != null
+                            || request.getAttribute(NonBlockingResult.WRITING_ATTRIBUTE) != null);
+        }
+
+        /**
+         * 不支持异步的请求于当前线程等待{@code CompletionStage}完成，不超过请求截止时间。
+         */
+        private static Object await(CompletionStage<?> stage, RequestDeadline deadline) {
+            CompletableFuture<?> future = stage.toCompletableFuture();
+            try {
+                if (deadline != null && deadline.hasDeadline()) {
+                    return future.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+                }
+                return future.get();
+            }
+            catch (TimeoutException e) {
+                deadline.cancel();
+                throw new RequestCancelledException("Request deadline exceeded while waiting for the async result");
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JRouterException(e);
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new JRouterException(cause);
+            }
+        }
+
+        /**
+         * 以{@code CompletionStage}的完成结果调用结果类型，{@code invocation.getInvokeResult()}返回完成结果。
+         * @param invocation Action运行时上下文。
+         * @param value {@code CompletionStage}的完成结果。
+         * @return 结果类型的调用结果。
+         */
+        public Object invokeAsyncResult(ActionInvocation invocation, Object value) {
+            if (invocation instanceof DefaultServletActionInvocation) {
+                DefaultServletActionInvocation servletInvocation = (DefaultServletActionInvocation) invocation;
+                servletInvocation.asyncResult = value;
+                servletInvocation.asyncCompleted = true;
+            }
+            return invokeResult(invocation, value);
+        }
+
+        /**
+         * 检测请求是否已取消或超时。
+         * @param invocation Action运行时上下文。
+         * @return 请求是否已取消或超时。
+         */
+        protected boolean isCancelled(ActionInvocation invocation) {
+            return invocation instanceof ServletActionInvocation
+                    && RequestDeadline.isCancelled(((ServletActionInvocation) invocation).getDeadline());
         }
 
         /**
@@ -199,9 +367,19 @@ public interface ServletActionFactory extends ActionFactory<String> {
         private final ServletContext servletContext;
 
         /**
-         * Store key-value
+         * Store key-value, detached from the thread's context after deferred.
+         */
+        private volatile Map<String, Object> contextMap;
+
+        /**
+         * Completed value of the {@code CompletionStage} result.
          */
-        private final Map<String, Object> contextMap;
+        private Object asyncResult;
+
+        /**
+         * Check if {@link #asyncResult} is set.
+         */
+        private boolean asyncCompleted = false;
 
         public DefaultServletActionInvocation(ActionInvocation<String> invocation, HttpServletRequest request, // NOPMD
                                                                                                                // ExcessiveParameterList
@@ -240,6 +418,30 @@ public interface ServletActionFactory extends ActionFactory<String> {
             return contextMap;
         }
 
+        /**
+         * 复制当前的上下文Map，不再使用线程的上下文（请求结束时被重置，或被同一线程的下一个请求复用）；
+         * 异步完成的调用于延迟前调用。
+         */
+        void detachContextMap() {
+            Map<String, Object> map = contextMap;
+            contextMap = map == null ? new HashMap<>(4) : new HashMap<>(map);
+        }
+
+        @Override
+        public RequestDeadline getDeadline() {
+            return request == null ? null : (RequestDeadline) request.getAttribute(DEADLINE_ATTRIBUTE);
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            return request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync(request, response);
+        }
+
+        @Override
+        public Object getInvokeResult() {
+            return asyncCompleted ? asyncResult : super.getInvokeResult();
+        }
+
     }
 
 }
@@ -17,6 +17,7 @@
 
 package net.jrouter.http.servlet;
 
+import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,6 +25,7 @@ import jakarta.servlet.http.HttpSession;
 import java.util.Map;
 import net.jrouter.ActionInvocation;
 import net.jrouter.annotation.Dynamic;
+import net.jrouter.http.RequestDeadline;
 
 /**
  * 扩展{@code ActionInvocation<String>}，返回HTTP Servlet常用参数的接口。
@@ -31,6 +33,16 @@ import net.jrouter.annotation.Dynamic;
 @Dynamic
 public interface ServletActionInvocation extends ActionInvocation<String> {
 
+    /**
+     * {@link RequestDeadline}在{@code HttpServletRequest}中的属性名称。
+     */
+    String DEADLINE_ATTRIBUTE = RequestDeadline.class.getName();
+
+    /**
+     * 返回{@code CompletionStage}、待异步完成的{@code ServletActionInvocation}在{@code HttpServletRequest}中的属性名称。
+     */
+    String ASYNC_INVOCATION_ATTRIBUTE = ServletActionInvocation.class.getName() + ".ASYNC";
+
     /**
      * Gets the HTTP servlet request object.
      * @return the HTTP servlet request object.
@@ -61,4 +73,17 @@ public interface ServletActionInvocation extends ActionInvocation<String> {
      */
     Map<String, Object> getContextMap();
 
+    /**
+     * Gets the request deadline, cancelled if the async request timed out.
+     * @return the request deadline, or null if not enabled.
+     */
+    RequestDeadline getDeadline();
+
+    /**
+     * Gets the async context of the request, start async with the request and response if not started.
+     * @return the async context.
+     * @throws IllegalStateException if the request does not support async.
+     */
+    AsyncContext getAsyncContext();
+
 }
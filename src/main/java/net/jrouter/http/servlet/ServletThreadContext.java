@@ -18,11 +18,17 @@
 package net.jrouter.http.servlet;
 
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import net.jrouter.ActionInvocation;
 
 /**
@@ -30,17 +36,64 @@ import net.jrouter.ActionInvocation;
  * ServletThreadContext包含一个{@link ActionInvocation}，存储线程安全的Action运行时上下文。
  * ServletThreadContext包含http的相关的变量。 ServletThreadContext包含一个contextMap变量，存储自定义的key-value。
  * ServletThreadContext包含一个{@code Exception}对象，存储发生的异常。
+ * <p>
+ * 上下文的载体由{@link Mode}决定，静态访问方法不变：
+ * {@link Mode#THREAD_LOCAL}每个请求创建并移除；{@link Mode#REUSE}每个线程复用同一对象，{@link #remove()}仅重置；
+ * {@link Mode#SCOPED}由{@link #runScoped}于调用范围内绑定，运行时支持{@code java.lang.ScopedValue}时使用之，
+ * 适用于每个请求一个虚拟线程的容器。
  *
  * @see ServletActionFactory.DefaultServletActionFactory
  * @see ServletActionFactory.DefaultServletActionInvocation
  */
+@Slf4j
 public final class ServletThreadContext {
 
+    /**
+     * 上下文的载体。
+     */
+    public enum Mode {
+
+        /**
+         * {@code ThreadLocal}，每个请求创建并移除。
+         */
+        THREAD_LOCAL,
+
+        /**
+         * {@code ThreadLocal}，每个线程复用同一对象，适用于平台线程池。
+         */
+        REUSE,
+
+        /**
+         * 于{@link #runScoped}的调用范围内绑定，优先使用{@code ScopedValue}。
+         */
+        SCOPED
+
+    }
+
+    /**
+     * A task run with the bound context.
+     */
+    @FunctionalInterface
+    public interface ScopedTask {
+
+        /**
+         * Run the task.
+         * @throws IOException if an I/O error occurs.
+         * @throws ServletException if a servlet error occurs.
+         */
+        void run() throws IOException, ServletException;
+
+    }
+
+    /**
+     * Current mode.
+     */
+    private static volatile Mode mode = Mode.THREAD_LOCAL;
+
     /**
      * Thread Safe.
      */
-    private static final ThreadLocal<ServletThreadContext> THREAD_LOCAL = ThreadLocal
-        .withInitial(() -> new ServletThreadContext(new HashMap<>(8)));
+    private static final ThreadLocal<ServletThreadContext> THREAD_LOCAL = new ThreadLocal<>();
 
     /**
      * Store key-value.
@@ -81,24 +134,269 @@ public final class ServletThreadContext {
     }
 
     /**
-     * 获取当前线程副本中的ServletThreadContext。
+     * 获取当前线程副本中的ServletThreadContext；{@link Mode#SCOPED}时优先返回绑定的对象。
      * @return 前线程副本中的ServletThreadContext。
      */
     private static ServletThreadContext get() {
-        return THREAD_LOCAL.get();
+        if (mode == Mode.SCOPED) {
+            ServletThreadContext context = Scoped.current();
+            if (context != null) {
+                return context;
+            }
+        }
+        ServletThreadContext context = THREAD_LOCAL.get();
+        if (context == null) {
+            context = new ServletThreadContext(new HashMap<>(8));
+            THREAD_LOCAL.set(context);
+        }
+        return context;
     }
 
     /**
-     * 移除前线程副本中的ServletThreadContext。
+     * 移除前线程副本中的ServletThreadContext；{@link Mode#REUSE}或已绑定时仅重置。
      */
     public static void remove() {
-        Map map = null;
-        if ((map = getContextMap()) != null) {
-            map.clear();
+        if (mode == Mode.SCOPED) {
+            ServletThreadContext context = Scoped.current();
+            if (context != null) {
+                context.reset();
+                return;
+            }
+        }
+        ServletThreadContext context = THREAD_LOCAL.get();
+        if (mode == Mode.REUSE) {
+            if (context != null) {
+                context.reset();
+            }
+            return;
+        }
+        if (context != null) {
+            context.contextMap.clear();
+        }
+        THREAD_LOCAL.remove();
+    }
+
+    /**
+     * 移除当前线程中的ServletThreadContext，不论{@link Mode}；用于停止时释放{@code ThreadLocal}对类加载器的引用。
+     * <p>
+     * {@link Mode#REUSE}时其他线程中复用的对象在线程结束前不会被移除，频繁重新部署的容器宜使用{@link Mode#THREAD_LOCAL}。
+     */
+    public static void clear() {
+        ServletThreadContext context = THREAD_LOCAL.get();
+        if (context != null) {
+            context.reset();
         }
         THREAD_LOCAL.remove();
     }
 
+    /**
+     * Clear all fields.
+     */
+    private void reset() {
+        contextMap.clear();
+        actionInvocation = null;
+        request = null;
+        response = null;
+        servletContext = null;
+        exception = null;
+    }
+
+    /**
+     * 返回当前的模式。
+     * @return the current mode.
+     */
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 设置模式，对加载此类的类加载器全局生效（共享的jar中为整个JVM，而非单个filter），需在处理请求前设置。
+     * @param newMode the mode.
+     */
+    public static void setMode(Mode newMode) {
+        if (newMode == Mode.SCOPED && !Scoped.SUPPORTED) {
+            log.info("ScopedValue is not supported, bind ServletThreadContext with ThreadLocal in scope");
+        }
+        mode = newMode == null ? Mode.THREAD_LOCAL : newMode;
+    }
+
+    /**
+     * 运行时是否支持{@code java.lang.ScopedValue}。
+     * @return {@code true} if supported.
+     */
+    public static boolean isScopedValueSupported() {
+        return Scoped.SUPPORTED;
+    }
+
+    /**
+     * 创建新的ServletThreadContext并于任务的调用范围内绑定；不支持{@code ScopedValue}时使用{@code ThreadLocal}，
+     * 结束后恢复原对象，原无对象时移除。
+     * @param task the task.
+     * @throws IOException if an I/O error occurs.
+     * @throws ServletException if a servlet error occurs.
+     */
+    public static void runScoped(ScopedTask task) throws IOException, ServletException {
+        ServletThreadContext context = new ServletThreadContext(new HashMap<>(8));
+        if (Scoped.SUPPORTED) {
+            Scoped.run(context, task);
+            return;
+        }
+        // null if not bound, never create one to restore
+        ServletThreadContext previous = THREAD_LOCAL.get();
+        THREAD_LOCAL.set(context);
+        try {
+            task.run();
+        }
+        finally {
+            if (previous == null) {
+                THREAD_LOCAL.remove();
+            }
+            else {
+                THREAD_LOCAL.set(previous);
+            }
+        }
+    }
+
+    /**
+     * {@code java.lang.ScopedValue} accessed by {@code MethodHandle}, compiled without it.
+     */
+    private static final class Scoped {
+
+        /**
+         * Check if {@code ScopedValue} supported.
+         */
+        static final boolean SUPPORTED;
+
+        /**
+         * The ScopedValue instance.
+         */
+        private static final Object KEY;
+
+        /**
+         * (ScopedValue, Object) -> Carrier.
+         */
+        private static final MethodHandle WHERE;
+
+        /**
+         * (Carrier, Runnable) -> void.
+         */
+        private static final MethodHandle RUN;
+
+        /**
+         * (ScopedValue) -> boolean.
+         */
+        private static final MethodHandle IS_BOUND;
+
+        /**
+         * (ScopedValue) -> Object.
+         */
+        private static final MethodHandle GET;
+
+        static {
+            boolean supported = false;
+            Object key = null;
+            MethodHandle where = null;
+            MethodHandle run = null;
+            MethodHandle isBound = null;
+            MethodHandle get = null;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+                Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+                key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+                where = lookup
+                    .findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+                run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+                isBound = lookup.findVirtual(scopedValue, "isBound", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+                get = lookup.findVirtual(scopedValue, "get", MethodType.methodType(Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+                // preview API may be disabled
+                Object emptyCarrier = where.invokeExact(key, (Object) Boolean.TRUE);
+                run.invokeExact(emptyCarrier, (Runnable) () -> {
+                });
+                supported = true;
+            }
+            catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+                log.debug("ScopedValue is not supported : {}", e.toString());
+            }
+            SUPPORTED = supported;
+            KEY = key;
+            WHERE = where;
+            RUN = run;
+            IS_BOUND = isBound;
+            GET = get;
+        }
+
+        private Scoped() {
+        }
+
+        /**
+         * Gets the bound context, or null if not bound.
+         */
+        static ServletThreadContext current() {
+            if (!SUPPORTED) {
+                return null;
+            }
+            try {
+                if ((boolean) IS_BOUND.invokeExact(KEY)) {
+                    Object value = (Object) GET.invokeExact(KEY);
+                    return value instanceof ServletThreadContext ? (ServletThreadContext) value : null;
+                }
+                return null;
+            }
+            catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Run the task with the context bound.
+         */
+        static void run(ServletThreadContext context, ScopedTask task) throws IOException, ServletException {
+            Runnable runnable = () -> {
+                try {
+                    task.run();
+                }
+                catch (IOException | ServletException e) {
+                    throw new CheckedException(e);
+                }
+            };
+            try {
+                RUN.invokeExact(WHERE.invokeExact(KEY, (Object) context), runnable);
+            }
+            catch (CheckedException e) {
+                Exception cause = (Exception) e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw (ServletException) cause;
+            }
+            catch (RuntimeException | Error e) {
+                throw e;
+            }
+            catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+    /**
+     * Carry the checked exception through {@code Runnable}.
+     */
+    private static final class CheckedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CheckedException(Exception cause) {
+            super(cause);
+        }
+
+    }
+
     /**
      * 返回Action运行时上下文。
      * @param <T> Action运行时上下文类型。
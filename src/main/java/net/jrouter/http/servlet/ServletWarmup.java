@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import net.jrouter.ActionFactory;
+import net.jrouter.http.ActionWarmup;
+
+/**
+ * 以合成的{@code HttpServletRequest}/{@code HttpServletResponse}调用{@link ServletActionFactory}的Action预热。
+ * <p>
+ * 请求为无参数、无请求头、不支持异步的GET请求，响应内容被丢弃，4xx及5xx响应计入错误数量；未实现的方法返回{@code null}、{@code false}或0。
+ */
+public class ServletWarmup extends ActionWarmup {
+
+    /**
+     * ActionFactory.
+     */
+    private final ServletActionFactory actionFactory;
+
+    /**
+     * ServletContext.
+     */
+    private final ServletContext servletContext;
+
+    /**
+     * Constructor.
+     * @param actionFactory the ActionFactory.
+     * @param servletContext the ServletContext, may be null.
+     */
+    public ServletWarmup(ServletActionFactory actionFactory, ServletContext servletContext) {
+        this.actionFactory = Objects.requireNonNull(actionFactory, "actionFactory can't be null");
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    protected ActionFactory getActionFactory() {
+        return actionFactory;
+    }
+
+    @Override
+    protected void invoke(String path) {
+        HttpServletRequest request = newRequest(path);
+        HttpServletResponse response = newResponse();
+        try {
+            actionFactory.invokeAction(path, request, response, servletContext);
+        }
+        finally {
+            ServletThreadContext.remove();
+        }
+        if (response.getStatus() >= HttpServletResponse.SC_BAD_REQUEST) {
+            throw new IllegalStateException("Warm up action : " + path + ", status : " + response.getStatus());
+        }
+    }
+
+    /**
+     * Create a GET request of the path.
+     */
+    private HttpServletRequest newRequest(String path) {
+        Map<String, Object> attributes = new HashMap<>();
+        return proxy(HttpServletRequest.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getMethod":
+                    return "GET";
+                case "getRequestURI":
+                case "getServletPath":
+                    return path;
+                case "getRequestURL":
+                    return new StringBuffer("http://localhost").append(path);
+                case "getContextPath":
+                    return "";
+                case "getProtocol":
+                    return "HTTP/1.1";
+                case "getScheme":
+                    return "http";
+                case "getServerName":
+                case "getRemoteAddr":
+                case "getRemoteHost":
+                    return "localhost";
+                case "getCharacterEncoding":
+                    return StandardCharsets.UTF_8.name();
+                case "getLocale":
+                    return Locale.getDefault();
+                case "getServletContext":
+                    return servletContext;
+                case "getAttribute":
+                    return attributes.get((String) args[0]);
+                case "setAttribute":
+                    attributes.put((String) args[0], args[1]);
+                    return null;
+                case "removeAttribute":
+                    attributes.remove((String) args[0]);
+                    return null;
+                case "getAttributeNames":
+                    return Collections.enumeration(attributes.keySet());
+                case "getParameterMap":
+                    return Collections.emptyMap();
+                case "getParameterNames":
+                case "getHeaderNames":
+                case "getHeaders":
+                case "getLocales":
+                    return Collections.emptyEnumeration();
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * Create a response discards the content.
+     */
+    private HttpServletResponse newResponse() {
+        ServletOutputStream out = new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                // discard
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // discard
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Warm up response");
+            }
+        };
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Map<String, Object> state = new HashMap<>(4);
+        state.put("getStatus", HttpServletResponse.SC_OK);
+        state.put("getCharacterEncoding", StandardCharsets.UTF_8.name());
+        return proxy(HttpServletResponse.class, (method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "getOutputStream":
+                    return out;
+                case "getWriter":
+                    return writer;
+                case "setStatus":
+                case "sendError":
+                    state.put("getStatus", args[0]);
+                    return null;
+                case "setContentType":
+                    state.put("getContentType", args[0]);
+                    return null;
+                case "setCharacterEncoding":
+                    state.put("getCharacterEncoding", args[0]);
+                    return null;
+                case "getHeaderNames":
+                case "getHeaders":
+                    return Collections.emptyList();
+                default:
+                    return state.get(name);
+            }
+        });
+    }
+
+    /**
+     * Create a proxy, default values for the primitive return types.
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(ServletWarmup.class.getClassLoader(), new Class<?>[] { type },
+                (p, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return p == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(p);
+                            default:
+                                return type.getSimpleName() + "@warmup";
+                        }
+                    }
+                    Object value = handler.invoke(method, args);
+                    if (value == null && method.getReturnType().isPrimitive()) {
+                        return defaultValue(method.getReturnType());
+                    }
+                    return value;
+                });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return type == float.class ? 0F : 0D;
+    }
+
+    /**
+     * Proxy method handler.
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        Object invoke(Method method, Object[] args);
+
+    }
+
+}
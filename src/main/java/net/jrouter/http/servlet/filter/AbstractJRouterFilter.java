@@ -24,13 +24,48 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import net.jrouter.ActionFactory;
 import net.jrouter.NotFoundException;
+import net.jrouter.http.AbstractBatchAction;
+import net.jrouter.http.ActionBulkheads;
+import net.jrouter.http.ActionFactoryHolder;
+import net.jrouter.http.ActionWarmup;
+import net.jrouter.http.BulkheadRejectedException;
+import net.jrouter.http.DeadlinePolicy;
+import net.jrouter.http.RequestCancelledException;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.PathTemplateTrie;
+import net.jrouter.http.RequestMethods;
+import net.jrouter.http.RequestPathMatcher;
+import net.jrouter.http.RouteStats;
+import net.jrouter.http.SingleFlight;
+import net.jrouter.http.SlowRequestDetector;
+import net.jrouter.http.servlet.BufferedHttpServletResponse;
+import net.jrouter.http.servlet.RoutesServletAction;
 import net.jrouter.http.servlet.ServletActionFactory;
+import net.jrouter.http.servlet.ServletActionInvocation;
 import net.jrouter.http.servlet.ServletThreadContext;
+import net.jrouter.http.servlet.ServletWarmup;
+import net.jrouter.http.servlet.result.NonBlockingResult;
+import net.jrouter.http.servlet.result.ServletResult;
+import net.jrouter.http.servlet.spring.RequestMappingActionFilter;
 import net.jrouter.impl.InvocationProxyException;
 import net.jrouter.util.StringUtil;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 /**
  * Abstract JRouter servlet filter.
@@ -67,15 +102,70 @@ public abstract class AbstractJRouterFilter implements Filter {
     private boolean useThreadLocal = true;
 
     /**
-     * JRouter {@code ActionFactory}.
+     * 请求截止时间的策略；设置后超时的请求不再调用结果类型及后续的{@code FilterChain}。
      */
     @lombok.Getter
-    private ActionFactory actionFactory;
+    @lombok.Setter
+    private DeadlinePolicy deadlinePolicy;
+
+    /**
+     * 慢请求检测；由初始化参数slowRequestThreshold创建时于{@link #destroy()}中关闭。异步请求仅检测容器线程中的调用部分。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private SlowRequestDetector slowRequestDetector;
+
+    /**
+     * Check if {@link #slowRequestDetector} created by this filter.
+     */
+    private boolean ownSlowRequestDetector = false;
 
     /**
-     * Check if is {@code ServletActionFactory}.
+     * 按Action路径的并发限制，超出时返回{@code 503 Service Unavailable}；
+     * {@code ActionFactory}重新加载后重建{@link net.jrouter.http.ConcurrencyLimit}声明的限制。
      */
-    private boolean isServletActionFactory = false;
+    @lombok.Getter
+    @lombok.Setter
+    private volatile ActionBulkheads actionBulkheads;
+
+    /**
+     * 合并并发的相同GET请求（按Action路径及查询参数），等待者阻塞至leader的响应内容完成；默认不启用。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private SingleFlight<BufferedHttpServletResponse.Content> singleFlight;
+
+    /**
+     * 返回{@code CompletionStage}的异步请求的超时毫秒数，不大于0时使用容器的默认值；不超过请求截止时间。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private long asyncTimeout = 0;
+
+    /**
+     * 异步请求超时的状态码。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private int asyncTimeoutStatus = HttpServletResponse.SC_GATEWAY_TIMEOUT;
+
+    /**
+     * 异步请求异常的状态码。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private int asyncErrorStatus = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+
+    /**
+     * JRouter {@code ActionFactory} holder, supports hot-reloading.
+     */
+    @lombok.Getter
+    private ActionFactoryHolder<ActionFactory> actionFactoryHolder;
+
+    /**
+     * Filter configuration, used to recreate {@code ActionFactory}.
+     */
+    private FilterConfig filterConfig;
 
     /**
      * Set name of {@code ActionFactory} in ServletContext's attribute.
@@ -84,6 +174,78 @@ public abstract class AbstractJRouterFilter implements Filter {
     @lombok.Setter
     private String factoryName = null;
 
+    /**
+     * 请求路径匹配，不匹配的请求（如静态资源）直接调用{@code chain.doFilter}，不调用Action及设置线程变量。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private RequestPathMatcher requestPathMatcher;
+
+    /**
+     * 未找到Action时继续调用{@code chain.doFilter}（如容器的默认Servlet），而非返回404；默认不启用。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private boolean passThroughOnNotFound = false;
+
+    /**
+     * 解析Action方法允许的http请求方法，设置后按请求方法路由：不允许的请求方法返回405及{@code Allow}响应头，
+     * OPTIONS请求直接返回{@code Allow}响应头，HEAD请求不输出响应内容；默认不启用。
+     *
+     * @see RequestMethods
+     * @see RequestMappingActionFilter#getRequestMethods
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private Function<Method, ? extends Collection<String>> requestMethodResolver;
+
+    /**
+     * Request methods of the current ActionFactory, rebuilt after reloaded.
+     */
+    private volatile RequestMethods requestMethods;
+
+    /**
+     * Controls of the batch sub requests, rebuilt after reloaded.
+     */
+    private volatile AbstractBatchAction.Controls batchControls;
+
+    /**
+     * 按路径模板（如{@code /users/{id}/orders}）匹配Action，路径变量存于{@code ServletThreadContext}的上下文Map中
+     * （未使用线程变量时存于request属性）；默认不启用。
+     *
+     * @see PathTemplateTrie
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private boolean pathVariableRouting = false;
+
+    /**
+     * Path templates of the current ActionFactory, rebuilt after reloaded.
+     */
+    private volatile PathTemplates pathTemplates;
+
+    /**
+     * 启动后于后台线程中执行的Action预热，可为{@code null}。
+     */
+    @lombok.Getter
+    private ActionWarmup warmup;
+
+    /**
+     * 就绪检查的路径，预热完成前返回503，之后返回200；为{@code null}时不处理。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private String readinessPath;
+
+    /**
+     * 按Action路径的调用统计，初始化时存于{@code ServletContext}中；为{@code null}时不统计。
+     *
+     * @see RoutesServletAction
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private RouteStats routeStats;
+
     /**
      * Check if need to log {@code NotFoundException}.
      */
@@ -98,6 +260,27 @@ public abstract class AbstractJRouterFilter implements Filter {
         String varFactoryName = filterConfig.getInitParameter("factoryName");
         String varUseThreadLocal = filterConfig.getInitParameter("useThreadLocal");
         String varLogNotFoundException = filterConfig.getInitParameter("logNotFoundException");
+        String varDeadlineHeader = filterConfig.getInitParameter("deadlineHeader");
+        String varDefaultTimeout = filterConfig.getInitParameter("defaultTimeout");
+        String varSlowRequestThreshold = filterConfig.getInitParameter("slowRequestThreshold");
+        String varConcurrencyLimits = filterConfig.getInitParameter("concurrencyLimits");
+        String varGlobalConcurrencyLimit = filterConfig.getInitParameter("globalConcurrencyLimit");
+        String varConcurrencyLimitExempt = filterConfig.getInitParameter("concurrencyLimitExempt");
+        String varSingleFlight = filterConfig.getInitParameter("singleFlight");
+        String varAsyncTimeout = filterConfig.getInitParameter("asyncTimeout");
+        String varAsyncTimeoutStatus = filterConfig.getInitParameter("asyncTimeoutStatus");
+        String varAsyncErrorStatus = filterConfig.getInitParameter("asyncErrorStatus");
+        String varThreadContextMode = filterConfig.getInitParameter("threadContextMode");
+        String varIncludePaths = filterConfig.getInitParameter("includePaths");
+        String varExcludePaths = filterConfig.getInitParameter("excludePaths");
+        String varExcludeExtensions = filterConfig.getInitParameter("excludeExtensions");
+        String varPassThroughOnNotFound = filterConfig.getInitParameter("passThroughOnNotFound");
+        String varRequestMethodRouting = filterConfig.getInitParameter("requestMethodRouting");
+        String varPathVariableRouting = filterConfig.getInitParameter("pathVariableRouting");
+        String varWarmupIterations = filterConfig.getInitParameter("warmupIterations");
+        String varWarmupPaths = filterConfig.getInitParameter("warmupPaths");
+        String varReadinessPath = filterConfig.getInitParameter("readinessPath");
+        String varRouteStats = filterConfig.getInitParameter("routeStats");
         if (varEncoding != null) {
             encoding = varEncoding;
             log.info("Set character encoding : {}", encoding);
@@ -106,6 +289,33 @@ public abstract class AbstractJRouterFilter implements Filter {
         if (varUseThreadLocal != null) {
             useThreadLocal = Boolean.parseBoolean(varUseThreadLocal);
         }
+        if (requestPathMatcher == null && (StringUtil.isNotBlank(varIncludePaths)
+                || StringUtil.isNotBlank(varExcludePaths) || StringUtil.isNotBlank(varExcludeExtensions))) {
+            requestPathMatcher = new RequestPathMatcher().includePaths(varIncludePaths)
+                .excludePaths(varExcludePaths)
+                .excludeExtensions(varExcludeExtensions);
+            log.info("Set request path matcher, include paths : {}, exclude paths : {}, exclude extensions : {}",
+                    varIncludePaths, varExcludePaths, varExcludeExtensions);
+        }
+        if (varPassThroughOnNotFound != null) {
+            passThroughOnNotFound = Boolean.parseBoolean(varPassThroughOnNotFound);
+        }
+        if (requestMethodResolver == null && Boolean.parseBoolean(varRequestMethodRouting)) {
+            requestMethodResolver = RequestMappingActionFilter::getRequestMethods;
+            log.info("Set request method routing by @RequestMapping");
+        }
+        if (varPathVariableRouting != null) {
+            pathVariableRouting = Boolean.parseBoolean(varPathVariableRouting);
+        }
+        if (StringUtil.isNotBlank(varReadinessPath)) {
+            readinessPath = varReadinessPath.trim();
+        }
+        if (StringUtil.isNotBlank(varThreadContextMode)) {
+            // static, shared by all filters of the same class loader
+            ServletThreadContext.setMode(
+                    ServletThreadContext.Mode.valueOf(varThreadContextMode.trim().toUpperCase(Locale.ROOT)));
+            log.info("Set ServletThreadContext mode : {}", ServletThreadContext.getMode());
+        }
         if (varTrimRequestParameter != null) {
             trimRequestParameter = Boolean.parseBoolean(varTrimRequestParameter);
         }
@@ -116,30 +326,161 @@ public abstract class AbstractJRouterFilter implements Filter {
         if (StringUtil.isNotBlank(varFactoryName)) {
             factoryName = varFactoryName;
         }
+        if (StringUtil.isNotBlank(varDeadlineHeader) || StringUtil.isNotBlank(varDefaultTimeout)) {
+            if (deadlinePolicy == null) {
+                deadlinePolicy = new DeadlinePolicy();
+            }
+            if (StringUtil.isNotBlank(varDeadlineHeader)) {
+                deadlinePolicy.setHeaderName(varDeadlineHeader.trim());
+            }
+            if (StringUtil.isNotBlank(varDefaultTimeout)) {
+                deadlinePolicy.setDefaultTimeout(Long.parseLong(varDefaultTimeout.trim()));
+            }
+            log.info("Set request deadline header : {}, default timeout : {} ms", deadlinePolicy.getHeaderName(),
+                    deadlinePolicy.getDefaultTimeout());
+        }
+        if (slowRequestDetector == null && StringUtil.isNotBlank(varSlowRequestThreshold)) {
+            long threshold = Long.parseLong(varSlowRequestThreshold.trim());
+            slowRequestDetector = new SlowRequestDetector(threshold, Math.max(10, Math.min(threshold / 2, 100)));
+            ownSlowRequestDetector = true;
+            log.info("Set slow request threshold : {} ms", threshold);
+        }
+        if (StringUtil.isNotBlank(varAsyncTimeout)) {
+            asyncTimeout = Long.parseLong(varAsyncTimeout.trim());
+            log.info("Set async request timeout : {} ms", asyncTimeout);
+        }
+        if (StringUtil.isNotBlank(varAsyncTimeoutStatus)) {
+            asyncTimeoutStatus = Integer.parseInt(varAsyncTimeoutStatus.trim());
+        }
+        if (StringUtil.isNotBlank(varAsyncErrorStatus)) {
+            asyncErrorStatus = Integer.parseInt(varAsyncErrorStatus.trim());
+        }
+        if (singleFlight == null && Boolean.parseBoolean(varSingleFlight)) {
+            singleFlight = new SingleFlight<>();
+            log.info("Enable single-flight for GET requests");
+        }
         servletContext = filterConfig.getServletContext();
+        this.filterConfig = filterConfig;
+        if (routeStats == null && Boolean.parseBoolean(varRouteStats)) {
+            routeStats = new RouteStats();
+            log.info("Enable route statistics");
+        }
+        if (routeStats != null) {
+            servletContext.setAttribute(RoutesServletAction.ROUTE_STATS_ATTRIBUTE, routeStats);
+        }
+        // create ActionFactory
+        actionFactoryHolder = new ActionFactoryHolder<>(buildActionFactory());
+        if (StringUtil.isNotBlank(factoryName)) {
+            servletContext.setAttribute(factoryName, actionFactoryHolder.get());
+            log.info("Set ActionFactory's name in ServletContext : {}", factoryName);
+        }
+        // "concurrencyLimits" may be empty to use @ConcurrencyLimit only
+        if (actionBulkheads == null && (varConcurrencyLimits != null || varGlobalConcurrencyLimit != null)) {
+            ActionBulkheads bulkheads = new ActionBulkheads();
+            if (StringUtil.isNotBlank(varGlobalConcurrencyLimit)) {
+                bulkheads.setGlobalLimit(Integer.parseInt(varGlobalConcurrencyLimit.trim()), 0);
+            }
+            if (StringUtil.isNotBlank(varConcurrencyLimitExempt)) {
+                for (String path : varConcurrencyLimitExempt.split(",")) {
+                    bulkheads.exempt(path.trim());
+                }
+            }
+            actionBulkheads = bulkheads.parse(varConcurrencyLimits).addAnnotatedActions(actionFactoryHolder.get());
+        }
+        if (StringUtil.isNotBlank(varWarmupIterations) && actionFactoryHolder.get() instanceof ServletActionFactory) {
+            ServletWarmup servletWarmup = new ServletWarmup((ServletActionFactory) actionFactoryHolder.get(),
+                    servletContext);
+            servletWarmup.setIterations(Integer.parseInt(varWarmupIterations.trim()));
+            if (StringUtil.isNotBlank(varWarmupPaths)) {
+                List<String> paths = new ArrayList<>();
+                for (String path : varWarmupPaths.split(",")) {
+                    if (StringUtil.isNotBlank(path)) {
+                        paths.add(path.trim());
+                    }
+                }
+                servletWarmup.setActionPaths(paths);
+            }
+            warmup = servletWarmup;
+            log.info("Warm up actions in background, iterations : {}, paths : {}", servletWarmup.getIterations(),
+                    varWarmupPaths == null ? "@Warmup" : varWarmupPaths);
+            servletWarmup.runAsync(r -> {
+                Thread thread = new Thread(r, "jrouter-warmup");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        }
+    }
+
+    /**
+     * Create {@code ActionFactory} with {@code ServletContext} bound to current thread.
+     */
+    private ActionFactory buildActionFactory() {
         try {
             if (useThreadLocal) {
                 // 初始化ServletContext, 提供其他模块初始化调用
                 ServletThreadContext.setServletContext(servletContext);
             }
-            // create ActionFactory
-            actionFactory = createActionFactory(filterConfig);
-            isServletActionFactory = (actionFactory instanceof ServletActionFactory);
+            return createActionFactory(filterConfig);
         }
         finally {
             if (useThreadLocal) {
                 ServletThreadContext.remove();
             }
         }
-        if (StringUtil.isNotBlank(factoryName)) {
-            servletContext.setAttribute(factoryName, actionFactory);
-            log.info("Set ActionFactory's name in ServletContext : {}", factoryName);
-        }
+    }
+
+    /**
+     * 重新创建{@code ActionFactory}并原子替换；正在执行的请求继续使用原对象，原对象在请求结束后调用{@code clear()}。
+     * @param executor the executor to create the new {@code ActionFactory}.
+     * @return the future of the new {@code ActionFactory}.
+     */
+    public CompletableFuture<ActionFactory> reloadActionFactory(Executor executor) {
+        return actionFactoryHolder.reloadAsync(this::buildActionFactory, executor).thenApply(actionFactory -> {
+            if (StringUtil.isNotBlank(factoryName)) {
+                servletContext.setAttribute(factoryName, actionFactory);
+            }
+            return actionFactory;
+        });
+    }
+
+    /**
+     * Gets the current {@code ActionFactory}.
+     * @return the current {@code ActionFactory}.
+     */
+    public ActionFactory getActionFactory() {
+        return actionFactoryHolder == null ? null : actionFactoryHolder.get();
     }
 
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
             throws IOException, ServletException {
+        if (readinessPath != null && readinessPath.equals(getActionPath((HttpServletRequest) req))) {
+            boolean ready = warmup == null || warmup.isReady();
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setContentType("text/plain");
+            response.getWriter().write(ready ? "READY" : "WARMING_UP");
+            return;
+        }
+        if (requestPathMatcher != null && !requestPathMatcher.matches(getActionPath((HttpServletRequest) req))) {
+            // not an action, e.g. static resources
+            chain.doFilter(req, res);
+            return;
+        }
+        if (useThreadLocal && ServletThreadContext.getMode() == ServletThreadContext.Mode.SCOPED) {
+            // bind for the dynamic extent of the request
+            ServletThreadContext.runScoped(() -> doFilterInternal(req, res, chain));
+        }
+        else {
+            doFilterInternal(req, res, chain);
+        }
+    }
+
+    /**
+     * Invoke action and continue the filter chain if the response is not committed.
+     */
+    private void doFilterInternal(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
         HttpServletRequest request = (HttpServletRequest) req;
         HttpServletResponse response = (HttpServletResponse) res;
         if (encoding != null) {
@@ -156,33 +497,465 @@ public abstract class AbstractJRouterFilter implements Filter {
         if (useThreadLocal) {
             createServletThreadContext(request, response);
         }
+        // keep the same ActionFactory during the request even if reloaded
+        ActionFactoryHolder.Generation<ActionFactory> generation = actionFactoryHolder.acquire();
+        ActionFactory actionFactory = generation.getActionFactory();
+        SlowRequestDetector.InFlight inFlight = null;
+        ActionBulkheads.Bulkhead bulkhead = null;
+        SingleFlight.Call<BufferedHttpServletResponse.Content> call = null;
+        boolean notFound = false;
+        String statsPath = null;
+        long statsStart = 0;
         try {
-            // action url and invoke
-            if (isServletActionFactory) {
-                ((ServletActionFactory) actionFactory).invokeAction(getActionPath(request), request, response,
-                        servletContext);
+            // the request path, actionPath may be replaced by the matched template
+            String requestPath = getActionPath(request);
+            String actionPath = requestPath;
+            if (pathVariableRouting) {
+                String path = isActionPathCaseSensitive(actionFactory) ? actionPath
+                        : actionPath.toLowerCase(Locale.getDefault());
+                // keep the case of the path variables
+                PathTemplateTrie.Match<String> match = getPathTemplates(actionFactory).trie.match(path, actionPath);
+                if (match != null && !match.getVariables().isEmpty()) {
+                    actionPath = match.getValue();
+                    if (useThreadLocal) {
+                        ServletThreadContext.<Object>getContextMap().putAll(match.getVariables());
+                    }
+                    else {
+                        for (Map.Entry<String, String> e : match.getVariables().entrySet()) {
+                            request.setAttribute(e.getKey(), e.getValue());
+                        }
+                    }
+                }
             }
-            else {
-                actionFactory.invokeAction(getActionPath(request));
+            if (requestMethodResolver != null) {
+                String path = isActionPathCaseSensitive(actionFactory) ? actionPath
+                        : actionPath.toLowerCase(Locale.getDefault());
+                RequestMethods.Allowed allowed = getRequestMethods(actionFactory).get(path);
+                String method = request.getMethod();
+                if (allowed != null && !allowed.allows(method)) {
+                    response.setHeader("Allow", allowed.getAllowHeader());
+                    if ("OPTIONS".equals(method)) {
+                        response.setStatus(HttpServletResponse.SC_OK);
+                    }
+                    else {
+                        response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+                    }
+                    return;
+                }
             }
-            if (!response.isCommitted()) {
+            RequestDeadline deadline = null;
+            if (deadlinePolicy != null) {
+                String headerName = deadlinePolicy.getHeaderName();
+                deadline = deadlinePolicy.newDeadline(actionPath,
+                        headerName == null ? null : request.getHeader(headerName));
+                request.setAttribute(ServletActionInvocation.DEADLINE_ATTRIBUTE, deadline);
+            }
+            HttpServletResponse invokeResponse = response;
+            BufferedHttpServletResponse buffered = null;
+            NoBodyHttpServletResponse head = null;
+            if (requestMethodResolver != null && "HEAD".equals(request.getMethod())) {
+                head = new NoBodyHttpServletResponse(response);
+                invokeResponse = head;
+                if (useThreadLocal) {
+                    ServletThreadContext.setResponse(head);
+                }
+            }
+            if (singleFlight != null && "GET".equals(request.getMethod())) {
+                String queryString = request.getQueryString();
+                CompletableFuture<BufferedHttpServletResponse.Content> shared = new CompletableFuture<>();
+                // the request path, the template is shared by different path variables
+                call = singleFlight.join(queryString == null ? requestPath : requestPath + '?' + queryString,
+                        shared::complete);
+                if (call == null) {
+                    BufferedHttpServletResponse.Content content = awaitShared(shared, deadline);
+                    if (content != null) {
+                        content.writeTo(response);
+                        return;
+                    }
+                    // not shared, invoke by itself
+                }
+                else {
+                    buffered = new BufferedHttpServletResponse(response);
+                    invokeResponse = buffered;
+                    if (useThreadLocal) {
+                        ServletThreadContext.setResponse(buffered);
+                    }
+                }
+            }
+            if (actionBulkheads != null) {
+                ActionBulkheads.Bulkhead acquiring = getActionBulkheads(actionFactory).get(actionPath);
+                acquiring.acquire(true);
+                bulkhead = acquiring;
+            }
+            if (slowRequestDetector != null) {
+                inFlight = slowRequestDetector.begin(actionPath);
+            }
+            if (requestMethodResolver != null || actionBulkheads != null || deadlinePolicy != null
+                    || slowRequestDetector != null) {
+                // applied to the batch sub requests
+                request.setAttribute(AbstractBatchAction.CONTROLS_ATTRIBUTE, getBatchControls(actionFactory));
+            }
+            if (!RequestDeadline.isCancelled(deadline)) {
+                if (routeStats != null) {
+                    statsPath = actionPath;
+                    statsStart = System.nanoTime();
+                }
+                // action url and invoke
+                if (actionFactory instanceof ServletActionFactory) {
+                    ((ServletActionFactory) actionFactory).invokeAction(actionPath, request, invokeResponse,
+                            servletContext);
+                }
+                else {
+                    actionFactory.invokeAction(actionPath);
+                }
+            }
+            ServletActionInvocation asyncInvocation = (ServletActionInvocation) request
+                .getAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE);
+            // the stream result writes the response in non-blocking mode
+            boolean writing = asyncInvocation == null && request.isAsyncStarted()
+                    && request.getAttribute(NonBlockingResult.WRITING_ATTRIBUTE) != null;
+            if (asyncInvocation != null || writing) {
+                request.removeAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE);
+                // released on completion
+                ActionFactoryHolder.Generation<ActionFactory> asyncGeneration = generation;
+                ActionBulkheads.Bulkhead asyncBulkhead = bulkhead;
+                String asyncStatsPath = statsPath;
+                long asyncStatsStart = statsStart;
+                generation = null;
+                bulkhead = null;
+                statsPath = null;
+                if (inFlight != null) {
+                    // bound to the container thread, which is returned to the pool once going async
+                    slowRequestDetector.end(inFlight);
+                    inFlight = null;
+                }
+                Runnable release = () -> {
+                    if (asyncStatsPath != null) {
+                        routeStats.record(asyncStatsPath, System.nanoTime() - asyncStatsStart,
+                                response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    }
+                    if (asyncBulkhead != null) {
+                        asyncBulkhead.release();
+                    }
+                    asyncGeneration.close();
+                };
+                if (writing) {
+                    awaitWriting(request, deadline, release);
+                }
+                else {
+                    startAsync(request, invokeResponse, head, buffered, asyncInvocation, deadline, release);
+                }
+                return;
+            }
+            if (statsPath != null) {
+                // exclude the rest of the filter chain
+                routeStats.record(statsPath, System.nanoTime() - statsStart,
+                        invokeResponse.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                statsPath = null;
+            }
+            if (head != null) {
+                head.finish();
+            }
+            if (buffered != null) {
+                boolean cancelled = RequestDeadline.isCancelled(deadline);
+                call.complete(!cancelled && buffered.isShareable() && buffered.hasContent()
+                        ? buffered.toContent() : null);
+                if (!cancelled) {
+                    buffered.commit();
+                }
+            }
+            if (RequestDeadline.isCancelled(deadline)) {
+                // skip the abandoned response
+                if (!response.isCommitted()) {
+                    response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                }
+            }
+            else if (!response.isCommitted() && !request.isAsyncStarted()) {
                 chain.doFilter(request, response);
             }
         }
+        catch (RequestCancelledException e) {
+            log.debug("Request cancelled - {}, {}", request.getRequestURI(), e.getMessage());
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            }
+        }
+        catch (BulkheadRejectedException e) {
+            log.debug("Service Unavailable - {}, {}", request.getRequestURI(), e.getMessage());
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        }
         catch (NotFoundException e) {
-            if (logNotFoundException) {
-                log.error("Not Found - {}", request.getRequestURI(), e);
+            // never record unknown paths
+            statsPath = null;
+            if (passThroughOnNotFound && !response.isCommitted()) {
+                notFound = true;
+            }
+            else {
+                if (logNotFoundException) {
+                    log.error("Not Found - {}", request.getRequestURI(), e);
+                }
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
             }
-            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
         }
         catch (InvocationProxyException e) {
-            throw new ServletException(e.getSource()); // NOPMD PreserveStackTrace
+            if (!(e.getSource() instanceof RequestCancelledException)) {
+                throw new ServletException(e.getSource()); // NOPMD PreserveStackTrace
+            }
+            // thrown by RequestDeadline#checkCancelled() in the action
+            log.debug("Request cancelled - {}, {}", request.getRequestURI(), e.getSource().getMessage());
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            }
         }
         finally {
+            if (call != null) {
+                // not shared, waiters invoke by themselves
+                call.complete(null);
+            }
+            if (statsPath != null) {
+                // thrown by the action
+                routeStats.record(statsPath, System.nanoTime() - statsStart, true);
+            }
+            if (inFlight != null) {
+                slowRequestDetector.end(inFlight);
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (generation != null) {
+                generation.close();
+            }
             if (useThreadLocal) {
                 ServletThreadContext.remove();
             }
         }
+        if (notFound) {
+            // e.g. the container's default servlet
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Start async and apply the result type when the {@code CompletionStage} completes.
+     */
+    private void startAsync(HttpServletRequest request, HttpServletResponse response, NoBodyHttpServletResponse head,
+            BufferedHttpServletResponse buffered, ServletActionInvocation invocation, RequestDeadline deadline,
+            Runnable release) {
+        CompletionStage<?> stage = (CompletionStage<?>) invocation.getInvokeResult();
+        // may be started by the action, e.g. reading the body in non-blocking mode
+        AsyncContext asyncContext = request.isAsyncStarted() ? request.getAsyncContext()
+                : request.startAsync(request, response);
+        setAsyncTimeout(asyncContext, deadline);
+        // complete only once, by the stage or the container
+        AtomicBoolean done = new AtomicBoolean(false);
+        // release only once, the writer of the stream result may complete after the stage
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable releaseOnce = () -> {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        };
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                done.set(true);
+                releaseOnce.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    if (deadline != null) {
+                        deadline.cancel();
+                    }
+                    log.warn("Async request timed out - {}", request.getRequestURI());
+                    completeAsync(asyncContext, response, asyncTimeoutStatus, releaseOnce);
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    log.error("Async request error - {}", request.getRequestURI(), event.getThrowable());
+                    completeAsync(asyncContext, response, asyncErrorStatus, releaseOnce);
+                }
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // nothing
+            }
+        });
+        stage.whenComplete((value, error) -> {
+            if (!done.compareAndSet(false, true)) {
+                // timed out
+                return;
+            }
+            int status = 0;
+            if (useThreadLocal) {
+                createServletThreadContext(request, response);
+                ServletThreadContext.setServletContext(servletContext);
+                ServletThreadContext.setActionInvocation(invocation);
+            }
+            try {
+                if (error != null) {
+                    status = asyncErrorStatus(request, error);
+                }
+                else if (RequestDeadline.isCancelled(deadline)) {
+                    status = asyncTimeoutStatus;
+                }
+                else {
+                    ((ServletActionFactory.DefaultServletActionFactory) invocation.getActionFactory())
+                        .invokeAsyncResult(invocation, value);
+                    if (head != null) {
+                        head.finish();
+                    }
+                    if (buffered != null) {
+                        buffered.commit();
+                    }
+                }
+            }
+            catch (Exception e) {
+                status = asyncErrorStatus(request, e);
+            }
+            finally {
+                if (useThreadLocal) {
+                    ServletThreadContext.remove();
+                }
+            }
+            try {
+                if (status == 0 && (request.getAttribute(NonBlockingResult.WRITING_ATTRIBUTE) != null
+                        || request.getAttribute(ServletResult.DISPATCHED_ATTRIBUTE) != null)) {
+                    // completed by the writer or the dispatched request, released on completion
+                    return;
+                }
+                completeAsync(asyncContext, response, status, releaseOnce);
+            }
+            catch (IOException e) {
+                log.error("Can't complete async request - {}", request.getRequestURI(), e);
+            }
+        });
+    }
+
+    /**
+     * Release after the stream result started by the action is written, completed by the writer.
+     */
+    private void awaitWriting(HttpServletRequest request, RequestDeadline deadline, Runnable release) {
+        AsyncContext asyncContext = request.getAsyncContext();
+        setAsyncTimeout(asyncContext, deadline);
+        AtomicBoolean released = new AtomicBoolean(false);
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                if (released.compareAndSet(false, true)) {
+                    release.run();
+                }
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (deadline != null) {
+                    deadline.cancel();
+                }
+                log.warn("Async request timed out - {}", request.getRequestURI());
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                log.error("Async request error - {}", request.getRequestURI(), event.getThrowable());
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // nothing
+            }
+        });
+    }
+
+    /**
+     * Set the async timeout, not exceed the request deadline.
+     */
+    private void setAsyncTimeout(AsyncContext asyncContext, RequestDeadline deadline) {
+        long timeout = asyncTimeout;
+        if (deadline != null && deadline.hasDeadline()) {
+            long remaining = Math.max(1, deadline.remainingMillis());
+            timeout = timeout > 0 ? Math.min(timeout, remaining) : remaining;
+        }
+        if (timeout > 0) {
+            asyncContext.setTimeout(timeout);
+        }
+    }
+
+    /**
+     * Get the error status of the async request.
+     */
+    private int asyncErrorStatus(HttpServletRequest request, Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof InvocationProxyException && ((InvocationProxyException) e).getSource() != null) {
+            e = ((InvocationProxyException) e).getSource();
+        }
+        if (e instanceof NotFoundException) {
+            if (logNotFoundException) {
+                log.error("Not Found - {}", request.getRequestURI(), e);
+            }
+            return HttpServletResponse.SC_NOT_FOUND;
+        }
+        if (e instanceof RequestCancelledException) {
+            log.debug("Request cancelled - {}, {}", request.getRequestURI(), e.getMessage());
+            return asyncTimeoutStatus;
+        }
+        log.error("Async request error - {}", request.getRequestURI(), e);
+        return asyncErrorStatus;
+    }
+
+    /**
+     * Send the error status if not 0, then complete the async context and release.
+     */
+    private static void completeAsync(AsyncContext asyncContext, HttpServletResponse response, int status,
+            Runnable release) throws IOException {
+        try {
+            if (status != 0 && !response.isCommitted()) {
+                response.sendError(status);
+            }
+        }
+        finally {
+            try {
+                asyncContext.complete();
+            }
+            finally {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * Wait for the leader's response content until the request deadline.
+     */
+    private static BufferedHttpServletResponse.Content awaitShared(
+            CompletableFuture<BufferedHttpServletResponse.Content> shared, RequestDeadline deadline)
+            throws ServletException {
+        try {
+            if (deadline != null && deadline.hasDeadline()) {
+                return shared.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            }
+            return shared.get();
+        }
+        catch (TimeoutException e) {
+            deadline.cancel();
+            throw new RequestCancelledException("Request deadline exceeded while waiting for the shared response");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+        catch (ExecutionException e) {
+            // never completed exceptionally
+            return null;
+        }
     }
 
     /**
@@ -194,10 +967,78 @@ public abstract class AbstractJRouterFilter implements Filter {
 
     @Override
     public void destroy() {
-        if (actionFactory != null) {
-            actionFactory.clear();
+        if (actionFactoryHolder != null) {
+            actionFactoryHolder.clear();
+        }
+        if (ownSlowRequestDetector) {
+            slowRequestDetector.close();
+        }
+        // remove the ThreadLocal entry even in REUSE mode
+        ServletThreadContext.clear();
+    }
+
+    /**
+     * Get or build the request methods of the ActionFactory.
+     */
+    private RequestMethods getRequestMethods(ActionFactory actionFactory) {
+        RequestMethods methods = requestMethods;
+        if (methods == null || methods.getActionFactory() != actionFactory) {
+            methods = RequestMethods.of(actionFactory, requestMethodResolver);
+            requestMethods = methods;
+        }
+        return methods;
+    }
+
+    /**
+     * Get or build the controls of the batch sub requests.
+     */
+    private AbstractBatchAction.Controls getBatchControls(ActionFactory actionFactory) {
+        RequestMethods methods = requestMethodResolver == null ? null : getRequestMethods(actionFactory);
+        ActionBulkheads bulkheads = actionBulkheads == null ? null : getActionBulkheads(actionFactory);
+        AbstractBatchAction.Controls controls = batchControls;
+        if (controls == null || controls.getRequestMethods() != methods || controls.getActionBulkheads() != bulkheads) {
+            controls = new AbstractBatchAction.Controls(methods, isActionPathCaseSensitive(actionFactory), bulkheads,
+                    deadlinePolicy, slowRequestDetector);
+            batchControls = controls;
+        }
+        return controls;
+    }
+
+    /**
+     * Get or rebuild the annotated bulkheads of the ActionFactory.
+     */
+    private ActionBulkheads getActionBulkheads(ActionFactory actionFactory) {
+        ActionBulkheads bulkheads = actionBulkheads;
+        if (bulkheads.getActionFactory() != null && bulkheads.getActionFactory() != actionFactory) {
+            synchronized (this) {
+                bulkheads = actionBulkheads;
+                if (bulkheads.getActionFactory() != actionFactory) {
+                    bulkheads = bulkheads.reload(actionFactory);
+                    actionBulkheads = bulkheads;
+                }
+            }
+        }
+        return bulkheads;
+    }
+
+    /**
+     * Get or build the path templates of the ActionFactory.
+     */
+    private PathTemplates getPathTemplates(ActionFactory actionFactory) {
+        PathTemplates templates = pathTemplates;
+        if (templates == null || templates.actionFactory != actionFactory) {
+            templates = new PathTemplates(actionFactory);
+            pathTemplates = templates;
         }
-        ServletThreadContext.remove();
+        return templates;
+    }
+
+    /**
+     * Check if the action path of the ActionFactory is case sensitive.
+     */
+    private static boolean isActionPathCaseSensitive(ActionFactory actionFactory) {
+        return !(actionFactory instanceof ServletActionFactory.DefaultServletActionFactory)
+                || ((ServletActionFactory.DefaultServletActionFactory) actionFactory).isActionPathCaseSensitive();
     }
 
     /**
@@ -219,6 +1060,33 @@ public abstract class AbstractJRouterFilter implements Filter {
         ServletThreadContext.setResponse(response);
     }
 
+    /**
+     * Path templates of an ActionFactory.
+     */
+    private static final class PathTemplates {
+
+        private final ActionFactory actionFactory;
+
+        private final PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+
+        private PathTemplates(ActionFactory actionFactory) {
+            this.actionFactory = actionFactory;
+            Map<?, ?> actions = actionFactory.getActions();
+            // static paths take precedence over templates
+            for (Object path : actions.keySet()) {
+                if (path instanceof String) {
+                    try {
+                        trie.put((String) path, (String) path);
+                    }
+                    catch (IllegalArgumentException e) {
+                        log.warn("Ignore unsupported path template : {}", path);
+                    }
+                }
+            }
+        }
+
+    }
+
     /**
      * TrimParameterRequestWrapper
      */
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.filter;
+
+import jakarta.servlet.ServletContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * 在springframework容器刷新时重新加载{@code ActionFactory}。
+ */
+@Slf4j
+final class ContextRefreshReloadSupport {
+
+    private ContextRefreshReloadSupport() {
+    }
+
+    /**
+     * Register a listener to reload {@code ActionFactory} when the spring context
+     * refreshed, except the refresh within which the filter has been initialized.
+     * @param servletContext ServletContext.
+     * @param filter the filter to reload.
+     */
+    static void register(ServletContext servletContext, AbstractJRouterFilter filter) {
+        ApplicationContext applicationContext = WebApplicationContextUtils
+            .getRequiredWebApplicationContext(servletContext);
+        if (applicationContext instanceof ConfigurableApplicationContext) {
+            // the filter's ActionFactory is built within the current refresh, e.g. the embedded container
+            // initializes the filter before the initial ContextRefreshedEvent published
+            long builtStartupDate = applicationContext.getStartupDate();
+            ((ConfigurableApplicationContext) applicationContext).addApplicationListener(event -> {
+                // ignore the refresh events of child contexts and the refresh already built
+                if (event instanceof ContextRefreshedEvent
+                        && ((ContextRefreshedEvent) event).getApplicationContext() == applicationContext
+                        && applicationContext.getStartupDate() != builtStartupDate) {
+                    log.info("Spring context refreshed, reload ActionFactory : {}", filter);
+                    filter.reloadActionFactory(Runnable::run);
+                }
+            });
+        }
+        else {
+            log.warn("Can't listen refresh events of spring context : {}", applicationContext);
+        }
+    }
+
+}
@@ -18,13 +18,27 @@
 package net.jrouter.http.servlet.filter;
 
 import jakarta.servlet.FilterConfig;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import net.jrouter.ActionFactory;
 import net.jrouter.config.Configuration;
+import net.jrouter.http.ActionIndex;
+import net.jrouter.impl.PathActionFactory;
+import net.jrouter.util.StringUtil;
 
 /**
  * JRouter servlet filter.
- * 通过configLocation配置{@code Configuration}进而加载{@code ActionFactory}对象。
+ * 通过configLocation配置{@code Configuration}进而加载{@code ActionFactory}对象；
+ * 存在编译期生成的Action索引时同时加载索引中的Action类，配置中可省略对应的包扫描。
  *
  * @see net.jrouter.config.Configuration
  */
@@ -39,13 +53,115 @@ public class JRouterFilter extends AbstractJRouterFilter {
      */
     private String configLocation = "net.jrouter.xml";
 
+    /**
+     * 检查配置文件修改并重新加载{@code ActionFactory}的间隔秒数；小于等于0时不检查（默认）。
+     */
+    private long reloadCheckInterval = 0;
+
+    /**
+     * 编译期生成的Action索引位置，存在时加载索引中的Action类；默认为空，不加载。
+     * 使用{@code ActionIndexProcessor}时设置为{@link ActionIndex#LOCATION}，类路径中（包括依赖包）所有同名的索引均会加载。
+     * 类的并行加载及注册耗时日志仅对索引中的类生效，配置中扫描（component-scan）的类仍由jrouter串行注册。
+     *
+     * @see ActionIndex
+     */
+    private String actionIndexLocation = null;
+
+    /**
+     * Configuration file's last modified time.
+     */
+    @lombok.Getter(lombok.AccessLevel.NONE)
+    @lombok.Setter(lombok.AccessLevel.NONE)
+    private long configLastModified;
+
+    /**
+     * Scheduler to check configuration file modified.
+     */
+    @lombok.Getter(lombok.AccessLevel.NONE)
+    @lombok.Setter(lombok.AccessLevel.NONE)
+    private ScheduledExecutorService reloadScheduler;
+
     @Override
     public void init(FilterConfig filterConfig) {
         String conf = filterConfig.getInitParameter("configLocation");
+        String varReloadCheckInterval = filterConfig.getInitParameter("reloadCheckInterval");
+        String varActionIndexLocation = filterConfig.getInitParameter("actionIndexLocation");
         if (conf != null) {
             this.configLocation = conf;
         }
+        if (StringUtil.isNotBlank(varReloadCheckInterval)) {
+            this.reloadCheckInterval = Long.parseLong(varReloadCheckInterval.trim());
+        }
+        if (varActionIndexLocation != null) {
+            this.actionIndexLocation = varActionIndexLocation.trim();
+        }
         super.init(filterConfig);
+        if (reloadCheckInterval > 0) {
+            configLastModified = getConfigLastModified();
+            reloadScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "jrouter-config-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloadScheduler.scheduleWithFixedDelay(this::checkConfigModified, reloadCheckInterval,
+                    reloadCheckInterval, TimeUnit.SECONDS);
+            log.info("Check configuration location [{}] modified every {} seconds", configLocation,
+                    reloadCheckInterval);
+        }
+    }
+
+    /**
+     * Reload {@code ActionFactory} in the scheduler thread if configuration file modified.
+     */
+    private void checkConfigModified() {
+        long lastModified = getConfigLastModified();
+        if (lastModified > 0 && lastModified != configLastModified) {
+            log.info("Configuration location modified, reload : {}", configLocation);
+            configLastModified = lastModified;
+            reloadActionFactory(Runnable::run);
+        }
+    }
+
+    /**
+     * Get configuration file's last modified time, or 0 if not found.
+     */
+    private long getConfigLastModified() {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(configLocation);
+        if (url == null) {
+            File file = new File(configLocation);
+            return file.isFile() ? file.lastModified() : 0;
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            if (connection instanceof JarURLConnection) {
+                // the jar file's time, never open an uncached JarFile
+                url = ((JarURLConnection) connection).getJarFileURL();
+                connection = null;
+            }
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI()).lastModified();
+            }
+            if (connection == null) {
+                connection = url.openConnection();
+            }
+            connection.setUseCaches(false);
+            // close the opened stream
+            try (InputStream in = connection.getInputStream()) {
+                return connection.getLastModified();
+            }
+        }
+        catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            log.warn("Can't get last modified time of configuration location : {}", configLocation, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reloadScheduler != null) {
+            reloadScheduler.shutdownNow();
+        }
+        super.destroy();
     }
 
     @Override
@@ -53,7 +169,22 @@ public class JRouterFilter extends AbstractJRouterFilter {
         log.info("Load configuration location : {}", configLocation);
         Configuration configuration = new Configuration();
         configuration.load(configLocation);
-        return configuration.buildActionFactory();
+        return addIndexedActions(configuration.buildActionFactory());
+    }
+
+    /**
+     * 加载编译期生成的Action索引中的Action类。
+     * @param actionFactory the ActionFactory.
+     * @return the ActionFactory.
+     *
+     * @see #actionIndexLocation
+     */
+    protected ActionFactory addIndexedActions(ActionFactory actionFactory) {
+        if (StringUtil.isNotBlank(actionIndexLocation) && actionFactory instanceof PathActionFactory) {
+            ActionIndex.addActions((PathActionFactory) actionFactory, Thread.currentThread().getContextClassLoader(),
+                    actionIndexLocation);
+        }
+        return actionFactory;
     }
 
 }
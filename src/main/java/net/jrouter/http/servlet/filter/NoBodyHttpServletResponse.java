@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HEAD请求的响应，丢弃响应内容仅计算长度；调用{@link #finish()}设置未指定的{@code Content-Length}。
+ */
+final class NoBodyHttpServletResponse extends HttpServletResponseWrapper {
+
+    /**
+     * Discarded content length.
+     */
+    private long contentLength = 0;
+
+    /**
+     * Check if the content length set by the action.
+     */
+    private boolean contentLengthSet = false;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    /**
+     * Constructs a response wrapping the given response.
+     * @param response the response to be wrapped.
+     */
+    NoBodyHttpServletResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+                    contentLength++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    contentLength += len;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("HEAD response");
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws UnsupportedEncodingException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            ServletOutputStream out = getOutputStream();
+            // getOutputStream() is used internally
+            outputStream = null;
+            String encoding = getCharacterEncoding();
+            writer = new PrintWriter(encoding == null ? new OutputStreamWriter(out, StandardCharsets.ISO_8859_1)
+                    : new OutputStreamWriter(out, encoding));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        super.setContentLength(len);
+        contentLengthSet = true;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        super.setContentLengthLong(len);
+        contentLengthSet = true;
+    }
+
+    @Override
+    public void flushBuffer() {
+        // nothing to flush
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        contentLength = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        contentLength = 0;
+        contentLengthSet = false;
+    }
+
+    /**
+     * 设置未指定的{@code Content-Length}为丢弃的响应内容长度。
+     */
+    void finish() {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!contentLengthSet && !isCommitted()) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+}
@@ -36,14 +36,28 @@ public class SpringBeanJRouterFilter extends AbstractJRouterFilter {
     @lombok.Setter
     private String beanName;
 
+    /**
+     * springframework容器刷新时是否重新获取{@code ActionFactory}；默认不重新获取。
+     */
+    @lombok.Getter
+    @lombok.Setter
+    private boolean reloadOnContextRefresh = false;
+
     @Override
     public void init(FilterConfig filterConfig) {
         String varBeanName = filterConfig.getInitParameter("beanName");
+        String varReloadOnContextRefresh = filterConfig.getInitParameter("reloadOnContextRefresh");
         if (varBeanName != null) {
             this.beanName = varBeanName;
             log.info("Set bean's name of springframework : {}", beanName);
         }
+        if (varReloadOnContextRefresh != null) {
+            reloadOnContextRefresh = Boolean.parseBoolean(varReloadOnContextRefresh);
+        }
         super.init(filterConfig);
+        if (reloadOnContextRefresh) {
+            ContextRefreshReloadSupport.register(filterConfig.getServletContext(), this);
+        }
     }
 
     @Override
@@ -24,7 +24,9 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.jrouter.ActionFactory;
 import net.jrouter.config.Configuration;
+import net.jrouter.http.servlet.spring.PooledSpringObjectFactory;
 import net.jrouter.spring.SpringObjectFactory;
+import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 
 /**
@@ -45,14 +47,37 @@ public class SpringJRouterFilter extends JRouterFilter {
     @lombok.Setter
     private boolean useSpringObjectFactory = true;
 
+    /**
+     * 使用{@link PooledSpringObjectFactory}池化{@code PoolableAction}；默认不池化。
+     */
+    @lombok.Setter
+    private boolean pooledActions = false;
+
+    /**
+     * springframework容器刷新时是否重新加载{@code ActionFactory}；默认不重新加载。
+     */
+    @lombok.Setter
+    private boolean reloadOnContextRefresh = false;
+
     @Override
     public void init(FilterConfig filterConfig) {
         String useSpring = filterConfig.getInitParameter("useSpringObjectFactory");
+        String varReloadOnContextRefresh = filterConfig.getInitParameter("reloadOnContextRefresh");
+        String varPooledActions = filterConfig.getInitParameter("pooledActions");
         // default true if not set
         if (useSpring != null) {
             useSpringObjectFactory = Boolean.parseBoolean(useSpring);
         }
+        if (varReloadOnContextRefresh != null) {
+            reloadOnContextRefresh = Boolean.parseBoolean(varReloadOnContextRefresh);
+        }
+        if (varPooledActions != null) {
+            pooledActions = Boolean.parseBoolean(varPooledActions);
+        }
         super.init(filterConfig);
+        if (reloadOnContextRefresh) {
+            ContextRefreshReloadSupport.register(filterConfig.getServletContext(), this);
+        }
     }
 
     @Override
@@ -62,11 +87,13 @@ public class SpringJRouterFilter extends JRouterFilter {
         configuration.load(getConfigLocation());
         if (useSpringObjectFactory) {
             Map<String, Object> actionFactoryProperties = new HashMap<>(2);
-            actionFactoryProperties.put("objectFactory", new SpringObjectFactory(
-                    WebApplicationContextUtils.getRequiredWebApplicationContext(filterConfig.getServletContext())));
+            WebApplicationContext applicationContext = WebApplicationContextUtils
+                .getRequiredWebApplicationContext(filterConfig.getServletContext());
+            actionFactoryProperties.put("objectFactory", pooledActions
+                    ? new PooledSpringObjectFactory(applicationContext) : new SpringObjectFactory(applicationContext));
             configuration.addActionFactoryProperties(actionFactoryProperties);
         }
-        return configuration.buildActionFactory();
+        return addIndexedActions(configuration.buildActionFactory());
     }
 
 }
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.jrouter.annotation.ResultType;
+import net.jrouter.http.servlet.ServletActionInvocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 文件结果，支持{@code Range}/{@code If-Range}分段请求（206、multipart/byteranges、416）及条件请求（304）。
+ * <p>
+ * Action返回{@code Path}或{@code File}，返回{@code null}时以结果的{@code location}作为文件路径；
+ * 总是设置{@code Content-Length}、{@code Last-Modified}及{@code ETag}，文件内容以{@code FileChannel}按位置分块读取写出。
+ */
+public class FileResult {
+
+    /**
+     * "file" symbol.
+     */
+    public static final String FILE = "file";
+
+    /**
+     * Transfer buffer size.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 单个请求允许的最大分段数，超出时返回完整内容。
+     */
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * CRLF.
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * 以文件作为响应内容；文件不存在时返回404。
+     * @param invocation Action运行时上下文。
+     * @throws IOException if an I/O error occurs.
+     */
+    @ResultType(type = FILE)
+    public static void file(ServletActionInvocation invocation) throws IOException {
+        HttpServletResponse response = invocation.getResponse();
+        if (response.isCommitted()) {
+            return;
+        }
+        Path path = toPath(invocation);
+        if (path == null) {
+            return;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        HttpServletRequest request = invocation.getRequest();
+        long length = attributes.size();
+        // second precision as the http date
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(lastModified) + '-' + Long.toHexString(length) + '"';
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            ServletContext servletContext = invocation.getServletContext();
+            String fileName = path.getFileName().toString();
+            contentType = servletContext == null ? null : servletContext.getMimeType(fileName);
+            if (contentType == null) {
+                contentType = "application/octet-stream";
+            }
+            response.setContentType(contentType);
+        }
+
+        List<long[]> ranges = null;
+        String range = request.getHeader("Range");
+        if (range != null && ifRange(request.getHeader("If-Range"), etag, lastModified)) {
+            ranges = parseRanges(range, length);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+        if (ranges == null) {
+            response.setContentLengthLong(length);
+            if (!head && length > 0) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    transfer(channel, 0, length, response.getOutputStream(), ByteBuffer.allocate(BUFFER_SIZE));
+                }
+            }
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] r = ranges.get(0);
+            response.setHeader("Content-Range", "bytes " + r[0] + '-' + r[1] + '/' + length);
+            response.setContentLengthLong(r[1] - r[0] + 1);
+            if (!head) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    transfer(channel, r[0], r[1] - r[0] + 1, response.getOutputStream(),
+                            ByteBuffer.allocate(BUFFER_SIZE));
+                }
+            }
+            return;
+        }
+        // multipart/byteranges
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong())
+                + Long.toHexString(System.nanoTime());
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] r : ranges) {
+            byte[] partHeader = (CRLF + "--" + boundary + CRLF
+                    + "Content-Type: " + contentType + CRLF
+                    + "Content-Range: bytes " + r[0] + '-' + r[1] + '/' + length + CRLF + CRLF)
+                .getBytes(StandardCharsets.ISO_8859_1);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + r[1] - r[0] + 1;
+        }
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.ISO_8859_1);
+        contentLength += end.length;
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] r = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transfer(channel, r[0], r[1] - r[0] + 1, out, buffer);
+            }
+        }
+        out.write(end);
+    }
+
+    /**
+     * 获取文件路径。
+     */
+    private static Path toPath(ServletActionInvocation invocation) {
+        Object res = invocation.getInvokeResult();
+        if (res instanceof Path) {
+            return (Path) res;
+        }
+        if (res instanceof File) {
+            return ((File) res).toPath();
+        }
+        if (res instanceof CharSequence) {
+            return Paths.get(res.toString());
+        }
+        if (res == null && invocation.getResult() != null && !invocation.getResult().location().isEmpty()) {
+            return Paths.get(invocation.getResult().location());
+        }
+        return null;
+    }
+
+    /**
+     * 按位置从{@code FileChannel}读取指定长度的内容写出，不改变通道的位置。
+     */
+    private static void transfer(FileChannel channel, long position, long count, OutputStream out,
+            ByteBuffer buffer) throws IOException {
+        long pos = position;
+        long remaining = count;
+        while (remaining > 0) {
+            buffer.clear();
+            if (remaining < buffer.capacity()) {
+                buffer.limit((int) remaining);
+            }
+            int len = channel.read(buffer, pos);
+            if (len < 0) {
+                // truncated
+                throw new IOException("Unexpected end of file at " + pos);
+            }
+            out.write(buffer.array(), 0, len);
+            pos += len;
+            remaining -= len;
+        }
+    }
+
+    /**
+     * 判断{@code If-None-Match}/{@code If-Modified-Since}条件请求是否未修改。
+     */
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * 判断{@code If-Range}是否仍匹配当前文件，不匹配时返回完整内容。
+     */
+    static boolean ifRange(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // strong comparison
+            return value.equals(etag);
+        }
+        long date = parseHttpDate(value);
+        return date >= 0 && date == lastModified;
+    }
+
+    /**
+     * {@code If-None-Match}弱比较。
+     */
+    private static boolean matchesETag(String header, String etag) {
+        for (String tag : header.split(",")) {
+            String t = tag.trim();
+            if ("*".equals(t)) {
+                return true;
+            }
+            if (t.startsWith("W/")) {
+                t = t.substring(2);
+            }
+            if (t.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse http date, return -1 if invalid.
+     */
+    private static long parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        }
+        catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析{@code Range}头，返回按起始位置排序并合并后的闭区间。
+     * @param header the Range header.
+     * @param length the content length.
+     * @return 格式不支持或分段过多时返回{@code null}（忽略Range），无可满足的分段时返回空集合。
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        String[] specs = value.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            String s = spec.trim();
+            int dash = s.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            long start;
+            long end;
+            try {
+                if (dash == 0) {
+                    // suffix range
+                    long suffix = Long.parseLong(s.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                }
+                else {
+                    start = Long.parseLong(s.substring(0, dash));
+                    if (dash == s.length() - 1) {
+                        end = length - 1;
+                    }
+                    else {
+                        long last = Long.parseLong(s.substring(dash + 1));
+                        if (last < start) {
+                            return null;
+                        }
+                        end = Math.min(last, length - 1);
+                    }
+                }
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+            if (start < 0) {
+                return null;
+            }
+            if (start < length && start <= end) {
+                ranges.add(new long[] { start, end });
+            }
+        }
+        if (ranges.size() <= 1) {
+            return ranges;
+        }
+        // merge overlapping or adjacent ranges
+        Collections.sort(ranges, (a, b) -> Long.compare(a[0], b[0]));
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        long[] last = null;
+        for (long[] r : ranges) {
+            if (last != null && r[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], r[1]);
+            }
+            else {
+                last = r;
+                merged.add(r);
+            }
+        }
+        return merged;
+    }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.annotation.ResultType;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.servlet.BufferedHttpServletResponse;
+import net.jrouter.http.servlet.ServletActionInvocation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于Servlet异步I/O（{@code ReadListener}/{@code WriteListener}）的结果类型及读取请求体的方法，
+ * 慢速客户端传输期间不占用容器线程。
+ * <p>
+ * "stream"结果类型输出{@code byte[]}、{@code ByteBuffer}、{@code InputStream}、{@code ReadableByteChannel}，
+ * 读取数据源的操作本身可能阻塞。请求不支持异步、HEAD请求或响应被缓冲时按阻塞方式输出；
+ * 异步输出超时或出错时关闭数据源并完成异步请求。
+ */
+@Slf4j
+public class NonBlockingResult {
+
+    /**
+     * "stream" symbol.
+     */
+    public static final String STREAM = "stream";
+
+    /**
+     * 正在异步输出的请求属性名称，异步完成时由输出方调用{@code AsyncContext.complete()}。
+     */
+    public static final String WRITING_ATTRIBUTE = NonBlockingResult.class.getName() + ".WRITING";
+
+    /**
+     * Buffer size.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 以非阻塞方式输出结果，输出完成后调用{@code AsyncContext.complete()}；由本方法开始的异步请求以请求截止时间为超时时间。
+     * 未设置{@code Content-Type}时为{@code application/octet-stream}。
+     * @param invocation Action运行时上下文。
+     * @throws IOException if an I/O error occurs.
+     */
+    @ResultType(type = STREAM)
+    public static void stream(ServletActionInvocation invocation) throws IOException {
+        Object res = invocation.getInvokeResult();
+        HttpServletRequest request = invocation.getRequest();
+        HttpServletResponse response = invocation.getResponse();
+        ReadableByteChannel source = toChannel(res, response);
+        if (source == null || response.isCommitted()) {
+            return;
+        }
+        if (response.getContentType() == null) {
+            response.setContentType("application/octet-stream");
+        }
+        // the HEAD response discards the body, maybe not support the WriteListener
+        if (!request.isAsyncSupported() || response instanceof BufferedHttpServletResponse
+                || "HEAD".equals(request.getMethod())) {
+            // blocking
+            OutputStream out = response.getOutputStream();
+            try (ReadableByteChannel in = source) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            }
+            return;
+        }
+        boolean started = request.isAsyncStarted();
+        AsyncContext asyncContext = invocation.getAsyncContext();
+        RequestDeadline deadline = invocation.getDeadline();
+        if (!started && deadline != null && deadline.hasDeadline()) {
+            asyncContext.setTimeout(Math.max(1, deadline.remainingMillis()));
+        }
+        request.setAttribute(WRITING_ATTRIBUTE, Boolean.TRUE);
+        ServletOutputStream out = response.getOutputStream();
+        ChannelWriter writer = new ChannelWriter(source, out, asyncContext);
+        asyncContext.addListener(writer);
+        out.setWriteListener(writer);
+    }
+
+    /**
+     * 以非阻塞方式读取请求体至{@code sink}，超出{@code maxLength}时以{@code IllegalStateException}结束；
+     * 返回的{@code CompletionStage}由容器线程完成，可作为Action的结果。
+     * @param invocation Action运行时上下文。
+     * @param sink 请求体的输出。
+     * @param maxLength 最大字节数。
+     * @return 读取的字节数。
+     * @throws IOException if an I/O error occurs.
+     */
+    public static CompletionStage<Long> readBody(ServletActionInvocation invocation, OutputStream sink,
+            long maxLength) throws IOException {
+        HttpServletRequest request = invocation.getRequest();
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (!request.isAsyncSupported()) {
+            // blocking
+            try {
+                future.complete(copy(request.getInputStream(), sink, maxLength));
+            }
+            catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        invocation.getAsyncContext();
+        ServletInputStream in = request.getInputStream();
+        in.setReadListener(new ReadListener() {
+
+            private final byte[] buffer = new byte[BUFFER_SIZE];
+
+            private long total = 0;
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                int len;
+                while (in.isReady() && !in.isFinished() && (len = in.read(buffer)) != -1) {
+                    total += len;
+                    if (total > maxLength) {
+                        throw new IllegalStateException("Request body exceeds " + maxLength + " bytes");
+                    }
+                    sink.write(buffer, 0, len);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                future.complete(total);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 以非阻塞方式读取请求体。
+     * @param invocation Action运行时上下文。
+     * @param maxLength 最大字节数。
+     * @return 请求体。
+     * @throws IOException if an I/O error occurs.
+     * @see #readBody(ServletActionInvocation, OutputStream, long)
+     */
+    public static CompletionStage<byte[]> readBody(ServletActionInvocation invocation, int maxLength)
+            throws IOException {
+        int length = invocation.getRequest().getContentLength();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(length > 0 ? Math.min(length, maxLength) : 256);
+        return readBody(invocation, body, maxLength).thenApply(total -> body.toByteArray());
+    }
+
+    private static long copy(InputStream in, OutputStream sink, long maxLength) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            total += len;
+            if (total > maxLength) {
+                throw new IllegalStateException("Request body exceeds " + maxLength + " bytes");
+            }
+            sink.write(buffer, 0, len);
+        }
+        return total;
+    }
+
+    /**
+     * Convert the result to channel, set the content length if known.
+     */
+    private static ReadableByteChannel toChannel(Object res, HttpServletResponse response) {
+        if (res instanceof ReadableByteChannel) {
+            return (ReadableByteChannel) res;
+        }
+        if (res instanceof InputStream) {
+            return Channels.newChannel((InputStream) res);
+        }
+        if (res instanceof byte[]) {
+            byte[] bytes = (byte[]) res;
+            response.setContentLength(bytes.length);
+            return Channels.newChannel(new ByteArrayInputStream(bytes));
+        }
+        if (res instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) res).duplicate();
+            response.setContentLength(buffer.remaining());
+            return new ReadableByteChannel() {
+
+                private boolean open = true;
+
+                @Override
+                public int read(ByteBuffer dst) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int len = Math.min(dst.remaining(), buffer.remaining());
+                    ByteBuffer slice = buffer.slice();
+                    slice.limit(len);
+                    dst.put(slice);
+                    buffer.position(buffer.position() + len);
+                    return len;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return open;
+                }
+
+                @Override
+                public void close() {
+                    open = false;
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Write the channel when the output stream is ready, complete the async context only once.
+     */
+    private static final class ChannelWriter implements WriteListener, AsyncListener {
+
+        private final ReadableByteChannel source;
+
+        private final ServletOutputStream out;
+
+        private final AsyncContext asyncContext;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+
+        ChannelWriter(ReadableByteChannel source, ServletOutputStream out, AsyncContext asyncContext) {
+            this.source = source;
+            this.out = out;
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            while (out.isReady()) {
+                buffer.clear();
+                if (source.read(buffer) == -1) {
+                    finish(true);
+                    return;
+                }
+                out.write(buffer.array(), 0, buffer.position());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Can't write the response : {}", t.toString());
+            finish(true);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            log.warn("Writing the response timed out : {}", source);
+            finish(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            log.warn("Can't write the response : {}", String.valueOf(event.getThrowable()));
+            finish(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // nothing
+        }
+
+        /**
+         * Close the source, then complete the async context if required.
+         */
+        private void finish(boolean complete) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                source.close();
+            }
+            catch (IOException e) {
+                log.warn("Can't close the source : {}", source, e);
+            }
+            if (complete) {
+                asyncContext.complete();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的结果路径，按{@code location}缓存。
+ * <p>
+ * 首次使用时规范化路径（补全开头的'/'），之后缓存加上{@code contextPath}的完整路径及其{@code RequestDispatcher}；
+ * 一般应用只有一个{@code ServletContext}，不匹配时重新创建并替换缓存。
+ */
+public final class ResultLocation {
+
+    /**
+     * Compiled locations.
+     */
+    private static final Map<String, ResultLocation> LOCATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * 规范化的路径，以'/'开头。
+     */
+    private final String path;
+
+    /**
+     * Last resolved target.
+     */
+    private volatile Target target;
+
+    private ResultLocation(String location) {
+        this.path = location.charAt(0) == '/' ? location : '/' + location;
+    }
+
+    /**
+     * 获取预编译的结果路径。
+     * @param location 结果路径。
+     * @return the compiled location.
+     */
+    public static ResultLocation of(String location) {
+        ResultLocation compiled = LOCATIONS.get(location);
+        return compiled == null ? LOCATIONS.computeIfAbsent(location, ResultLocation::new) : compiled;
+    }
+
+    /**
+     * 规范化的路径，以'/'开头。
+     * @return the normalized path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 加上请求{@code contextPath}的完整路径。
+     * @param request HttpServletRequest.
+     * @return the full path.
+     */
+    public String resolve(HttpServletRequest request) {
+        return target(request.getContextPath(), null).url;
+    }
+
+    /**
+     * 完整路径的{@code RequestDispatcher}，由{@code ServletContext}创建并缓存。
+     * @param request HttpServletRequest.
+     * @param servletContext ServletContext, 为{@code null}时由{@code request}创建且不缓存。
+     * @return the RequestDispatcher.
+     */
+    public RequestDispatcher getRequestDispatcher(HttpServletRequest request, ServletContext servletContext) {
+        Target t = target(request.getContextPath(), servletContext);
+        if (servletContext == null) {
+            return request.getRequestDispatcher(t.url);
+        }
+        RequestDispatcher dispatcher = t.dispatcher;
+        if (dispatcher == null) {
+            dispatcher = servletContext.getRequestDispatcher(t.url);
+            if (dispatcher == null) {
+                return request.getRequestDispatcher(t.url);
+            }
+            target = new Target(t.contextPath, t.url, servletContext, dispatcher);
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Get or create the target.
+     */
+    private Target target(String contextPath, ServletContext servletContext) {
+        String cp = contextPath == null ? "" : contextPath;
+        Target t = target;
+        if (t != null && t.contextPath.equals(cp)
+                && (servletContext == null || t.servletContext == null || t.servletContext == servletContext)) {
+            return t;
+        }
+        t = new Target(cp, cp.isEmpty() ? path : cp + path, null, null);
+        target = t;
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * Resolved url and its RequestDispatcher.
+     */
+    private static final class Target {
+
+        private final String contextPath;
+
+        private final String url;
+
+        private final ServletContext servletContext;
+
+        private final RequestDispatcher dispatcher;
+
+        private Target(String contextPath, String url, ServletContext servletContext, RequestDispatcher dispatcher) {
+            this.contextPath = contextPath;
+            this.url = url;
+            this.servletContext = servletContext;
+            this.dispatcher = dispatcher;
+        }
+
+    }
+
+}
@@ -17,6 +17,7 @@
 
 package net.jrouter.http.servlet.result;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,9 +25,11 @@ import net.jrouter.annotation.ResultType;
 import net.jrouter.http.servlet.ServletActionInvocation;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
- * Result for http servlet, include "forward" and "redirect".
+ * Result for http servlet, include "forward", "redirect" and "bytes".
  */
 public class ServletResult {
 
@@ -45,6 +48,21 @@ public class ServletResult {
      */
     public static final String REDIRECT = "redirect";
 
+    /**
+     * "bytes" symbol.
+     */
+    public static final String BYTES = "bytes";
+
+    /**
+     * 异步请求已由forward结果{@code AsyncContext.dispatch}的请求属性名称，由被调度的请求完成。
+     */
+    public static final String DISPATCHED_ATTRIBUTE = ServletResult.class.getName() + ".DISPATCHED";
+
+    /**
+     * Copy buffer size of the direct {@code ByteBuffer}.
+     */
+    private static final int COPY_BUFFER_SIZE = 8192;
+
     /**
      * Action结果直接调用映射的Action，类似forward结果类型。 forward可多次关联调用，需自行判断循环调用。
      * @param invocation Action运行时上下文。
@@ -59,7 +77,9 @@ public class ServletResult {
     }
 
     /**
+     * 已开始异步的请求（如{@code CompletionStage}结果）使用{@code AsyncContext.dispatch}。
      * @see jakarta.servlet.RequestDispatcher#forward
+     * @see jakarta.servlet.AsyncContext#dispatch(ServletContext, String)
      */
     @ResultType(type = FORWARD)
     public static void forward(ServletActionInvocation invocation) throws IOException, ServletException {
@@ -67,16 +87,22 @@ public class ServletResult {
         if (response.isCommitted()) {
             return;
         }
-        String location = invocation.getResult().location();
-        if (location.charAt(0) != '/') {
-            location = '/' + location; // NOPMD
-        }
-
         HttpServletRequest request = invocation.getRequest();
-        if (request.getContextPath() != null && !request.getContextPath().isEmpty()) {
-            location = request.getContextPath() + location; // NOPMD
+        ResultLocation location = ResultLocation.of(invocation.getResult().location());
+        if (request.isAsyncStarted()) {
+            request.setAttribute(DISPATCHED_ATTRIBUTE, Boolean.TRUE);
+            // the same url as the RequestDispatcher's
+            String url = location.resolve(request);
+            ServletContext servletContext = invocation.getServletContext();
+            if (servletContext == null) {
+                request.getAsyncContext().dispatch(url);
+            }
+            else {
+                request.getAsyncContext().dispatch(servletContext, url);
+            }
+            return;
         }
-        request.getRequestDispatcher(location).forward(request, response);
+        location.getRequestDispatcher(request, invocation.getServletContext()).forward(request, response);
     }
 
     /**
@@ -88,16 +114,46 @@ public class ServletResult {
         if (response.isCommitted()) {
             return;
         }
-        String location = invocation.getResult().location();
-        if (location.charAt(0) != '/') {
-            location = '/' + location; // NOPMD
-        }
+        response.sendRedirect(ResultLocation.of(invocation.getResult().location()).resolve(invocation.getRequest()));
+    }
 
-        HttpServletRequest request = invocation.getRequest();
-        if (request.getContextPath() != null && !request.getContextPath().isEmpty()) {
-            location = request.getContextPath() + location; // NOPMD
+    /**
+     * 二进制结果，设置{@code Content-Length}并一次写入{@code byte[]}或堆内{@code ByteBuffer}；
+     * 未设置{@code Content-Type}时为{@code application/octet-stream}。
+     * @param invocation Action运行时上下文。
+     * @throws IOException if an I/O error occurs.
+     */
+    @ResultType(type = BYTES)
+    public static void bytes(ServletActionInvocation invocation) throws IOException {
+        Object res = invocation.getInvokeResult();
+        HttpServletResponse response = invocation.getResponse();
+        if (response.isCommitted() || !(res instanceof byte[] || res instanceof ByteBuffer)) {
+            return;
+        }
+        if (response.getContentType() == null) {
+            response.setContentType("application/octet-stream");
+        }
+        OutputStream out = response.getOutputStream();
+        if (res instanceof byte[]) {
+            byte[] bytes = (byte[]) res;
+            response.setContentLength(bytes.length);
+            out.write(bytes);
+            return;
+        }
+        ByteBuffer buffer = ((ByteBuffer) res).duplicate();
+        int length = buffer.remaining();
+        response.setContentLength(length);
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            return;
+        }
+        // direct buffer
+        byte[] bytes = new byte[Math.min(length, COPY_BUFFER_SIZE)];
+        while (buffer.hasRemaining()) {
+            int len = Math.min(buffer.remaining(), bytes.length);
+            buffer.get(bytes, 0, len);
+            out.write(bytes, 0, len);
         }
-        response.sendRedirect(location);
     }
 
 }
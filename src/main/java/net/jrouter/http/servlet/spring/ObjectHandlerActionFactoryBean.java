@@ -1,9 +1,11 @@
 package net.jrouter.http.servlet.spring;
 
+import net.jrouter.http.ActionIndex;
 import net.jrouter.http.servlet.ObjectHandlerActionFactory;
 import net.jrouter.http.servlet.ServletActionFactory;
 import net.jrouter.impl.ResultTypeProxy;
 import net.jrouter.spring.SpringObjectFactory;
+import net.jrouter.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -45,6 +47,22 @@ public class ObjectHandlerActionFactoryBean
     @lombok.Setter
     private ServletActionFactory.DefaultServletActionFactory.Properties properties = null;
 
+    /**
+     * 未指定{@code properties}时使用{@link PooledSpringObjectFactory}池化{@code PoolableAction}；默认不池化。
+     */
+    @lombok.Setter
+    private boolean pooledActions = false;
+
+    /**
+     * 编译期生成的Action索引位置，存在时加载索引中的Action类；默认为空，不加载。
+     * 使用{@code ActionIndexProcessor}时设置为{@link ActionIndex#LOCATION}，类路径中（包括依赖包）所有同名的索引均会加载。
+     * 类的并行加载及注册耗时日志仅对索引中的类生效，配置中扫描（component-scan）的类仍由jrouter串行注册。
+     *
+     * @see ActionIndex
+     */
+    @lombok.Setter
+    private String actionIndexLocation = null;
+
     /**
      * ActionFactory.
      */
@@ -54,9 +72,16 @@ public class ObjectHandlerActionFactoryBean
     public void afterPropertiesSet() {
         if (properties == null) {
             properties = new ServletActionFactory.DefaultServletActionFactory.Properties();
-            properties.setObjectFactory(new SpringObjectFactory(applicationContext));
+            properties.setObjectFactory(pooledActions ? new PooledSpringObjectFactory(applicationContext)
+                    : new SpringObjectFactory(applicationContext));
         }
         actionFactory = new ObjectHandlerActionFactory(properties);
+        if (StringUtil.isNotBlank(actionIndexLocation)) {
+            ClassLoader classLoader = applicationContext == null ? null : applicationContext.getClassLoader();
+            ActionIndex.addActions(actionFactory,
+                    classLoader == null ? Thread.currentThread().getContextClassLoader() : classLoader,
+                    actionIndexLocation);
+        }
         Map<Class<?>, ResultTypeProxy> tmpObjectResultTypes = new HashMap<>(2);
         if (objectResultTypes != null && !objectResultTypes.isEmpty()) {
             for (Map.Entry<Class<?>, String> e : objectResultTypes.entrySet()) {
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.spring;
+
+/**
+ * 可池化的Action，由{@link PooledSpringObjectFactory}创建的实例在调用结束后重置并复用，无需每次请求创建及注入依赖。
+ * <p>
+ * 适用于{@code Scope.PROTOTYPE}的有状态Action；返回{@code CompletionStage}等调用结束后仍引用Action状态的不应池化。
+ */
+public interface PoolableAction {
+
+    /**
+     * 归还对象池前重置状态，抛出异常时丢弃该对象。
+     */
+    void reset();
+
+}
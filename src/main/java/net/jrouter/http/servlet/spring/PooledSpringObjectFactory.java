@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.spring;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jrouter.http.ObjectPool;
+import net.jrouter.spring.SpringObjectFactory;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * 池化{@link PoolableAction}的{@code SpringObjectFactory}。
+ * <p>
+ * 在{@code invokeAction}范围内创建的{@code PoolableAction}由按线程分段的对象池获取，调用结束后调用{@link PoolableAction#reset()}
+ * 并归还；其他类型及范围之外（如启动时创建单例）直接由springframework创建。
+ *
+ * @see ObjectPool
+ */
+public class PooledSpringObjectFactory extends SpringObjectFactory {
+
+    /**
+     * 默认每个类的最大空闲对象数量。
+     */
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    /**
+     * Class - ObjectPool mapping.
+     */
+    private final Map<Class<?>, ObjectPool<?>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 每个类的最大空闲对象数量。
+     */
+    private final int maxIdle;
+
+    /**
+     * Constructor.
+     * @param applicationContext ApplicationContext.
+     */
+    public PooledSpringObjectFactory(ApplicationContext applicationContext) {
+        this(applicationContext, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Constructor.
+     * @param applicationContext ApplicationContext.
+     * @param maxIdle 每个类的最大空闲对象数量。
+     */
+    public PooledSpringObjectFactory(ApplicationContext applicationContext, int maxIdle) {
+        super(applicationContext);
+        this.maxIdle = maxIdle;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance(Class<T> clazz) {
+        if (!PoolableAction.class.isAssignableFrom(clazz) || !ObjectPool.inScope()) {
+            return super.newInstance(clazz);
+        }
+        ObjectPool<T> pool = (ObjectPool<T>) pools.get(clazz);
+        if (pool == null) {
+            pool = (ObjectPool<T>) pools.computeIfAbsent(clazz, c -> new ObjectPool<T>(() -> super.newInstance(clazz),
+                    obj -> ((PoolableAction) obj).reset(), maxIdle));
+        }
+        return pool.acquire();
+    }
+
+    /**
+     * 所有的对象池。
+     * @return the pools.
+     */
+    public Map<Class<?>, ObjectPool<?>> getPools() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+}
@@ -19,27 +19,52 @@ package net.jrouter.http.servlet.spring;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import net.jrouter.ActionFilter;
 import net.jrouter.annotation.*;
 import net.jrouter.util.CollectionUtil;
 import net.jrouter.util.StringUtil;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 
 /**
- * 适配{@link RequestMapping}的{@code ActionFilter}实现。
+ * 适配{@link RequestMapping}的{@code ActionFilter}实现，支持{@code @GetMapping}、{@code @PostMapping}等组合注解。
  */
 public class RequestMappingActionFilter implements ActionFilter {
 
     @Override
     public boolean accept(Object obj, Method method) {
-        return method.isAnnotationPresent(Action.class) || method.isAnnotationPresent(RequestMapping.class);
+        return method.isAnnotationPresent(Action.class)
+                || AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class);
+    }
+
+    /**
+     * 获取Action方法{@link RequestMapping#method()}（含组合注解）允许的请求方法。
+     * @param method Action方法。
+     * @return 允许的请求方法，不限制时返回空集合。
+     *
+     * @see net.jrouter.http.RequestMethods
+     */
+    public static Set<String> getRequestMethods(Method method) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        if (mapping == null || mapping.method().length == 0) {
+            return Collections.emptySet();
+        }
+        Set<String> methods = new LinkedHashSet<>();
+        for (RequestMethod requestMethod : mapping.method()) {
+            methods.add(requestMethod.name());
+        }
+        return methods;
     }
 
     @Override
     public Action getAction(Object obj, Method method) {
         final Action action = method.getAnnotation(Action.class);
         final boolean hasAction = (action != null);
-        RequestMapping mapping = method.getAnnotation(RequestMapping.class);
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
         if (mapping == null) {
             return action;
         }
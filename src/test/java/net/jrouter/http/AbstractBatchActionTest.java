@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AbstractBatchActionTest.
+ */
+class AbstractBatchActionTest {
+
+    /**
+     * Echo the sub request, fail if the path is "/error", sleep 200ms if the path is "/slow".
+     */
+    private static final class EchoBatchAction extends AbstractBatchAction<Object> {
+
+        private final AtomicInteger finished = new AtomicInteger();
+
+        @Override
+        protected Result invoke(Object invocation, String uri, boolean async) {
+            if ("/error".equals(actionPath(uri))) {
+                throw new IllegalStateException(uri);
+            }
+            if ("/slow".equals(actionPath(uri))) {
+                try {
+                    Thread.sleep(200);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.incrementAndGet();
+            }
+            String query = queryString(uri);
+            return query == null ? new Result(uri, 200, "text/plain", "a\"b\n")
+                    : new Result(uri, 200, "application/json", "{\"q\":\"" + query + "\"}");
+        }
+
+    }
+
+    /**
+     * Test of parseRequests method, of class AbstractBatchAction.
+     */
+    @Test
+    void testParseRequests() {
+        assertEquals(Arrays.asList("/a", "/b?x=1", "/c", "/d"),
+                AbstractBatchAction.parseRequests(Arrays.asList("/a", " b?x=1 ", ""), "/c\r\n\n d"));
+        assertTrue(AbstractBatchAction.parseRequests(null, null).isEmpty());
+        assertEquals("/a", AbstractBatchAction.actionPath("/a?x=1"));
+        assertEquals("x=1", AbstractBatchAction.queryString("/a?x=1#top"));
+        assertNull(AbstractBatchAction.queryString("/a"));
+    }
+
+    /**
+     * Test of execute method, of class AbstractBatchAction.
+     */
+    @Test
+    void testExecute() {
+        List<String> uris = Arrays.asList("/a", "/b?x=1", "/error", "/c");
+        String expected = "[{\"uri\":\"/a\",\"status\":200,\"body\":\"a\\\"b\\n\"},"
+                + "{\"uri\":\"/b?x=1\",\"status\":200,\"body\":{\"q\":\"x=1\"}},"
+                + "{\"uri\":\"/error\",\"status\":500,\"body\":\"\"},"
+                + "{\"uri\":\"/c\",\"status\":413,\"body\":\"\"}]";
+        EchoBatchAction action = new EchoBatchAction();
+        action.setMaxRequests(3);
+        assertEquals(expected, new String(action.execute(null, uris, null), StandardCharsets.UTF_8));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            action.setExecutor(executor);
+            assertEquals(expected,
+                    new String(action.execute(null, uris, RequestDeadline.after(5000)), StandardCharsets.UTF_8));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test of execute method after the deadline, of class AbstractBatchAction.
+     */
+    @Test
+    void testExecuteTimeout() {
+        List<String> uris = Arrays.asList("/slow", "/a");
+        String expected = "[{\"uri\":\"/slow\",\"status\":504,\"body\":\"\"},"
+                + "{\"uri\":\"/a\",\"status\":504,\"body\":\"\"}]";
+        EchoBatchAction action = new EchoBatchAction();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            action.setExecutor(executor);
+            assertEquals(expected,
+                    new String(action.execute(null, uris, RequestDeadline.after(50)), StandardCharsets.UTF_8));
+            // returned after the running sub request, the queued one is cancelled
+            assertEquals(1, action.finished.get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test of invokeControlled method, of class AbstractBatchAction.
+     */
+    @Test
+    void testInvokeControlled() {
+        ActionBulkheads bulkheads = new ActionBulkheads().setGlobalLimit(1, 0).setLimit("/report", 1, 0);
+        DeadlinePolicy policy = new DeadlinePolicy();
+        policy.setActionTimeouts(Collections.singletonMap("/report", 5000L));
+        AbstractBatchAction.Controls controls = new AbstractBatchAction.Controls(null, true, bulkheads, policy, null);
+        ActionBulkheads.Bulkhead global = bulkheads.getBulkheads().get("*");
+        // held by the batch request
+        global.acquire(false);
+
+        AtomicInteger active = new AtomicInteger();
+        AbstractBatchAction.Result result = AbstractBatchAction.invokeControlled(controls, "/report?x=1", "/report",
+                null, false, deadline -> {
+                    assertTrue(deadline.hasDeadline());
+                    active.set(bulkheads.get("/report").getActive());
+                    return new AbstractBatchAction.Result("/report?x=1", 200, null, "");
+                });
+        assertEquals(200, result.getStatus());
+        assertEquals(1, active.get());
+        assertEquals(0, bulkheads.get("/report").getActive());
+        assertEquals(1, global.getActive());
+
+        bulkheads.get("/report").acquireOwn(false);
+        assertEquals(503, AbstractBatchAction.invokeControlled(controls, "/report", "/report", null, false,
+                deadline -> fail("rejected")).getStatus());
+        bulkheads.get("/report").releaseOwn();
+
+        RequestDeadline cancelled = RequestDeadline.after(0);
+        cancelled.cancel();
+        assertEquals(504, AbstractBatchAction.invokeControlled(controls, "/report", "/report", cancelled, false,
+                deadline -> fail("cancelled")).getStatus());
+        global.release();
+    }
+
+    /**
+     * Test of toJson method with invalid JSON body, of class AbstractBatchAction.
+     */
+    @Test
+    void testToJsonInvalid() {
+        AbstractBatchAction.Result[] results = {
+                new AbstractBatchAction.Result("/a", 200, "application/json", "{\"a\":1,\"b\":[true,null,-1.5e3]}"),
+                new AbstractBatchAction.Result("/b", 200, "application/json", "{\"a\":"),
+                new AbstractBatchAction.Result("/c", 200, "application/json", "1]")};
+        assertEquals("[{\"uri\":\"/a\",\"status\":200,\"body\":{\"a\":1,\"b\":[true,null,-1.5e3]}},"
+                + "{\"uri\":\"/b\",\"status\":200,\"body\":\"{\\\"a\\\":\"},"
+                + "{\"uri\":\"/c\",\"status\":200,\"body\":\"1]\"}]", AbstractBatchAction.toJson(results));
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.netty.HttpServerActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ActionBulkheadsTest.
+ */
+class ActionBulkheadsTest {
+
+    /**
+     * Test of parse method, of class ActionBulkheads.
+     */
+    @Test
+    void testParse() {
+        ActionBulkheads bulkheads = new ActionBulkheads().parse(" /report=4:100, /export=2 ,");
+        assertEquals(2, bulkheads.getBulkheads().size());
+        assertEquals(4, bulkheads.get("/report").getPermits());
+        assertEquals(100, bulkheads.get("/report").getQueueTimeout());
+        assertEquals(2, bulkheads.get("/export").getPermits());
+        assertEquals(0, bulkheads.get("/export").getQueueTimeout());
+        assertThrows(IllegalArgumentException.class, () -> new ActionBulkheads().parse("/report"));
+    }
+
+    /**
+     * Test of acquire and release, of class ActionBulkheads.Bulkhead.
+     */
+    @Test
+    void testAcquire() {
+        ActionBulkheads bulkheads = new ActionBulkheads().setLimit("/report", 1, 0);
+        ActionBulkheads.Bulkhead bulkhead = bulkheads.get("/report");
+        bulkhead.acquire(true);
+        assertEquals(1, bulkhead.getActive());
+        assertThrows(BulkheadRejectedException.class, () -> bulkhead.acquire(true));
+        assertEquals(1, bulkhead.getRejected());
+        bulkhead.release();
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(1, bulkhead.getCompleted());
+
+        // unlimited
+        ActionBulkheads.Bulkhead other = bulkheads.get("/other");
+        other.acquire(false);
+        other.acquire(false);
+        other.release();
+        other.release();
+        assertEquals(0, other.getActive());
+    }
+
+    /**
+     * Test of global limit with exempt actions.
+     */
+    @Test
+    void testGlobalLimit() {
+        ActionBulkheads bulkheads = new ActionBulkheads().setGlobalLimit(1, 0)
+            .exempt("/health")
+            .setLimit("/report", 2, 0)
+            .setLimit("/health", 1, 0);
+        assertThrows(IllegalStateException.class, () -> bulkheads.exempt("/auth"));
+
+        ActionBulkheads.Bulkhead global = bulkheads.getBulkheads().get("*");
+        ActionBulkheads.Bulkhead report = bulkheads.get("/report");
+        report.acquire(false);
+        assertEquals(1, global.getActive());
+        // global limit exceeded, release the action's own permit
+        assertThrows(BulkheadRejectedException.class, () -> report.acquire(false));
+        assertEquals(1, report.getActive());
+        assertThrows(BulkheadRejectedException.class, () -> bulkheads.get("/other").acquire(false));
+
+        // exempt from the global limit
+        ActionBulkheads.Bulkhead health = bulkheads.get("/health");
+        health.acquire(false);
+        health.release();
+        report.release();
+        assertEquals(0, global.getActive());
+        assertEquals(0, report.getActive());
+    }
+
+    /**
+     * Test of reload method, of class ActionBulkheads.
+     */
+    @Test
+    void testReload() {
+        HttpServerActionFactory actionFactory = createActionFactory(LimitedAction.class);
+        ActionBulkheads bulkheads = new ActionBulkheads().setLimit("/export", 2, 0)
+            .addAnnotatedActions(actionFactory);
+        assertSame(actionFactory, bulkheads.getActionFactory());
+        ActionBulkheads.Bulkhead report = bulkheads.get("/limited/report");
+        assertEquals(4, report.getPermits());
+        assertEquals(1, bulkheads.get("/limited/other").getPermits());
+
+        HttpServerActionFactory reloadedFactory = createActionFactory(ReloadedAction.class);
+        ActionBulkheads reloaded = bulkheads.reload(reloadedFactory);
+        assertSame(reloadedFactory, reloaded.getActionFactory());
+        // unchanged
+        assertSame(report, reloaded.get("/limited/report"));
+        assertSame(bulkheads.get("/export"), reloaded.get("/export"));
+        // removed
+        assertEquals(0, reloaded.get("/limited/other").getPermits());
+        assertFalse(reloaded.getBulkheads().containsKey("/limited/other"));
+    }
+
+    private static HttpServerActionFactory createActionFactory(Class<?> actionClass) {
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                new HttpServerActionFactory.DefaultHttpActionFactory.Properties());
+        actionFactory.addActions(actionClass);
+        return actionFactory;
+    }
+
+    /**
+     * Limited test Action.
+     */
+    @Namespace(name = "/limited")
+    public static class LimitedAction {
+
+        @ConcurrencyLimit(4)
+        @Action("report")
+        public String report() {
+            return "report";
+        }
+
+        @ConcurrencyLimit(1)
+        @Action("other")
+        public String other() {
+            return "other";
+        }
+
+    }
+
+    /**
+     * Reloaded test Action.
+     */
+    @Namespace(name = "/limited")
+    public static class ReloadedAction {
+
+        @ConcurrencyLimit(4)
+        @Action("report")
+        public String report() {
+            return "report";
+        }
+
+        @Action("other")
+        public String other() {
+            return "other";
+        }
+
+    }
+
+}
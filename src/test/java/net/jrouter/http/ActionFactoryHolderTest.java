@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jrouter.http.netty.HttpServerActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ActionFactoryHolderTest.
+ */
+class ActionFactoryHolderTest {
+
+    private static TestActionFactory createActionFactory() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        TestActionFactory actionFactory = new TestActionFactory(properties);
+        actionFactory.addActions(DemoAction.class);
+        return actionFactory;
+    }
+
+    /**
+     * Test of swap method, of class ActionFactoryHolder.
+     */
+    @Test
+    void testSwap() {
+        TestActionFactory first = createActionFactory();
+        TestActionFactory second = createActionFactory();
+        ActionFactoryHolder<TestActionFactory> holder = new ActionFactoryHolder<>(first);
+        assertSame(first, holder.get());
+        assertEquals(0, holder.getVersion());
+
+        ActionFactoryHolder.Generation<TestActionFactory> inFlight = holder.acquire();
+        assertSame(first, holder.swap(second));
+        assertSame(second, holder.get());
+        assertEquals(1, holder.getVersion());
+        // in-flight request still holds the previous one
+        assertSame(first, inFlight.getActionFactory());
+        assertEquals(0, first.cleared.get());
+        inFlight.close();
+        assertEquals(1, first.cleared.get());
+
+        // swap the same one
+        assertSame(second, holder.swap(second));
+        assertEquals(0, second.cleared.get());
+
+        holder.clear();
+        assertEquals(1, second.cleared.get());
+        assertThrows(IllegalStateException.class, holder::acquire);
+    }
+
+    /**
+     * Test of reload method, of class ActionFactoryHolder.
+     */
+    @Test
+    void testReload() throws Exception {
+        TestActionFactory first = createActionFactory();
+        ActionFactoryHolder<TestActionFactory> holder = new ActionFactoryHolder<>(first);
+        TestActionFactory reloaded = holder.reloadAsync(ActionFactoryHolderTest::createActionFactory, Runnable::run)
+            .get();
+        assertSame(reloaded, holder.get());
+        assertEquals(1, first.cleared.get());
+
+        // keep the current one if failed
+        assertThrows(Exception.class, () -> holder.reloadAsync(() -> {
+            throw new IllegalStateException();
+        }, Runnable::run).get());
+        assertSame(reloaded, holder.get());
+        assertEquals(0, reloaded.cleared.get());
+    }
+
+    /**
+     * Count {@code clear()} invoked times.
+     */
+    private static final class TestActionFactory extends HttpServerActionFactory.DefaultHttpActionFactory {
+
+        private final AtomicInteger cleared = new AtomicInteger();
+
+        TestActionFactory(Properties properties) {
+            super(properties);
+        }
+
+        @Override
+        public void clear() {
+            cleared.incrementAndGet();
+            super.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import net.jrouter.http.netty.HttpServerActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ActionIndexTest.
+ */
+class ActionIndexTest {
+
+    private static final String LOCATION = "META-INF/jrouter/test-actions.index";
+
+    /**
+     * Test of read method, of class ActionIndex.
+     */
+    @Test
+    void testRead() {
+        ClassLoader classLoader = ActionIndexTest.class.getClassLoader();
+        Set<String> classNames = ActionIndex.read(classLoader, LOCATION);
+        assertEquals(Arrays.asList("net.jrouter.http.DemoAction", "net.jrouter.http.MissingAction"),
+                Arrays.asList(classNames.toArray()));
+        assertTrue(ActionIndex.read(classLoader, "META-INF/jrouter/none.index").isEmpty());
+    }
+
+    /**
+     * Test of addActions method, of class ActionIndex.
+     */
+    @Test
+    void testAddActions() {
+        ClassLoader classLoader = ActionIndexTest.class.getClassLoader();
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                new HttpServerActionFactory.DefaultHttpActionFactory.Properties());
+        assertEquals(1, ActionIndex.addActions(actionFactory, classLoader, LOCATION, 1));
+        assertEquals(2, actionFactory.getActions().size());
+        // already registered
+        assertEquals(0, ActionIndex.addActions(actionFactory, classLoader, LOCATION, 4));
+        assertEquals(2, actionFactory.getActions().size());
+
+        HttpServerActionFactory.DefaultHttpActionFactory parallel = new HttpServerActionFactory.DefaultHttpActionFactory(
+                new HttpServerActionFactory.DefaultHttpActionFactory.Properties());
+        assertEquals(1, ActionIndex.addActions(parallel, classLoader, LOCATION, 4));
+        assertEquals(actionFactory.getActions().keySet(), parallel.getActions().keySet());
+    }
+
+    /**
+     * Test of load method in parallel, of class ActionIndex.
+     */
+    @Test
+    void testLoadParallel() {
+        ClassLoader classLoader = ActionIndexTest.class.getClassLoader();
+        List<String> classNames = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            classNames.add(i % 3 == 0 ? "net.jrouter.http.MissingAction" + i
+                    : (i % 3 == 1 ? DemoAction.class.getName() : ActionIndexTest.class.getName()));
+        }
+        Class<?>[] serial = ActionIndex.load(classNames, classLoader, 1);
+        for (int parallelism : new int[]{2, 4, 8}) {
+            // same order regardless of the parallelism
+            assertArrayEquals(serial, ActionIndex.load(classNames, classLoader, parallelism));
+        }
+        assertNull(serial[0]);
+        assertSame(DemoAction.class, serial[1]);
+        assertSame(ActionIndexTest.class, serial[2]);
+    }
+
+}
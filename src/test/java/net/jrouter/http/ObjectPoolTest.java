@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ObjectPoolTest.
+ */
+class ObjectPoolTest {
+
+    /**
+     * Test of acquire method, of class ObjectPool.
+     */
+    @Test
+    void testAcquire() {
+        AtomicInteger resets = new AtomicInteger();
+        ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, sb -> {
+            sb.setLength(0);
+            resets.incrementAndGet();
+        }, 4);
+
+        // not in scope
+        assertFalse(ObjectPool.inScope());
+        assertNotSame(pool.acquire(), pool.acquire());
+        assertEquals(0, pool.getIdle());
+
+        int mark = ObjectPool.begin();
+        StringBuilder first;
+        try {
+            assertTrue(ObjectPool.inScope());
+            first = pool.acquire().append("state");
+            // nested
+            int nested = ObjectPool.begin();
+            try {
+                assertNotSame(first, pool.acquire());
+            }
+            finally {
+                ObjectPool.end(nested);
+            }
+            assertEquals(1, pool.getIdle());
+        }
+        finally {
+            ObjectPool.end(mark);
+        }
+        assertFalse(ObjectPool.inScope());
+        assertEquals(2, resets.get());
+        assertEquals(2, pool.getIdle());
+        assertEquals(4, pool.getCreated());
+
+        mark = ObjectPool.begin();
+        try {
+            StringBuilder reused = pool.acquire();
+            assertEquals(0, reused.length());
+            assertEquals(1, pool.getReused());
+        }
+        finally {
+            ObjectPool.end(mark);
+        }
+    }
+
+    /**
+     * Test of end method without release, of class ObjectPool.
+     */
+    @Test
+    void testEndWithoutRelease() {
+        AtomicInteger resets = new AtomicInteger();
+        ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, sb -> resets.incrementAndGet(), 4);
+        int mark = ObjectPool.begin();
+        StringBuilder used;
+        try {
+            pool.acquire();
+            int nested = ObjectPool.begin();
+            try {
+                used = pool.acquire().append("async");
+            }
+            finally {
+                // still used, e.g. by the CompletionStage
+                ObjectPool.end(nested, false);
+            }
+        }
+        finally {
+            ObjectPool.end(mark);
+        }
+        assertFalse(ObjectPool.inScope());
+        assertEquals(1, resets.get());
+        assertEquals(1, pool.getIdle());
+        assertEquals("async", used.toString());
+    }
+
+    /**
+     * Test of release method, of class ObjectPool.
+     */
+    @Test
+    void testResetFailed() {
+        ObjectPool<Object> pool = new ObjectPool<>(Object::new, obj -> {
+            throw new IllegalStateException();
+        }, 4);
+        int mark = ObjectPool.begin();
+        try {
+            pool.acquire();
+        }
+        finally {
+            ObjectPool.end(mark);
+        }
+        assertEquals(0, pool.getIdle());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PathPrefixTrieTest.
+ */
+class PathPrefixTrieTest {
+
+    /**
+     * Test of normalize method, of class PathPrefixTrie.
+     */
+    @Test
+    void testNormalize() {
+        assertEquals("", PathPrefixTrie.normalize(null));
+        assertEquals("", PathPrefixTrie.normalize(""));
+        assertEquals("", PathPrefixTrie.normalize("/"));
+        assertEquals("/api", PathPrefixTrie.normalize("api"));
+        assertEquals("/api", PathPrefixTrie.normalize("/api/"));
+        assertEquals("/api/v2", PathPrefixTrie.normalize("/api/v2//"));
+    }
+
+    /**
+     * Test of match method, of class PathPrefixTrie.
+     */
+    @Test
+    void testMatch() {
+        PathPrefixTrie<String> trie = new PathPrefixTrie<>();
+        assertTrue(trie.isEmpty());
+        assertNull(trie.match("/api"));
+
+        trie.put("/api", "a");
+        trie.put("/api/v2/", "b");
+        trie.put("/static", "s");
+        assertEquals(3, trie.size());
+
+        assertEquals("a", trie.match("/api"));
+        assertEquals("a", trie.match("/api/"));
+        assertEquals("a", trie.match("/api/users"));
+        assertEquals("a", trie.match("/api/v20"));
+        assertEquals("b", trie.match("/api/v2"));
+        assertEquals("b", trie.match("/api/v2/users"));
+        assertEquals("s", trie.match("/static/a.css"));
+        assertNull(trie.match("/apis"));
+        assertNull(trie.match("/"));
+        assertNull(trie.match(""));
+
+        // root matches all
+        trie.put("/", "root");
+        assertEquals(4, trie.size());
+        assertEquals("root", trie.match("/apis"));
+        assertEquals("root", trie.match("/"));
+        assertEquals("a", trie.match("/api/x"));
+
+        assertEquals("a", trie.put("api", "a2"));
+        assertEquals(4, trie.size());
+        assertEquals("a2", trie.match("/api/x"));
+    }
+
+}
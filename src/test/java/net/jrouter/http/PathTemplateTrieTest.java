@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Collections;
+import java.util.Locale;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PathTemplateTrieTest.
+ */
+class PathTemplateTrieTest {
+
+    /**
+     * Test of match method, of class PathTemplateTrie.
+     */
+    @Test
+    void testMatch() {
+        PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+        trie.put("/users/list", "list");
+        trie.put("/users/{id}", "user");
+        trie.put("/users/{id}/orders", "orders");
+        trie.put("/users/{uid}/orders/{oid}", "order");
+        trie.put("/users/{id}/profile/", "profile");
+        trie.put("/{type}/latest", "latest");
+
+        PathTemplateTrie.Match<String> match = trie.match("/users/list");
+        assertEquals("list", match.getValue());
+        assertTrue(match.getVariables().isEmpty());
+
+        match = trie.match("/users/100");
+        assertEquals("user", match.getValue());
+        assertEquals(Collections.singletonMap("id", "100"), match.getVariables());
+
+        assertEquals("orders", trie.match("/users/100/orders").getValue());
+        assertEquals("100", trie.match("/users/100/orders").getVariables().get("id"));
+
+        match = trie.match("/users/100/orders/7");
+        assertEquals("order", match.getValue());
+        assertEquals("100", match.getVariables().get("uid"));
+        assertEquals("7", match.getVariables().get("oid"));
+
+        assertEquals("profile", trie.match("/users/100/profile").getValue());
+        // static segment first
+        assertEquals("user", trie.match("/users/latest").getValue());
+        match = trie.match("/items/latest");
+        assertEquals("latest", match.getValue());
+        assertEquals("items", match.getVariables().get("type"));
+        // backtracking to the variable segment
+        trie.put("/users/list/{page}", "page");
+        assertEquals("page", trie.match("/users/list/2").getValue());
+        match = trie.match("/users/list/orders/5");
+        assertEquals("order", match.getValue());
+        assertEquals("list", match.getVariables().get("uid"));
+        assertEquals("5", match.getVariables().get("oid"));
+
+        assertNull(trie.match("/users"));
+        assertNull(trie.match("/users//orders"));
+        assertNull(trie.match("/users/100/other"));
+        assertNull(trie.match("users/100"));
+    }
+
+    /**
+     * Test of match method with the original path, of class PathTemplateTrie.
+     */
+    @Test
+    void testMatchOriginal() {
+        PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+        trie.put("/users/{id}/orders", "orders");
+        String path = "/Users/AbC/Orders";
+        PathTemplateTrie.Match<String> match = trie.match(path.toLowerCase(Locale.ROOT), path);
+        assertEquals("orders", match.getValue());
+        assertEquals("AbC", match.getVariables().get("id"));
+        // length differs, use the matched path
+        assertEquals("abc", trie.match("/users/abc/orders", "/users/abc").getVariables().get("id"));
+    }
+
+    /**
+     * Test of put method, of class PathTemplateTrie.
+     */
+    @Test
+    void testPut() {
+        PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+        assertThrows(IllegalArgumentException.class, () -> trie.put("/users/id{id}", "x"));
+        assertTrue(PathTemplateTrie.isTemplate("/users/{id}"));
+        assertFalse(PathTemplateTrie.isTemplate("/users/id"));
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Collections;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RequestDeadlineTest.
+ */
+class RequestDeadlineTest {
+
+    /**
+     * Test of cancel and checkCancelled method, of class RequestDeadline.
+     */
+    @Test
+    void testCancel() {
+        assertFalse(RequestDeadline.isCancelled(null));
+        RequestDeadline deadline = RequestDeadline.after(0);
+        assertFalse(deadline.hasDeadline());
+        assertFalse(deadline.isExpired());
+        assertEquals(Long.MAX_VALUE, deadline.remainingMillis());
+        deadline.checkCancelled();
+
+        deadline.cancel();
+        assertTrue(deadline.isCancelled());
+        assertTrue(RequestDeadline.isCancelled(deadline));
+        assertEquals("Request cancelled",
+                assertThrows(RequestCancelledException.class, deadline::checkCancelled).getMessage());
+    }
+
+    /**
+     * Test of the deadline, of class RequestDeadline.
+     */
+    @Test
+    void testDeadline() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(60_000);
+        assertTrue(deadline.hasDeadline());
+        assertFalse(deadline.isCancelled());
+        assertTrue(deadline.remainingMillis() > 0 && deadline.remainingMillis() <= 60_000);
+
+        RequestDeadline expired = RequestDeadline.after(1);
+        Thread.sleep(5);
+        assertTrue(expired.isExpired());
+        assertTrue(expired.isCancelled());
+        assertEquals(0, expired.remainingMillis());
+        assertEquals("Request deadline exceeded",
+                assertThrows(RequestCancelledException.class, expired::checkCancelled).getMessage());
+    }
+
+    /**
+     * Test of the deadline from the receipt, of class RequestDeadline.
+     */
+    @Test
+    void testAfterStart() {
+        long received = System.nanoTime() - 2_000_000_000L;
+        // queued longer than the timeout
+        assertTrue(RequestDeadline.after(1000, received).isCancelled());
+        assertTrue(new DeadlinePolicy().newDeadline("/test", "1000", received).isCancelled());
+        assertFalse(RequestDeadline.after(0, received).hasDeadline());
+        assertTrue(RequestDeadline.after(60_000, received).remainingMillis() <= 58_000);
+    }
+
+    /**
+     * Test of the overflowed timeout, of class RequestDeadline.
+     */
+    @Test
+    void testAfterOverflow() {
+        RequestDeadline deadline = RequestDeadline.after(Long.MAX_VALUE);
+        assertTrue(deadline.hasDeadline());
+        assertFalse(deadline.isExpired());
+        assertFalse(deadline.isCancelled());
+        assertTrue(deadline.remainingMillis() > 0);
+        // 10^13 ms overflows in nanoseconds without clamping
+        assertFalse(RequestDeadline.after(10_000_000_000_000L, System.nanoTime()).isExpired());
+        assertFalse(RequestDeadline.after(60_000).child(Long.MAX_VALUE).isCancelled());
+        assertTrue(RequestDeadline.after(1000).child(Long.MAX_VALUE).remainingMillis() <= 1000);
+    }
+
+    /**
+     * Test of child method, of class RequestDeadline.
+     */
+    @Test
+    void testChild() {
+        RequestDeadline parent = RequestDeadline.after(0);
+        assertFalse(parent.child(0).hasDeadline());
+        RequestDeadline child = parent.child(60_000);
+        assertTrue(child.hasDeadline());
+        // no later than the parent
+        RequestDeadline bounded = RequestDeadline.after(1000).child(60_000);
+        assertTrue(bounded.remainingMillis() <= 1000);
+        assertTrue(RequestDeadline.after(60_000).child(1000).remainingMillis() <= 1000);
+
+        parent.cancel();
+        assertTrue(child.isCancelled());
+        assertThrows(RequestCancelledException.class, child::checkCancelled);
+        assertFalse(RequestDeadline.after(0).child(0).isCancelled());
+    }
+
+    /**
+     * Test of resolveTimeout method, of class DeadlinePolicy.
+     */
+    @Test
+    void testResolveTimeout() {
+        DeadlinePolicy policy = new DeadlinePolicy();
+        assertEquals(0, policy.resolveTimeout("/test", null));
+        assertFalse(policy.newDeadline("/test", null).hasDeadline());
+
+        policy.setDefaultTimeout(1000);
+        policy.setActionTimeouts(Collections.singletonMap("/report", 5000L));
+        assertEquals(1000, policy.resolveTimeout("/test", null));
+        assertEquals(5000, policy.resolveTimeout("/report", " "));
+        // client can only shorten the timeout
+        assertEquals(200, policy.resolveTimeout("/test", " 200 "));
+        assertEquals(1000, policy.resolveTimeout("/test", "3000"));
+        assertEquals(1000, policy.resolveTimeout("/test", "-1"));
+        assertEquals(1000, policy.resolveTimeout("/test", "abc"));
+
+        policy.setMaxTimeout(2000);
+        assertEquals(2000, policy.resolveTimeout("/report", null));
+        policy.setDefaultTimeout(0);
+        assertEquals(2000, policy.resolveTimeout("/test", null));
+        assertTrue(policy.newDeadline("/test", "100").hasDeadline());
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Arrays;
+import java.util.Collections;
+import net.jrouter.http.netty.HttpServerActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RequestMethodsTest.
+ */
+class RequestMethodsTest {
+
+    /**
+     * Test of of method, of class RequestMethods.
+     */
+    @Test
+    void testOf() {
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                new HttpServerActionFactory.DefaultHttpActionFactory.Properties());
+        actionFactory.addActions(DemoAction.class);
+        RequestMethods requestMethods = RequestMethods.of(actionFactory,
+                method -> "test100".equals(method.getName()) ? Arrays.asList("get", "POST")
+                        : Collections.emptyList());
+        assertSame(actionFactory, requestMethods.getActionFactory());
+        assertNull(requestMethods.get("/test/test200"));
+        assertNull(requestMethods.get("/none"));
+
+        RequestMethods.Allowed allowed = requestMethods.get("/test/test100");
+        assertNotNull(allowed);
+        assertTrue(allowed.allows("GET"));
+        assertTrue(allowed.allows("HEAD"));
+        assertTrue(allowed.allows("POST"));
+        assertFalse(allowed.allows("PUT"));
+        assertFalse(allowed.allows("OPTIONS"));
+        assertEquals("GET, HEAD, OPTIONS, POST", allowed.getAllowHeader());
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RequestPathMatcherTest.
+ */
+class RequestPathMatcherTest {
+
+    /**
+     * Test of matches method, of class RequestPathMatcher.
+     */
+    @Test
+    void testMatches() {
+        RequestPathMatcher matcher = new RequestPathMatcher().excludeExtensions(" css, .JS,png ,")
+            .excludePaths("/static, /assets/");
+        assertTrue(matcher.matches("/user/list"));
+        assertTrue(matcher.matches("/user.v2/list"));
+        assertTrue(matcher.matches("/user/list.json"));
+        assertTrue(matcher.matches("/staticx"));
+        assertFalse(matcher.matches("/css/main.css"));
+        assertFalse(matcher.matches("/js/app.min.Js"));
+        assertFalse(matcher.matches("/static"));
+        assertFalse(matcher.matches("/assets/logo"));
+        assertFalse(matcher.matches(null));
+
+        matcher.includePaths("/api");
+        assertTrue(matcher.matches("/api/user"));
+        assertFalse(matcher.matches("/user/list"));
+        assertFalse(matcher.matches("/api/logo.png"));
+    }
+
+}
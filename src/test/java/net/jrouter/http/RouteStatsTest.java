@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.concurrent.TimeUnit;
+import net.jrouter.http.netty.HttpServerActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RouteStatsTest.
+ */
+class RouteStatsTest {
+
+    /**
+     * Test of record and percentile, of class RouteStats.
+     */
+    @Test
+    void testRecord() {
+        RouteStats stats = new RouteStats();
+        assertNull(stats.get("/test/test100"));
+        for (int i = 1; i <= 100; i++) {
+            stats.record("/test/test100", TimeUnit.MICROSECONDS.toNanos(i), i > 98);
+        }
+        RouteStats.Route route = stats.get("/test/test100");
+        assertEquals(100, route.getHits());
+        assertEquals(2, route.getErrors());
+        assertEquals(50, route.getMeanMicros());
+        assertEquals(100, route.getMaxMicros());
+        assertTrue(route.getLastHit() > 0);
+        // bucket upper bounds: 63 for [32, 64), capped by the max
+        assertEquals(63, route.percentile(0.5));
+        assertEquals(100, route.percentile(0.99));
+        assertEquals(1, route.percentile(0.01));
+
+        assertEquals(0, RouteStats.Route.bucket(0));
+        assertEquals(1, RouteStats.Route.bucket(1));
+        assertEquals(2, RouteStats.Route.bucket(3));
+        assertEquals(RouteStats.BUCKETS - 1, RouteStats.Route.bucket(Long.MAX_VALUE));
+
+        stats.reset();
+        assertTrue(stats.getRoutes().isEmpty());
+    }
+
+    /**
+     * Test of toJson method, of class RouteStats.
+     */
+    @Test
+    void testToJson() {
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                new HttpServerActionFactory.DefaultHttpActionFactory.Properties());
+        actionFactory.addActions(DemoAction.class);
+        RouteStats stats = new RouteStats();
+        stats.record("/test/test100", TimeUnit.MILLISECONDS.toNanos(2), false);
+
+        String json = stats.toJson(actionFactory);
+        assertTrue(json.startsWith("{\"since\":" + stats.getSince() + ",\"routes\":[{\"path\":\"/test/test100\","));
+        assertTrue(json.contains("\"method\":\"net.jrouter.http.DemoAction#test100\""));
+        assertTrue(json.contains("\"hits\":1,\"errors\":0,\"meanMicros\":2000"));
+        // never hit
+        assertTrue(json.contains("{\"path\":\"/test/test200\",\"method\":\"net.jrouter.http.DemoAction#test200\","
+                + "\"interceptors\":["));
+        assertTrue(json.endsWith(",\"hits\":0,\"errors\":0}]}"));
+        assertTrue(RouteStats.toJson(actionFactory, null).startsWith("{\"since\":0,"));
+    }
+
+    /**
+     * Test of appendString method, of class JsonUtil.
+     */
+    @Test
+    void testAppendString() {
+        StringBuilder json = new StringBuilder();
+        JsonUtil.appendString(json, "a\"b\\c\n\u0001");
+        JsonUtil.appendString(json, null);
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"\"\"", json.toString());
+    }
+
+}
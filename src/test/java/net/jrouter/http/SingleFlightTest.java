@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SingleFlightTest.
+ */
+class SingleFlightTest {
+
+    /**
+     * Test of join method, of class SingleFlight.
+     */
+    @Test
+    void testJoin() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        List<String> shared = new ArrayList<>();
+        SingleFlight.Call<String> call = singleFlight.join("/test?a=1", shared::add);
+        assertNotNull(call);
+        assertEquals("/test?a=1", call.getKey());
+        assertNull(singleFlight.join("/test?a=1", shared::add));
+        assertNull(singleFlight.join("/test?a=1", shared::add));
+        // another key
+        SingleFlight.Call<String> other = singleFlight.join("/test?a=2", shared::add);
+        assertNotNull(other);
+        assertEquals(2, singleFlight.getInFlightCount());
+
+        call.complete("result");
+        call.complete(null);
+        assertEquals(2, shared.size());
+        assertEquals("result", shared.get(0));
+        assertEquals("result", shared.get(1));
+        other.complete(null);
+        assertEquals(0, singleFlight.getInFlightCount());
+        assertEquals(2, singleFlight.getLeaderCount());
+        assertEquals(2, singleFlight.getCoalescedCount());
+
+        // completed, next one becomes the leader
+        assertNotNull(singleFlight.join("/test?a=1", shared::add));
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SlowRequestDetectorTest.
+ */
+class SlowRequestDetectorTest {
+
+    /**
+     * Test of begin and end method, of class SlowRequestDetector.
+     */
+    @Test
+    void testBeginEnd() {
+        // never scanned by the watchdog during the test
+        try (SlowRequestDetector detector = new SlowRequestDetector(0, TimeUnit.HOURS.toMillis(1))) {
+            assertNull(detector.begin("/fast"));
+            detector.end(null);
+
+            detector.setActionThresholds(Collections.singletonMap("/slow", 1L));
+            assertNull(detector.begin("/fast"));
+            SlowRequestDetector.InFlight inFlight = detector.begin("/slow");
+            assertNotNull(inFlight);
+            assertEquals(1, detector.getInFlightCount());
+            detector.end(inFlight);
+            assertEquals(0, detector.getInFlightCount());
+        }
+    }
+
+    /**
+     * Test of sampling the slow requests, of class SlowRequestDetector.
+     */
+    @Test
+    void testScan() throws InterruptedException {
+        try (SlowRequestDetector detector = new SlowRequestDetector(1, TimeUnit.HOURS.toMillis(1))) {
+            detector.setSampleInterval(0);
+            detector.setMaxSamples(2);
+            detector.setActionThresholds(Collections.singletonMap("/normal", TimeUnit.HOURS.toMillis(1)));
+            SlowRequestDetector.InFlight normal = detector.begin("/normal");
+            SlowRequestDetector.InFlight slow = detector.begin("/slow");
+            // exceed the 1 ms threshold
+            Thread.sleep(5);
+
+            detector.scan();
+            assertEquals(0, normal.getSampleCount());
+            assertEquals(1, slow.getSampleCount());
+            assertFalse(slow.isReported());
+            detector.scan();
+            assertEquals(2, slow.getSampleCount());
+            assertTrue(slow.isReported());
+            // max samples reached
+            detector.scan();
+            assertEquals(2, slow.getSampleCount());
+
+            detector.end(slow);
+            detector.end(normal);
+            assertEquals(0, detector.getInFlightCount());
+            assertEquals(0, normal.getSampleCount());
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.nio.charset.StandardCharsets;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.netty.result.HttpResult;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BatchHttpActionTest.
+ */
+class BatchHttpActionTest {
+
+    private static HttpServerActionFactory.DefaultHttpActionFactory createActionFactory() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        properties.setDefaultResultType(HttpResult.TEXT);
+        properties.setRecycleInvocation(true);
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                properties);
+        actionFactory.addResultTypes(new HttpResult());
+        actionFactory.addActions(BatchHttpAction.class);
+        actionFactory.addActions(EchoAction.class);
+        return actionFactory;
+    }
+
+    private static String batch(HttpServerActionFactory actionFactory, String uri) {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        request.headers().set("X-Name", "header");
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.buffer());
+        Object res = null;
+        try {
+            res = actionFactory.invokeAction("/jrouter/batch", request, response, ctx);
+            FullHttpResponse out = (FullHttpResponse) res;
+            assertEquals(HttpResponseStatus.OK, out.status());
+            assertEquals("application/json", out.headers().get(HttpHeaderNames.CONTENT_TYPE));
+            return out.content().toString(StandardCharsets.UTF_8);
+        }
+        finally {
+            if (res != response) {
+                ((FullHttpResponse) res).release();
+            }
+            request.release();
+            response.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    /**
+     * Test of batch method, of class BatchHttpAction.
+     */
+    @Test
+    void testBatch() {
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = createActionFactory();
+        String uri = "/jrouter/batch?r=/echo/hello%3Fname%3Da&r=/echo/header&r=/jrouter/batch%3Fr%3D/echo/hello"
+                + "&r=/echo/none";
+        // nested batch request is rejected
+        String expected = "[{\"uri\":\"/echo/hello?name=a\",\"status\":200,\"body\":\"hello a\"},"
+                + "{\"uri\":\"/echo/header\",\"status\":200,\"body\":\"header\"},"
+                + "{\"uri\":\"/jrouter/batch?r=/echo/hello\",\"status\":400,\"body\":\"\"},"
+                + "{\"uri\":\"/echo/none\",\"status\":404,\"body\":\"\"}]";
+        assertEquals(expected, batch(actionFactory, uri));
+    }
+
+    /**
+     * Echo Action.
+     */
+    @Namespace(name = "/echo")
+    public static class EchoAction {
+
+        @Action("hello")
+        public String hello(HttpActionInvocation invocation) {
+            return "hello " + new QueryStringDecoder(invocation.getRequest().uri()).parameters().get("name").get(0);
+        }
+
+        @Action("header")
+        public String header(HttpActionInvocation invocation) {
+            return invocation.getRequest().headers().get("X-Name");
+        }
+
+    }
+
+}
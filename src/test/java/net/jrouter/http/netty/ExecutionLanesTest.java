@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ExecutionLanesTest.
+ */
+class ExecutionLanesTest {
+
+    /**
+     * Test of parse and get method, of class ExecutionLanes.
+     */
+    @Test
+    void testGet() {
+        List<Runnable> tasks = new ArrayList<>();
+        ExecutionLanes lanes = new ExecutionLanes().addLane("inline", null, 0)
+            .addLane("bulk", tasks::add, 1)
+            .parse(" /health=inline, /report=bulk ,");
+        assertEquals("inline", lanes.get("/health").getName());
+        assertTrue(lanes.get("/health").isInline());
+        assertEquals("bulk", lanes.get("/report/export").getName());
+        // no default lane
+        assertNull(lanes.get("/reports"));
+        assertNull(lanes.get("/test/test100"));
+        assertThrows(IllegalArgumentException.class, () -> lanes.parse("/auth=critical"));
+        assertThrows(IllegalArgumentException.class, () -> lanes.parse("/auth"));
+
+        lanes.addLane(ExecutionLanes.DEFAULT, tasks::add, 0);
+        assertEquals(ExecutionLanes.DEFAULT, lanes.get("/test/test100").getName());
+        assertEquals(3, lanes.getLanes().size());
+    }
+
+    /**
+     * Test of execute method, of class ExecutionLanes.Lane.
+     */
+    @Test
+    void testExecute() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutionLanes lanes = new ExecutionLanes().addLane("inline", null, 0).addLane("bulk", tasks::add, 1);
+
+        ExecutionLanes.Lane inline = lanes.getLanes().get("inline");
+        assertTrue(inline.execute(counter::incrementAndGet));
+        assertEquals(1, counter.get());
+
+        ExecutionLanes.Lane bulk = lanes.getLanes().get("bulk");
+        assertTrue(bulk.execute(counter::incrementAndGet));
+        assertEquals(1, bulk.getQueued());
+        // queue is full
+        assertFalse(bulk.execute(counter::incrementAndGet));
+        assertEquals(1, bulk.getRejected());
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(2, counter.get());
+        assertEquals(0, bulk.getQueued());
+        assertEquals(1, bulk.getStarted());
+        assertTrue(bulk.getMaxWaitMicros() >= bulk.getMeanWaitMicros());
+
+        ExecutionLanes.Lane rejecting = new ExecutionLanes().addLane("rejecting", task -> {
+            throw new RejectedExecutionException("shutdown");
+        }, 0).getLanes().get("rejecting");
+        assertFalse(rejecting.execute(counter::incrementAndGet));
+        assertEquals(0, rejecting.getQueued());
+        assertEquals(1, rejecting.getRejected());
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import java.util.Collections;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * HttpHeaderTemplateTest.
+ */
+class HttpHeaderTemplateTest {
+
+    /**
+     * Test of apply method, of class HttpHeaderTemplate.
+     */
+    @Test
+    void testApply() {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        HttpHeaderTemplate.DEFAULT.apply(headers);
+        assertEquals(1, headers.size());
+        assertNotNull(headers.get(HttpHeaderNames.DATE));
+
+        headers = new DefaultHttpHeaders();
+        headers.set(HttpHeaderNames.SERVER, "test");
+        new HttpHeaderTemplate(Collections.singletonMap(HttpHeaderNames.SERVER, "jrouter"), false).apply(headers);
+        assertEquals(1, headers.size());
+        assertEquals("jrouter", headers.get(HttpHeaderNames.SERVER));
+    }
+
+    /**
+     * Test of the Date header value, of class HttpHeaderTemplate.DateHeader.
+     */
+    @Test
+    void testDateHeader() {
+        long now = 1_700_000_000_000L;
+        assertEquals("Tue, 14 Nov 2023 22:13:20 GMT", HttpHeaderTemplate.DateHeader.get(now).toString());
+        // same second, reuse the value
+        assertSame(HttpHeaderTemplate.DateHeader.get(now), HttpHeaderTemplate.DateHeader.get(now + 999));
+        assertEquals("Tue, 14 Nov 2023 22:13:21 GMT", HttpHeaderTemplate.DateHeader.get(now + 1000).toString());
+    }
+
+}
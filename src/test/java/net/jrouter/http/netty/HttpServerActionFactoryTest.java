@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.stream.ChunkedStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.annotation.Result;
+import net.jrouter.annotation.ResultType;
+import net.jrouter.http.netty.result.HttpResult;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * HttpServerActionFactoryTest.
+ */
+class HttpServerActionFactoryTest {
+
+    private static HttpServerActionFactory.DefaultHttpActionFactory createActionFactory() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        properties.setDefaultResultType(HttpResult.TEXT);
+        properties.setRecycleInvocation(true);
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                properties);
+        actionFactory.addResultTypes(new HttpResult());
+        actionFactory.addActions(RecycleAction.class);
+        return actionFactory;
+    }
+
+    /**
+     * Test of recycling the DefaultHttpActionInvocation, of class DefaultHttpActionFactory.
+     */
+    @Test
+    void testRecycleInvocation() {
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = createActionFactory();
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/recycle/sync");
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.buffer());
+        try {
+            assertEquals("sync", actionFactory.invokeAction("/recycle/sync", request, response, ctx));
+            assertEquals("sync", response.content().toString(StandardCharsets.UTF_8));
+            // reset after invoked
+            HttpActionInvocation invocation = RecycleAction.last;
+            assertNull(invocation.getRequest());
+            assertNull(invocation.getResponse());
+            assertNull(invocation.getChannelHandlerContext());
+            assertNull(invocation.getDeadline());
+            assertTrue(invocation.getContextMap().isEmpty());
+
+            // held by the results, not recycled
+            Object res = actionFactory.invokeAction("/recycle/async", request, response, ctx);
+            assertTrue(res instanceof CompletableFuture);
+            assertSame(request, RecycleAction.last.getRequest());
+            assertEquals("async", RecycleAction.last.getContextMap().get("name"));
+
+            res = actionFactory.invokeAction("/recycle/chunked", request, response, ctx);
+            assertTrue(res instanceof HttpChunkedInput);
+            assertSame(request, RecycleAction.last.getRequest());
+            assertSame(ctx, RecycleAction.last.getChannelHandlerContext());
+        }
+        finally {
+            request.release();
+            response.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    /**
+     * Test of choosing the "bytes" result type, of class DefaultHttpActionFactory.
+     */
+    @Test
+    void testBytesResult() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        properties.setDefaultResultType("hex");
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                properties);
+        actionFactory.addResultTypes(new HttpResult());
+        actionFactory.addResultTypes(new HexResult());
+        actionFactory.addActions(BytesAction.class);
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/bytes/raw");
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.buffer());
+        try {
+            // no result declared
+            FullHttpResponse res = actionFactory.invokeAction("/bytes/raw", request, response, ctx);
+            assertEquals("ab", res.content().toString(StandardCharsets.UTF_8));
+            res.release();
+
+            // the declared results apply
+            response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.buffer());
+            actionFactory.invokeAction("/bytes/declared", request, response, ctx);
+            assertEquals("6162", response.content().toString(StandardCharsets.UTF_8));
+        }
+        finally {
+            request.release();
+            response.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    /**
+     * Write the {@code byte[]} result in hex.
+     */
+    public static class HexResult {
+
+        @ResultType(type = "hex")
+        public static Object hex(HttpActionInvocation invocation) {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : (byte[]) invocation.getInvokeResult()) {
+                hex.append(String.format("%02x", b));
+            }
+            invocation.getResponse().content().writeCharSequence(hex, StandardCharsets.UTF_8);
+            return null;
+        }
+
+    }
+
+    /**
+     * Bytes test Action.
+     */
+    @Namespace(name = "/bytes")
+    public static class BytesAction {
+
+        @Action("raw")
+        public byte[] raw() {
+            return "ab".getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Action(value = "declared", results = @Result(name = "text", type = HttpResult.TEXT))
+        public byte[] declared() {
+            return "ab".getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Recycle test Action.
+     */
+    @Namespace(name = "/recycle")
+    public static class RecycleAction {
+
+        static volatile HttpActionInvocation last;
+
+        @Action("sync")
+        public String sync(HttpActionInvocation invocation) {
+            last = invocation;
+            invocation.getContextMap().put("name", "sync");
+            return "sync";
+        }
+
+        @Action("async")
+        public CompletableFuture<String> async(HttpActionInvocation invocation) {
+            last = invocation;
+            invocation.getContextMap().put("name", "async");
+            return new CompletableFuture<>();
+        }
+
+        @Action("chunked")
+        public HttpChunkedInput chunked(HttpActionInvocation invocation) {
+            last = invocation;
+            return new HttpChunkedInput(
+                    new ChunkedStream(new ByteArrayInputStream("chunked".getBytes(StandardCharsets.UTF_8))));
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.DemoAction;
+import net.jrouter.http.Warmup;
+import net.jrouter.http.netty.result.HttpResult;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * HttpWarmupTest.
+ */
+class HttpWarmupTest {
+
+    private static HttpServerActionFactory createActionFactory() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        properties.setDefaultResultType(HttpResult.TEXT);
+        HttpServerActionFactory.DefaultHttpActionFactory actionFactory = new HttpServerActionFactory.DefaultHttpActionFactory(
+                properties);
+        actionFactory.addResultTypes(new HttpResult());
+        actionFactory.addActions(DemoAction.class);
+        actionFactory.addActions(WarmupAction.class);
+        return actionFactory;
+    }
+
+    /**
+     * Collects the content of the responses.
+     */
+    private static HttpWarmup createWarmup(HttpServerActionFactory actionFactory, List<String> responses) {
+        return new HttpWarmup(actionFactory, () -> new JRouterHttpRequestHandler(actionFactory)) {
+
+            @Override
+            protected void checkResponse(String path, HttpResponse response) {
+                assertEquals(HttpResponseStatus.OK, response.status());
+                responses.add(((FullHttpResponse) response).content().toString(StandardCharsets.UTF_8));
+                super.checkResponse(path, response);
+            }
+        };
+    }
+
+    /**
+     * Test of run method, of class HttpWarmup.
+     */
+    @Test
+    void testRun() {
+        HttpServerActionFactory actionFactory = createActionFactory();
+        List<String> responses = new ArrayList<>();
+        // only the @Warmup action by default
+        HttpWarmup warmup = createWarmup(actionFactory, responses);
+        warmup.setIterations(10);
+        assertFalse(warmup.isReady());
+        assertEquals(10, warmup.run());
+        assertTrue(warmup.isReady());
+        assertTrue(warmup.getReadiness().isDone());
+        assertEquals(0, warmup.getErrors());
+        assertEquals(Collections.nCopies(10, "ping"), responses);
+        assertEquals(0, WarmupAction.counter);
+
+        responses.clear();
+        warmup = createWarmup(actionFactory, responses);
+        warmup.setIterations(5);
+        warmup.setActionPaths(Collections.singletonList("/test/test100"));
+        assertEquals(5, warmup.run());
+        assertEquals(0, warmup.getErrors());
+        assertEquals(Collections.nCopies(5, "/test100"), responses);
+    }
+
+    /**
+     * Test of run method with error responses, of class HttpWarmup.
+     */
+    @Test
+    void testRunErrors() {
+        HttpServerActionFactory actionFactory = createActionFactory();
+        HttpWarmup warmup = new HttpWarmup(actionFactory, () -> new JRouterHttpRequestHandler(actionFactory));
+        warmup.setIterations(3);
+        warmup.setActionPaths(Collections.singletonList("/warmup/none"));
+        assertEquals(3, warmup.run());
+        assertEquals(3, warmup.getErrors());
+        assertTrue(warmup.isReady());
+    }
+
+    /**
+     * Warm up action.
+     */
+    @Namespace(name = "/warmup")
+    public static class WarmupAction {
+
+        static int counter;
+
+        @Warmup
+        @Action("ping")
+        public String ping() {
+            return "ping";
+        }
+
+        @Action("increase")
+        public String increase() {
+            return String.valueOf(++counter);
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的对数线性延迟直方图，记录纳秒值，相对误差小于1/64。
+ */
+public class LatencyHistogram {
+
+    /**
+     * Values less than this are recorded exactly.
+     */
+    private static final int LINEAR_BUCKETS = 128;
+
+    /**
+     * Sub-buckets of each power of two.
+     */
+    private static final int SUB_BUCKETS = 64;
+
+    /**
+     * Total buckets for positive long values.
+     */
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - 6) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private volatile long maxValue = 0;
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        int top = (int) (value >>> shift);
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long top = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a value in nanoseconds.
+     * @param nanos the value.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketIndex(nanos));
+        totalCount.increment();
+        while (nanos > maxValue) {
+            synchronized (this) {
+                if (nanos > maxValue) {
+                    maxValue = nanos;
+                }
+            }
+        }
+    }
+
+    /**
+     * Total recorded count.
+     * @return total count.
+     */
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Max recorded value in nanoseconds.
+     * @return max value.
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Value at the percentile, the upper bound of the bucket.
+     * @param percentile percentile in [0, 100].
+     * @return value in nanoseconds.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(bucketUpperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Summary in milliseconds.
+     * @return summary string.
+     */
+    public String summary() {
+        return String.format("count=%d p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms", getTotalCount(),
+                toMillis(getValueAtPercentile(50)), toMillis(getValueAtPercentile(90)),
+                toMillis(getValueAtPercentile(99)), toMillis(getValueAtPercentile(99.9)), toMillis(getMaxValue()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于Netty http客户端编解码的进程内压测工具，用于{@link NettyHttpServerBaseTest}类型的服务端（TCP回环或{@code LocalChannel}）。
+ * <p>
+ * {@link Mode#OPEN_LOOP}以固定速率按计划时间发送请求（连接内管线化），延迟从计划发送时间开始计算，不受协调遗漏（coordinated
+ * omission）影响；{@link Mode#CLOSED_LOOP}每个连接收到响应后立即发送下一个请求，延迟为实际的服务时间。
+ */
+@Slf4j
+@lombok.Getter
+@lombok.Setter
+public class LoadGenerator {
+
+    /**
+     * Load mode.
+     */
+    public enum Mode {
+
+        /**
+         * Constant rate, latency measured from the intended send time.
+         */
+        OPEN_LOOP,
+
+        /**
+         * Send the next request after the response received.
+         */
+        CLOSED_LOOP
+
+    }
+
+    /**
+     * Server address, such as {@code InetSocketAddress} or {@code LocalAddress}.
+     */
+    private SocketAddress remoteAddress;
+
+    /**
+     * Client channel type, must match the event loop group.
+     */
+    private Class<? extends Channel> channelClass = NioSocketChannel.class;
+
+    /**
+     * Client event loop group, managed by the caller.
+     */
+    private EventLoopGroup eventLoopGroup;
+
+    private Mode mode = Mode.CLOSED_LOOP;
+
+    private int connections = 4;
+
+    /**
+     * Requests per second of {@link Mode#OPEN_LOOP}.
+     */
+    private int rate = 1000;
+
+    /**
+     * Warm-up milliseconds, not recorded.
+     */
+    private long warmupMillis = 0;
+
+    /**
+     * Recorded milliseconds.
+     */
+    private long durationMillis = 1000;
+
+    private String uri = "/";
+
+    private String host = "localhost";
+
+    /**
+     * Run the load and wait for all responses.
+     * @return the report.
+     * @throws InterruptedException if interrupted.
+     */
+    public Report run() throws InterruptedException {
+        Objects.requireNonNull(remoteAddress, "remoteAddress can't be null");
+        Objects.requireNonNull(eventLoopGroup, "eventLoopGroup can't be null");
+        Run run = new Run();
+        Bootstrap bootstrap = new Bootstrap().group(eventLoopGroup)
+            .channel(channelClass)
+            .handler(new ChannelInitializer<Channel>() {
+
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new HttpClientCodec());
+                    ch.pipeline().addLast(new HttpObjectAggregator(10 * 1024 * 1024));
+                    ch.pipeline().addLast(new Connection(run));
+                }
+            });
+        if (NioSocketChannel.class.isAssignableFrom(channelClass)) {
+            bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        }
+        List<Connection> conns = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            Channel channel = bootstrap.connect(remoteAddress).sync().channel();
+            conns.add(channel.pipeline().get(Connection.class));
+        }
+        long totalMillis = warmupMillis + durationMillis;
+        run.start(TimeUnit.MILLISECONDS.toNanos(warmupMillis), TimeUnit.MILLISECONDS.toNanos(totalMillis));
+        ScheduledFuture<?> ticker = null;
+        if (mode == Mode.OPEN_LOOP) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long total = totalMillis * rate / 1000;
+            run.expected.set(total);
+            long[] sent = { 0 };
+            ticker = eventLoopGroup.next().scheduleAtFixedRate(() -> {
+                long due = Math.min((System.nanoTime() - run.startNanos) / interval + 1, total);
+                for (; sent[0] < due; sent[0]++) {
+                    long intended = run.startNanos + sent[0] * interval;
+                    Connection conn = conns.get((int) (sent[0] % conns.size()));
+                    conn.channel.eventLoop().execute(() -> conn.send(intended));
+                }
+            }, 0, 1, TimeUnit.MILLISECONDS);
+        }
+        else {
+            run.expected.set(Long.MAX_VALUE);
+            for (Connection conn : conns) {
+                conn.channel.eventLoop().execute(() -> conn.send(System.nanoTime()));
+            }
+        }
+        boolean completed = run.latch.await(totalMillis + TimeUnit.SECONDS.toMillis(30), TimeUnit.MILLISECONDS);
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+        for (Connection conn : conns) {
+            conn.channel.close().sync();
+        }
+        if (!completed) {
+            log.warn("Load not completed, outstanding responses are ignored");
+        }
+        return new Report(mode, run.histogram, run.errors.sum(), durationMillis);
+    }
+
+    /**
+     * State of one run.
+     */
+    private final class Run {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Expected responses, or {@link Long#MAX_VALUE} until the closed loop
+         * stopped.
+         */
+        private final AtomicLong expected = new AtomicLong();
+
+        private final AtomicLong received = new AtomicLong();
+
+        /**
+         * Stopped connections of the closed loop.
+         */
+        private final AtomicLong stopped = new AtomicLong();
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile long startNanos;
+
+        private volatile long recordNanos;
+
+        private volatile long endNanos;
+
+        private void start(long warmupNanos, long totalNanos) {
+            startNanos = System.nanoTime();
+            recordNanos = startNanos + warmupNanos;
+            endNanos = startNanos + totalNanos;
+        }
+
+        private void onResponse(long intended, boolean success) {
+            long now = System.nanoTime();
+            if (intended >= recordNanos && intended < endNanos) {
+                if (success) {
+                    histogram.record(now - intended);
+                }
+                else {
+                    errors.increment();
+                }
+            }
+            if (received.incrementAndGet() >= expected.get()) {
+                latch.countDown();
+            }
+        }
+
+        private void onClosedLoopStopped() {
+            if (stopped.incrementAndGet() == connections) {
+                expected.set(received.get());
+                latch.countDown();
+            }
+        }
+
+    }
+
+    /**
+     * One connection, outstanding requests are answered in order.
+     */
+    private final class Connection extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+        private final Run run;
+
+        /**
+         * Intended send times of outstanding requests, only accessed in the event
+         * loop.
+         */
+        private final ArrayDeque<Long> outstanding = new ArrayDeque<>();
+
+        private Channel channel;
+
+        private Connection(Run run) {
+            this.run = run;
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            this.channel = ctx.channel();
+        }
+
+        private void send(long intended) {
+            FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+            request.headers().set(HttpHeaderNames.HOST, host);
+            HttpUtil.setKeepAlive(request, true);
+            outstanding.add(intended);
+            channel.writeAndFlush(request);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            Long intended = outstanding.poll();
+            if (intended == null) {
+                return;
+            }
+            run.onResponse(intended, HttpResponseStatus.OK.equals(response.status()));
+            if (mode == Mode.CLOSED_LOOP) {
+                long now = System.nanoTime();
+                if (now < run.endNanos) {
+                    send(now);
+                }
+                else {
+                    run.onClosedLoopStopped();
+                }
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.error("Load connection error : {}", ctx.channel(), cause);
+            // count the outstanding requests as errors
+            while (outstanding.poll() != null) {
+                run.errors.increment();
+                run.received.incrementAndGet();
+            }
+            ctx.close();
+            if (mode == Mode.CLOSED_LOOP) {
+                run.onClosedLoopStopped();
+            }
+            else if (run.received.get() >= run.expected.get()) {
+                run.latch.countDown();
+            }
+        }
+
+    }
+
+    /**
+     * Load report.
+     */
+    @lombok.Getter
+    public static final class Report {
+
+        private final Mode mode;
+
+        private final LatencyHistogram histogram;
+
+        private final long errors;
+
+        private final long durationMillis;
+
+        private Report(Mode mode, LatencyHistogram histogram, long errors, long durationMillis) {
+            this.mode = mode;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         * Recorded successful responses per second.
+         * @return throughput.
+         */
+        public double getThroughput() {
+            return histogram.getTotalCount() * 1000.0 / durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s throughput=%.1f/s errors=%d %s", mode, getThroughput(), errors,
+                    histogram.summary());
+        }
+
+    }
+
+}
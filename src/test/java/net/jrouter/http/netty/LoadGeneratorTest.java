@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.net.InetSocketAddress;
+import lombok.extern.slf4j.Slf4j;
+import net.jrouter.http.DemoAction;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * LoadGeneratorTest.
+ *
+ * @see DemoAction
+ */
+@Slf4j
+class LoadGeneratorTest extends JRouterHttpRequestHandlerTest {
+
+    private final EventLoopGroup clientGroup = new NioEventLoopGroup(2, new DefaultThreadFactory("load-client"));
+
+    @AfterAll
+    void tearDownClient() {
+        clientGroup.shutdownGracefully();
+    }
+
+    private LoadGenerator createLoadGenerator(LoadGenerator.Mode mode) {
+        LoadGenerator loadGenerator = new LoadGenerator();
+        loadGenerator.setRemoteAddress(new InetSocketAddress("127.0.0.1", getPort()));
+        loadGenerator.setEventLoopGroup(clientGroup);
+        loadGenerator.setMode(mode);
+        loadGenerator.setConnections(2);
+        loadGenerator.setWarmupMillis(200);
+        loadGenerator.setDurationMillis(500);
+        loadGenerator.setUri("/test/test100");
+        return loadGenerator;
+    }
+
+    /**
+     * Test of run method with closed loop, of class LoadGenerator.
+     */
+    @Test
+    void testClosedLoop() throws Exception {
+        LoadGenerator.Report report = createLoadGenerator(LoadGenerator.Mode.CLOSED_LOOP).run();
+        log.info("{}", report);
+        assertEquals(0, report.getErrors());
+        assertTrue(report.getHistogram().getTotalCount() > 0);
+    }
+
+    /**
+     * Test of run method with open loop, of class LoadGenerator.
+     */
+    @Test
+    void testOpenLoop() throws Exception {
+        LoadGenerator loadGenerator = createLoadGenerator(LoadGenerator.Mode.OPEN_LOOP);
+        loadGenerator.setRate(200);
+        LoadGenerator.Report report = loadGenerator.run();
+        log.info("{}", report);
+        assertEquals(0, report.getErrors());
+        // 200/s in 500ms
+        assertEquals(100, report.getHistogram().getTotalCount());
+        assertTrue(report.getHistogram().getValueAtPercentile(50) <= report.getHistogram().getMaxValue());
+    }
+
+    /**
+     * Test of bucket precision, of class LatencyHistogram.
+     */
+    @Test
+    void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(1_000_000, histogram.getMaxValue());
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 < 500_000 * 65 / 64 + 1, String.valueOf(p50));
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        for (long v : new long[] { 0, 1, 127, 128, 129, 255, 256, 1_000_000, Long.MAX_VALUE }) {
+            int idx = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.bucketUpperBound(idx) >= v);
+            assertTrue(idx == 0 || LatencyHistogram.bucketUpperBound(idx - 1) < v);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.netty;
+
+import net.jrouter.http.netty.result.HttpResult;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * VirtualHostRouterTest.
+ */
+class VirtualHostRouterTest {
+
+    private static HttpServerActionFactory createActionFactory() {
+        HttpServerActionFactory.DefaultHttpActionFactory.Properties properties = new HttpServerActionFactory.DefaultHttpActionFactory.Properties();
+        properties.setDefaultResultType(HttpResult.TEXT);
+        return new HttpServerActionFactory.DefaultHttpActionFactory(properties);
+    }
+
+    /**
+     * Test of route method, of class VirtualHostRouter.
+     */
+    @Test
+    void testRoute() {
+        HttpServerActionFactory api = createActionFactory();
+        HttpServerActionFactory admin = createActionFactory();
+        HttpServerActionFactory any = createActionFactory();
+        VirtualHostRouter router = new VirtualHostRouter();
+        router.addRoute("API.example.com", "/", api)
+            .addRoute("api.example.com", "/admin", admin)
+            .addRoute(VirtualHostRouter.ANY_HOST, "/any", any);
+
+        VirtualHostRouter.Route route = router.route("api.example.com", "/test/test100");
+        assertSame(api, route.getActionFactoryHolder().get());
+        assertEquals("/test/test100", route.getActionPath("/test/test100"));
+
+        route = router.route("Api.Example.com:8080", "/admin/test/test100");
+        assertSame(admin, route.getActionFactoryHolder().get());
+        assertEquals("/test/test100", route.getActionPath("/admin/test/test100"));
+        assertEquals("/", route.getActionPath("/admin"));
+
+        route = router.route("other.example.com", "/any/test");
+        assertSame(any, route.getActionFactoryHolder().get());
+        assertEquals("/test", route.getActionPath("/any/test"));
+
+        assertNull(router.route("other.example.com", "/test"));
+        assertNull(router.route(null, "/test"));
+        assertSame(any, router.route(null, "/any").getActionFactoryHolder().get());
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.AbstractBatchAction;
+import net.jrouter.http.RequestMethods;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+/**
+ * BatchServletActionTest.
+ */
+class BatchServletActionTest {
+
+    private static ServletActionFactory.DefaultServletActionFactory createActionFactory() {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = new ServletActionFactory.DefaultServletActionFactory(
+                new ServletActionFactory.DefaultServletActionFactory.Properties());
+        actionFactory.addActions(BatchServletAction.class);
+        actionFactory.addActions(EchoAction.class);
+        return actionFactory;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServletThreadContext.remove();
+    }
+
+    /**
+     * Test of batch method, of class BatchServletAction.
+     */
+    @Test
+    void testBatch() throws Exception {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = createActionFactory();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/jrouter/batch");
+        request.setAsyncSupported(true);
+        request.addHeader("X-Name", "header");
+        request.addParameter(BatchServletAction.REQUEST_PARAMETER, "/echo/hello?name=a", "/echo/header", "/echo/async",
+                "/jrouter/batch?r=/echo/hello", "/echo/none");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        actionFactory.invokeAction("/jrouter/batch", request, response, new MockServletContext());
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        // the sub request doesn't support async, nested batch request is rejected
+        assertEquals("[{\"uri\":\"/echo/hello?name=a\",\"status\":200,\"body\":\"hello a\"},"
+                + "{\"uri\":\"/echo/header\",\"status\":200,\"body\":\"header\"},"
+                + "{\"uri\":\"/echo/async\",\"status\":200,\"body\":\"async\"},"
+                + "{\"uri\":\"/jrouter/batch?r=/echo/hello\",\"status\":400,\"body\":\"\"},"
+                + "{\"uri\":\"/echo/none\",\"status\":404,\"body\":\"\"}]",
+                response.getContentAsString(StandardCharsets.UTF_8));
+        // the sub request's parameter is isolated
+        assertNull(request.getAttribute("name"));
+    }
+
+    /**
+     * Test of batch method with the request methods, of class BatchServletAction.
+     */
+    @Test
+    void testBatchRequestMethods() throws Exception {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = createActionFactory();
+        RequestMethods methods = RequestMethods.of(actionFactory,
+                m -> "delete".equals(m.getName()) ? Collections.singleton("POST") : null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/jrouter/batch");
+        request.setAttribute(AbstractBatchAction.CONTROLS_ATTRIBUTE,
+                new AbstractBatchAction.Controls(methods, true, null, null, null));
+        request.addParameter(BatchServletAction.REQUEST_PARAMETER, "/echo/delete", "/echo/hello?name=a");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        actionFactory.invokeAction("/jrouter/batch", request, response, new MockServletContext());
+        // POST only
+        assertEquals("[{\"uri\":\"/echo/delete\",\"status\":405,\"body\":\"\"},"
+                + "{\"uri\":\"/echo/hello?name=a\",\"status\":200,\"body\":\"hello a\"}]",
+                response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(0, EchoAction.deleted.get());
+    }
+
+    /**
+     * Echo Action.
+     */
+    @Namespace(name = "/echo")
+    public static class EchoAction {
+
+        static final AtomicInteger deleted = new AtomicInteger();
+
+        @Action("hello")
+        public byte[] hello(ServletActionInvocation invocation) {
+            invocation.getRequest().setAttribute("name", invocation.getRequest().getParameter("name"));
+            invocation.getResponse().setContentType("text/plain;charset=UTF-8");
+            return ("hello " + invocation.getRequest().getParameter("name")).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Action("header")
+        public byte[] header(ServletActionInvocation invocation) {
+            invocation.getResponse().setContentType("text/plain;charset=UTF-8");
+            return invocation.getRequest().getHeader("X-Name").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Action("delete")
+        public byte[] delete() {
+            deleted.incrementAndGet();
+            return new byte[0];
+        }
+
+        @Action("async")
+        public CompletableFuture<byte[]> async(ServletActionInvocation invocation) {
+            invocation.getResponse().setContentType("text/plain;charset=UTF-8");
+            return CompletableFuture.completedFuture("async".getBytes(StandardCharsets.UTF_8));
+        }
+
+    }
+
+}
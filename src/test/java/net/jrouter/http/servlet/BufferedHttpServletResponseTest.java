@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import java.io.IOException;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * BufferedHttpServletResponseTest.
+ */
+class BufferedHttpServletResponseTest {
+
+    /**
+     * Test of toContent method, of class BufferedHttpServletResponse.
+     */
+    @Test
+    void testToContent() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // set by an upstream filter
+        response.setHeader("Vary", "Origin");
+        BufferedHttpServletResponse buffered = new BufferedHttpServletResponse(response);
+        buffered.setContentType("text/plain");
+        buffered.setHeader("X-Id", "1");
+        buffered.setHeader("X-Id", "2");
+        buffered.addHeader("X-Tag", "a");
+        buffered.addHeader("X-Tag", "b");
+        buffered.getOutputStream().write(new byte[]{'o', 'k'});
+        assertTrue(buffered.isShareable());
+
+        BufferedHttpServletResponse.Content content = buffered.toContent();
+        MockHttpServletResponse waiter = new MockHttpServletResponse();
+        content.writeTo(waiter);
+        assertEquals("ok", waiter.getContentAsString());
+        assertEquals("text/plain", waiter.getContentType());
+        assertEquals("2", waiter.getHeader("X-Id"));
+        assertEquals(1, waiter.getHeaders("X-Id").size());
+        assertEquals(2, waiter.getHeaders("X-Tag").size());
+        assertNull(waiter.getHeader("Vary"));
+    }
+
+    /**
+     * Test of isShareable method, of class BufferedHttpServletResponse.
+     */
+    @Test
+    void testIsShareable() {
+        BufferedHttpServletResponse buffered = new BufferedHttpServletResponse(new MockHttpServletResponse());
+        buffered.setStatus(404);
+        assertFalse(buffered.isShareable());
+        buffered.setStatus(304);
+        assertFalse(buffered.isShareable());
+        buffered.setStatus(200);
+        assertTrue(buffered.isShareable());
+
+        buffered.addHeader("Set-Cookie", "id=1");
+        assertFalse(buffered.isShareable());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // e.g. the session cookie
+        response.addHeader("Set-Cookie", "JSESSIONID=1");
+        assertFalse(new BufferedHttpServletResponse(response).isShareable());
+    }
+
+}
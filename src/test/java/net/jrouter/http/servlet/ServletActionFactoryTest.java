@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import net.jrouter.JRouterException;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.annotation.Result;
+import net.jrouter.annotation.ResultType;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.servlet.result.ServletResult;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+/**
+ * ServletActionFactoryTest.
+ */
+class ServletActionFactoryTest {
+
+    private static ServletActionFactory.DefaultServletActionFactory createActionFactory() {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = new ServletActionFactory.DefaultServletActionFactory(
+                new ServletActionFactory.DefaultServletActionFactory.Properties());
+        actionFactory.addActions(AsyncAction.class);
+        return actionFactory;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServletThreadContext.remove();
+    }
+
+    /**
+     * Test of invokeAction method returns {@code CompletionStage}, of class DefaultServletActionFactory.
+     */
+    @Test
+    void testInvokeAsync() {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = createActionFactory();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/async/started");
+        request.setAsyncSupported(true);
+        ServletThreadContext.<Object>getContextMap().put("id", "1");
+        Object res = actionFactory.invokeAction("/async/started", request, new MockHttpServletResponse(),
+                new MockServletContext());
+        // deferred even if the async started by the action
+        assertTrue(request.isAsyncStarted());
+        assertSame(AsyncAction.future, res);
+        ServletActionInvocation invocation = (ServletActionInvocation) request
+            .getAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE);
+        assertNotNull(invocation);
+        // detached from the thread's context
+        ServletThreadContext.remove();
+        assertEquals("1", invocation.getContextMap().get("id"));
+        assertNotSame(ServletThreadContext.getContextMap(), invocation.getContextMap());
+    }
+
+    /**
+     * Test of invokeAction method returns {@code CompletionStage} without async, of class
+     * DefaultServletActionFactory.
+     */
+    @Test
+    void testInvokeAsyncNotSupported() {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = createActionFactory();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/async/never");
+        RequestDeadline deadline = RequestDeadline.after(20);
+        request.setAttribute(ServletActionInvocation.DEADLINE_ATTRIBUTE, deadline);
+        // waits until the deadline
+        assertThrows(JRouterException.class, () -> actionFactory.invokeAction("/async/never", request,
+                new MockHttpServletResponse(), new MockServletContext()));
+        assertTrue(deadline.isCancelled());
+        assertNull(request.getAttribute(ServletActionInvocation.ASYNC_INVOCATION_ATTRIBUTE));
+    }
+
+    /**
+     * Test of choosing the result type by the result object, of class DefaultServletActionFactory.
+     */
+    @Test
+    void testBytesResult() throws IOException {
+        ServletActionFactory.DefaultServletActionFactory.Properties properties = new ServletActionFactory.DefaultServletActionFactory.Properties();
+        properties.setDefaultResultType("hex");
+        ServletActionFactory.DefaultServletActionFactory actionFactory = new ServletActionFactory.DefaultServletActionFactory(
+                properties);
+        actionFactory.addResultTypes(new ServletResult());
+        actionFactory.addResultTypes(new HexResult());
+        actionFactory.addActions(BytesAction.class);
+
+        // no result declared
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        actionFactory.invokeAction("/bytes/raw", new MockHttpServletRequest("GET", "/bytes/raw"), response,
+                new MockServletContext());
+        assertEquals("ab", response.getContentAsString());
+        assertEquals(2, response.getContentLength());
+
+        // the declared results apply
+        response = new MockHttpServletResponse();
+        actionFactory.invokeAction("/bytes/declared", new MockHttpServletRequest("GET", "/bytes/declared"), response,
+                new MockServletContext());
+        assertEquals("6162", response.getContentAsString());
+    }
+
+    /**
+     * Test of the forward result with or without async, of class ServletResult.
+     */
+    @Test
+    void testForward() throws IOException {
+        ServletActionFactory.DefaultServletActionFactory actionFactory = createActionFactory();
+        actionFactory.addResultTypes(new ServletResult());
+        actionFactory.addActions(ForwardAction.class);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ctx/forward/sync");
+        request.setContextPath("/ctx");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        actionFactory.invokeAction("/forward/sync", request, response, new MockServletContext());
+        assertEquals("/ctx/page", response.getForwardedUrl());
+
+        request = new MockHttpServletRequest("GET", "/ctx/forward/async");
+        request.setContextPath("/ctx");
+        request.setAsyncSupported(true);
+        actionFactory.invokeAction("/forward/async", request, new MockHttpServletResponse(),
+                new MockServletContext());
+        // resolved as the RequestDispatcher
+        assertEquals("/ctx/page", ((MockAsyncContext) request.getAsyncContext()).getDispatchedPath());
+        assertEquals(Boolean.TRUE, request.getAttribute(ServletResult.DISPATCHED_ATTRIBUTE));
+    }
+
+    /**
+     * Write the {@code byte[]} result in hex.
+     */
+    public static class HexResult {
+
+        @ResultType(type = "hex")
+        public static void hex(ServletActionInvocation invocation) throws IOException {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : (byte[]) invocation.getInvokeResult()) {
+                hex.append(String.format("%02x", b));
+            }
+            invocation.getResponse().getWriter().write(hex.toString());
+        }
+
+    }
+
+    /**
+     * Bytes test Action.
+     */
+    @Namespace(name = "/bytes")
+    public static class BytesAction {
+
+        @Action("raw")
+        public byte[] raw() {
+            return "ab".getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Action(value = "declared", results = @Result(name = "forward", type = ServletResult.FORWARD))
+        public byte[] declared() {
+            return "ab".getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Forward test Action.
+     */
+    @Namespace(name = "/forward")
+    public static class ForwardAction {
+
+        @Action(value = "sync", results = @Result(name = "page", type = ServletResult.FORWARD, location = "page"))
+        public String sync() {
+            return "page";
+        }
+
+        @Action(value = "async", results = @Result(name = "page", type = ServletResult.FORWARD, location = "page"))
+        public String async(ServletActionInvocation invocation) {
+            invocation.getAsyncContext();
+            return "page";
+        }
+
+    }
+
+    /**
+     * Async test Action.
+     */
+    @Namespace(name = "/async")
+    public static class AsyncAction {
+
+        static volatile CompletableFuture<String> future;
+
+        @Action("started")
+        public CompletableFuture<String> started(ServletActionInvocation invocation) {
+            // e.g. reading the body in non-blocking mode
+            invocation.getAsyncContext();
+            future = new CompletableFuture<>();
+            return future;
+        }
+
+        @Action("never")
+        public CompletableFuture<String> never() {
+            return new CompletableFuture<>();
+        }
+
+    }
+
+}
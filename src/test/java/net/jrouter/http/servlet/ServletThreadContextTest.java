@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet;
+
+import java.io.IOException;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ServletThreadContextTest.
+ */
+class ServletThreadContextTest {
+
+    @AfterEach
+    void tearDown() {
+        ServletThreadContext.setMode(ServletThreadContext.Mode.THREAD_LOCAL);
+        ServletThreadContext.remove();
+    }
+
+    /**
+     * Test of remove method in reuse mode.
+     */
+    @Test
+    void testReuse() {
+        ServletThreadContext.setMode(ServletThreadContext.Mode.REUSE);
+        Map<String, Object> map = ServletThreadContext.getContextMap();
+        map.put("key", "value");
+        ServletThreadContext.setException(new IllegalStateException());
+        ServletThreadContext.remove();
+        assertSame(map, ServletThreadContext.getContextMap());
+        assertTrue(map.isEmpty());
+        assertNull(ServletThreadContext.getException());
+
+        // removed even in REUSE mode
+        ServletThreadContext.clear();
+        assertNotSame(map, ServletThreadContext.getContextMap());
+    }
+
+    /**
+     * Test of runScoped method, of class ServletThreadContext.
+     */
+    @Test
+    void testRunScoped() throws Exception {
+        ServletThreadContext.setMode(ServletThreadContext.Mode.SCOPED);
+        Exception outer = new IllegalStateException("outer");
+        ServletThreadContext.setException(outer);
+        ServletThreadContext.runScoped(() -> {
+            assertNull(ServletThreadContext.getException());
+            ServletThreadContext.<Object>getContextMap().put("key", "value");
+            ServletThreadContext.setException(new IllegalArgumentException());
+            ServletThreadContext.runScoped(() -> assertTrue(ServletThreadContext.getContextMap().isEmpty()));
+            assertEquals("value", ServletThreadContext.getContextMap().get("key"));
+        });
+        assertSame(outer, ServletThreadContext.getException());
+        assertFalse(ServletThreadContext.getContextMap().containsKey("key"));
+        assertThrows(IOException.class, () -> ServletThreadContext.runScoped(() -> {
+            throw new IOException();
+        }));
+    }
+
+}
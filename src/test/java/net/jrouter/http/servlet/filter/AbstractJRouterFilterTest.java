@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.jrouter.ActionFactory;
+import net.jrouter.annotation.Action;
+import net.jrouter.annotation.Namespace;
+import net.jrouter.http.servlet.ServletActionFactory;
+import net.jrouter.http.servlet.ServletThreadContext;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+/**
+ * AbstractJRouterFilterTest.
+ */
+class AbstractJRouterFilterTest {
+
+    private AbstractJRouterFilter filter;
+
+    private boolean actionPathCaseSensitive = true;
+
+    private void init(String... params) {
+        filter = new AbstractJRouterFilter() {
+
+            @Override
+            ActionFactory createActionFactory(FilterConfig filterConfig) {
+                ServletActionFactory.DefaultServletActionFactory.Properties properties = new ServletActionFactory.DefaultServletActionFactory.Properties();
+                properties.setActionPathCaseSensitive(actionPathCaseSensitive);
+                ServletActionFactory.DefaultServletActionFactory actionFactory = new ServletActionFactory.DefaultServletActionFactory(
+                        properties);
+                actionFactory.addActions(AsyncAction.class);
+                actionFactory.addActions(UserAction.class);
+                return actionFactory;
+            }
+        };
+        MockFilterConfig filterConfig = new MockFilterConfig(new MockServletContext());
+        for (int i = 0; i < params.length; i += 2) {
+            filterConfig.addInitParameter(params[i], params[i + 1]);
+        }
+        filter.init(filterConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (filter != null) {
+            filter.destroy();
+        }
+    }
+
+    private static MockHttpServletRequest createRequest(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/async/future");
+        request.setServletPath("/async/future");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    /**
+     * Test of the async request, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testAsync() throws IOException, ServletException {
+        init("asyncTimeout", "5000");
+        MockHttpServletRequest request = createRequest("GET");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertTrue(request.isAsyncStarted());
+        assertEquals(5000, request.getAsyncContext().getTimeout());
+        assertEquals("", response.getContentAsString());
+
+        AsyncAction.future.complete("ok".getBytes(StandardCharsets.UTF_8));
+        assertFalse(request.isAsyncStarted());
+        assertEquals(200, response.getStatus());
+        assertEquals("ok", response.getContentAsString());
+    }
+
+    /**
+     * Test of the async HEAD request, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testAsyncHead() throws IOException, ServletException {
+        init("requestMethodRouting", "true");
+        MockHttpServletRequest request = createRequest("HEAD");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertTrue(request.isAsyncStarted());
+
+        AsyncAction.future.complete("ok".getBytes(StandardCharsets.UTF_8));
+        assertFalse(request.isAsyncStarted());
+        assertEquals(2, response.getContentLength());
+        assertEquals("", response.getContentAsString());
+    }
+
+    /**
+     * Test of the async request timed out, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testAsyncTimeout() throws IOException, ServletException {
+        init();
+        MockHttpServletRequest request = createRequest("GET");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : new ArrayList<>(asyncContext.getListeners())) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        assertFalse(request.isAsyncStarted());
+        assertEquals(504, response.getStatus());
+
+        // ignored after timed out
+        AsyncAction.future.complete("ok".getBytes(StandardCharsets.UTF_8));
+        assertEquals("", response.getContentAsString());
+    }
+
+    /**
+     * Test of the async request completed exceptionally, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testAsyncError() throws IOException, ServletException {
+        init();
+        MockHttpServletRequest request = createRequest("GET");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertTrue(request.isAsyncStarted());
+
+        AsyncAction.future.completeExceptionally(new IllegalStateException("error"));
+        assertFalse(request.isAsyncStarted());
+        assertEquals(500, response.getStatus());
+    }
+
+    /**
+     * Test of the single-flight request with path variables, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testSingleFlightPathVariable() throws Exception {
+        init("singleFlight", "true", "pathVariableRouting", "true");
+        UserAction.entered = new CountDownLatch(1);
+        UserAction.blocking = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> user1 = executor.submit(() -> getContent("/users/1"));
+            assertTrue(UserAction.entered.await(5, TimeUnit.SECONDS));
+            // another path of the same template is not joined to the blocking call
+            assertEquals("2", executor.submit(() -> getContent("/users/2")).get(5, TimeUnit.SECONDS));
+            UserAction.blocking.countDown();
+            assertEquals("1", user1.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            UserAction.blocking.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test of the path variables with case insensitive action path, of class AbstractJRouterFilter.
+     */
+    @Test
+    void testPathVariableCase() throws Exception {
+        actionPathCaseSensitive = false;
+        init("pathVariableRouting", "true");
+        assertEquals("AbC", getContent("/Users/AbC"));
+    }
+
+    private String getContent(String path) throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getContentAsString();
+    }
+
+    /**
+     * Path variable test Action.
+     */
+    @Namespace(name = "/users")
+    public static class UserAction {
+
+        static volatile CountDownLatch entered = new CountDownLatch(0);
+
+        static volatile CountDownLatch blocking = new CountDownLatch(0);
+
+        @Action("{id}")
+        public byte[] get() throws InterruptedException {
+            String id = String.valueOf(ServletThreadContext.getContextMap().get("id"));
+            if ("1".equals(id)) {
+                entered.countDown();
+                blocking.await(5, TimeUnit.SECONDS);
+            }
+            return id.getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Async test Action.
+     */
+    @Namespace(name = "/async")
+    public static class AsyncAction {
+
+        static volatile CompletableFuture<byte[]> future;
+
+        @Action("future")
+        public CompletableFuture<byte[]> future() {
+            future = new CompletableFuture<>();
+            return future;
+        }
+
+    }
+
+}
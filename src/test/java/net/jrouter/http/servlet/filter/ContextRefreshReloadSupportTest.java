@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.filter;
+
+import jakarta.servlet.FilterConfig;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jrouter.ActionFactory;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+
+/**
+ * ContextRefreshReloadSupportTest.
+ */
+class ContextRefreshReloadSupportTest {
+
+    /**
+     * Test of register method, of class ContextRefreshReloadSupport.
+     */
+    @Test
+    void testRegister() {
+        MockServletContext servletContext = new MockServletContext();
+        AtomicLong startupDate = new AtomicLong(1);
+        GenericWebApplicationContext applicationContext = new GenericWebApplicationContext(servletContext) {
+
+            @Override
+            public long getStartupDate() {
+                return startupDate.get();
+            }
+        };
+        applicationContext.refresh();
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+
+        AtomicInteger reloaded = new AtomicInteger();
+        AbstractJRouterFilter filter = new AbstractJRouterFilter() {
+
+            @Override
+            ActionFactory createActionFactory(FilterConfig filterConfig) {
+                return null;
+            }
+
+            @Override
+            public CompletableFuture<ActionFactory> reloadActionFactory(Executor executor) {
+                reloaded.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        ContextRefreshReloadSupport.register(servletContext, filter);
+        // e.g. published after the embedded container initialized the filter
+        applicationContext.publishEvent(new ContextRefreshedEvent(applicationContext));
+        assertEquals(0, reloaded.get());
+
+        // refreshed again
+        startupDate.set(2);
+        applicationContext.publishEvent(new ContextRefreshedEvent(applicationContext));
+        assertEquals(1, reloaded.get());
+        applicationContext.close();
+    }
+
+}
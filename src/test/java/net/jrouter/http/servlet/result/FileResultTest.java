@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * FileResultTest.
+ */
+class FileResultTest {
+
+    /**
+     * Test of parseRanges method, of class FileResult.
+     */
+    @Test
+    void testParseRanges() {
+        List<long[]> ranges = FileResult.parseRanges("bytes=0-99", 1000);
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new long[] { 0, 99 }, ranges.get(0));
+
+        assertArrayEquals(new long[] { 900, 999 }, FileResult.parseRanges("bytes=-100", 1000).get(0));
+        assertArrayEquals(new long[] { 0, 999 }, FileResult.parseRanges("bytes=-2000", 1000).get(0));
+        assertArrayEquals(new long[] { 500, 999 }, FileResult.parseRanges("bytes=500-", 1000).get(0));
+        assertArrayEquals(new long[] { 500, 999 }, FileResult.parseRanges("bytes=500-5000", 1000).get(0));
+
+        // sorted and merged
+        ranges = FileResult.parseRanges("bytes=500-600, 0-9, 10-19, 550-700", 1000);
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new long[] { 0, 19 }, ranges.get(0));
+        assertArrayEquals(new long[] { 500, 700 }, ranges.get(1));
+
+        // unsatisfiable
+        assertTrue(FileResult.parseRanges("bytes=1000-1100", 1000).isEmpty());
+        assertTrue(FileResult.parseRanges("bytes=-0", 1000).isEmpty());
+
+        // ignored
+        assertNull(FileResult.parseRanges("items=0-1", 1000));
+        assertNull(FileResult.parseRanges("bytes=10-5", 1000));
+        assertNull(FileResult.parseRanges("bytes=a-b", 1000));
+        assertNull(FileResult.parseRanges("bytes=5", 1000));
+    }
+
+    /**
+     * Test of ifRange method, of class FileResult.
+     */
+    @Test
+    void testIfRange() {
+        String etag = "\"1-2\"";
+        assertTrue(FileResult.ifRange(null, etag, 0));
+        assertTrue(FileResult.ifRange("\"1-2\"", etag, 0));
+        assertFalse(FileResult.ifRange("W/\"1-2\"", etag, 0));
+        assertFalse(FileResult.ifRange("\"1-3\"", etag, 0));
+        assertTrue(FileResult.ifRange("Thu, 01 Jan 1970 00:00:01 GMT", etag, 1000));
+        assertFalse(FileResult.ifRange("Thu, 01 Jan 1970 00:00:02 GMT", etag, 1000));
+        assertFalse(FileResult.ifRange("invalid", etag, 1000));
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import net.jrouter.http.RequestDeadline;
+import net.jrouter.http.servlet.ServletActionInvocation;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * NonBlockingResultTest.
+ */
+class NonBlockingResultTest {
+
+    private static ServletActionInvocation createInvocation(Object res, HttpServletRequest request,
+            HttpServletResponse response) {
+        return (ServletActionInvocation) Proxy.newProxyInstance(NonBlockingResultTest.class.getClassLoader(),
+                new Class<?>[] { ServletActionInvocation.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getInvokeResult":
+                            return res;
+                        case "getRequest":
+                            return request;
+                        case "getResponse":
+                            return response;
+                        case "getDeadline":
+                            return request.getAttribute(ServletActionInvocation.DEADLINE_ATTRIBUTE);
+                        case "getAsyncContext":
+                            return request.isAsyncStarted() ? request.getAsyncContext()
+                                    : request.startAsync(request, response);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Test of stream method for the HEAD request, of class NonBlockingResult.
+     */
+    @Test
+    void testStreamHead() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        NonBlockingResult.stream(createInvocation("abc".getBytes(StandardCharsets.UTF_8), request, response));
+        // blocking
+        assertFalse(request.isAsyncStarted());
+        assertNull(request.getAttribute(NonBlockingResult.WRITING_ATTRIBUTE));
+        assertEquals(3, response.getContentLength());
+        assertEquals("application/octet-stream", response.getContentType());
+    }
+
+    /**
+     * Test of stream method, of class NonBlockingResult.
+     */
+    @Test
+    void testStream() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/stream");
+        request.setAsyncSupported(true);
+        request.setAttribute(ServletActionInvocation.DEADLINE_ATTRIBUTE, RequestDeadline.after(5000));
+        NonBlockingResponse response = new NonBlockingResponse(true);
+        Source source = new Source("abc");
+        NonBlockingResult.stream(createInvocation(source, request, response));
+        assertNotNull(request.getAttribute(NonBlockingResult.WRITING_ATTRIBUTE));
+        long timeout = ((MockAsyncContext) request.getAsyncContext()).getTimeout();
+        assertTrue(timeout > 0 && timeout <= 5000);
+        assertEquals("abc", response.getContentAsString());
+        // completed by the writer
+        assertTrue(source.closed);
+        assertFalse(request.isAsyncStarted());
+    }
+
+    /**
+     * Test of stream method when writing timed out, of class NonBlockingResult.
+     */
+    @Test
+    void testStreamTimeout() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/stream");
+        request.setAsyncSupported(true);
+        NonBlockingResponse response = new NonBlockingResponse(false);
+        Source source = new Source("abc");
+        NonBlockingResult.stream(createInvocation(source, request, response));
+        assertTrue(request.isAsyncStarted());
+        assertFalse(source.closed);
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        assertTrue(source.closed);
+        assertFalse(request.isAsyncStarted());
+        assertEquals("", response.getContentAsString());
+    }
+
+    /**
+     * The source records if closed.
+     */
+    private static final class Source extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        Source(String content) {
+            super(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+    /**
+     * The response supports the WriteListener, calls it immediately if ready.
+     */
+    private static final class NonBlockingResponse extends HttpServletResponseWrapper {
+
+        private final MockHttpServletResponse response;
+
+        private final boolean ready;
+
+        private ServletOutputStream outputStream;
+
+        NonBlockingResponse(boolean ready) {
+            super(new MockHttpServletResponse());
+            this.response = (MockHttpServletResponse) getResponse();
+            this.ready = ready;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream out = response.getOutputStream();
+                outputStream = new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return ready;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        try {
+                            if (ready) {
+                                writeListener.onWritePossible();
+                            }
+                        }
+                        catch (IOException e) {
+                            writeListener.onError(e);
+                        }
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        String getContentAsString() throws IOException {
+            return response.getContentAsString(StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.http.servlet.result;
+
+import jakarta.servlet.RequestDispatcher;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+
+/**
+ * ResultLocationTest.
+ */
+class ResultLocationTest {
+
+    /**
+     * Test of of method, of class ResultLocation.
+     */
+    @Test
+    void testOf() {
+        ResultLocation location = ResultLocation.of("user/list.jsp");
+        assertSame(location, ResultLocation.of("user/list.jsp"));
+        assertEquals("/user/list.jsp", location.getPath());
+        assertEquals("/user/list.jsp", ResultLocation.of("/user/list.jsp").getPath());
+    }
+
+    /**
+     * Test of resolve and getRequestDispatcher method, of class ResultLocation.
+     */
+    @Test
+    void testResolve() {
+        MockServletContext servletContext = new MockServletContext();
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext);
+        ResultLocation location = ResultLocation.of("/index.jsp");
+        assertEquals("/index.jsp", location.resolve(request));
+
+        RequestDispatcher dispatcher = location.getRequestDispatcher(request, servletContext);
+        assertNotNull(dispatcher);
+        assertSame(dispatcher, location.getRequestDispatcher(request, servletContext));
+        assertNotSame(dispatcher, location.getRequestDispatcher(request, new MockServletContext()));
+
+        request.setContextPath("/app");
+        assertEquals("/app/index.jsp", location.resolve(request));
+        assertNotSame(dispatcher, location.getRequestDispatcher(request, servletContext));
+    }
+
+}